@@ -0,0 +1,51 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+/**
+ * Gives the benchmarks access to the package-private update methods of {@link ObjectSystemRunner}s.
+ * That way, single runner updates and renderer calls can be measured without scheduling the runners on a bukkit scheduler.
+ */
+public class RunnerAccess {
+
+    /**
+     * Simulates and displays the active object system of the given {@link ObjectSystemRunner} for one tick, just like the scheduler would.
+     *
+     * @param runner The runner that should be updated.
+     */
+    public static void update(ObjectSystemRunner runner) {
+
+        runner.update();
+    }
+
+    /**
+     * Starts a new tick for the renderers of the given {@link ObjectSystemRunner}, so the receivers of its active object system are looked up again.
+     *
+     * @param runner The runner whose receivers should be reset.
+     */
+    public static void resetReceivers(ObjectSystemRunner runner) {
+
+        runner.resetReceivers();
+    }
+
+    private RunnerAccess() {
+
+    }
+
+}
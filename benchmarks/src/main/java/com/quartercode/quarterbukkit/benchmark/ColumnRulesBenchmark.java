@@ -0,0 +1,96 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.benchmark;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.run.HeadlessObjectSystemRunner;
+import com.quartercode.quarterbukkit.api.objectsystem.run.Renderer;
+import com.quartercode.quarterbukkit.api.objectsystem.util.ShapedModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.TargetedVelocityModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.TargetedVelocityModifier.TargetedVelocityModificationType;
+import com.quartercode.quarterbukkit.api.shape.Sphere;
+
+/**
+ * Measures the application of a shaped gravity rule to the rows of some {@link PhysicsColumns}, either in batches or row by row.
+ * No renderers are used, so the rows never move and the measured time only consists of the rule application.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class ColumnRulesBenchmark {
+
+    @Param ({ "true", "false" })
+    private boolean                    batchRules;
+
+    @Param ({ "100000" })
+    private int                        rows;
+
+    private HeadlessObjectSystemRunner runner;
+
+    @Setup (Level.Trial)
+    public void setUp() {
+
+        ObjectSystemDefinition definition = new ObjectSystemDefinition();
+        TargetedVelocityModifier<StandalonePhysicsObject> gravity = new TargetedVelocityModifier<StandalonePhysicsObject>(new Vector(0, 8, 0), TargetedVelocityModificationType.GRAVITY, 0.5F);
+        definition.addModificationRules(new VelocityModificationRule<StandalonePhysicsObject>(StandalonePhysicsObject.class, new ShapedModifier<StandalonePhysicsObject, Vector>(new Sphere(0, 0, 0, 15.75), gravity)));
+
+        ActiveObjectSystem objectSystem = new ActiveObjectSystem(definition, new Location(null, 0, 64, 0));
+        PhysicsColumns physicsColumns = objectSystem.getPhysicsColumns();
+        physicsColumns.ensureCapacity(rows);
+        StandalonePhysicsObject prototype = new StandalonePhysicsObject();
+        Random random = new Random(0);
+        for (int row = 0; row < rows; row++) {
+            physicsColumns.add(prototype, random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16, 0, 0, 0);
+        }
+
+        runner = new HeadlessObjectSystemRunner(Collections.<Renderer<?>> emptyList(), objectSystem);
+        runner.setBatchRules(batchRules);
+    }
+
+    @Benchmark
+    public void step() {
+
+        runner.step(1);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.Modifier;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.util.ShapedModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.StaticVelocityModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.TargetedVelocityModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.VectorLengthModifier;
+import com.quartercode.quarterbukkit.api.shape.Sphere;
+
+/**
+ * Measures the application of common {@link ModificationRule} chains to a fixed amount of {@link StandalonePhysicsObject}s.
+ * The shaped chains use a sphere which contains about half of the objects.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class ModificationRuleBenchmark {
+
+    @Param ({ "Static", "Targeted", "ShapedStatic", "ShapedTargeted", "ScaledShapedTargeted" })
+    private String                                            chain;
+
+    @Param ({ "10000" })
+    private int                                               objects;
+
+    private ModificationRule<StandalonePhysicsObject, Vector> rule;
+    private final List<StandalonePhysicsObject>               modifiedObjects = new ArrayList<StandalonePhysicsObject>();
+
+    @Setup (Level.Trial)
+    public void setUp() {
+
+        Modifier<StandalonePhysicsObject, Vector> modifier;
+        if (chain.equals("Static")) {
+            modifier = new StaticVelocityModifier<StandalonePhysicsObject>(new Vector(0, -0.01, 0));
+        } else if (chain.equals("Targeted")) {
+            modifier = new TargetedVelocityModifier<StandalonePhysicsObject>(new Vector(0, 8, 0), 0.01F);
+        } else if (chain.equals("ShapedStatic")) {
+            modifier = new ShapedModifier<StandalonePhysicsObject, Vector>(new Sphere(0, 0, 0, 15.75), new StaticVelocityModifier<StandalonePhysicsObject>(new Vector(0, -0.01, 0)));
+        } else if (chain.equals("ShapedTargeted")) {
+            modifier = new ShapedModifier<StandalonePhysicsObject, Vector>(new Sphere(0, 0, 0, 15.75), new TargetedVelocityModifier<StandalonePhysicsObject>(new Vector(0, 8, 0), 0.01F));
+        } else if (chain.equals("ScaledShapedTargeted")) {
+            modifier = new VectorLengthModifier<StandalonePhysicsObject>(0.5F, new ShapedModifier<StandalonePhysicsObject, Vector>(new Sphere(0, 0, 0, 15.75), new TargetedVelocityModifier<StandalonePhysicsObject>(new Vector(0, 8, 0), 0.01F)));
+        } else {
+            throw new IllegalArgumentException("Unknown modification rule chain: " + chain);
+        }
+        rule = new VelocityModificationRule<StandalonePhysicsObject>(StandalonePhysicsObject.class, modifier);
+
+        Random random = new Random(0);
+        for (int index = 0; index < objects; index++) {
+            Vector position = new Vector(random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16);
+            modifiedObjects.add(new StandalonePhysicsObject(position, new Vector()));
+        }
+    }
+
+    @Benchmark
+    public void apply() {
+
+        for (StandalonePhysicsObject object : modifiedObjects) {
+            rule.apply(object);
+        }
+    }
+
+}
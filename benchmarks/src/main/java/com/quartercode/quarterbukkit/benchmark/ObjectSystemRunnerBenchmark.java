@@ -0,0 +1,98 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleObject;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleType;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ObjectSystemRunner;
+import com.quartercode.quarterbukkit.api.objectsystem.run.RunnerAccess;
+import com.quartercode.quarterbukkit.api.objectsystem.util.StaticVelocityModifier;
+import com.quartercode.quarterbukkit.benchmark.standin.BukkitStandIn;
+
+/**
+ * Measures complete {@link ObjectSystemRunner} update cycles with the default renderers.
+ * The simulated system contains a fixed amount of never expiring {@link ParticleObject}s, which are pulled down by a gravity rule.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class ObjectSystemRunnerBenchmark {
+
+    @Param ({ "1000", "10000", "100000" })
+    private int                objects;
+
+    @Param ({ "10" })
+    private int                players;
+
+    private ObjectSystemRunner runner;
+
+    @Setup (Level.Trial)
+    public void setUp() {
+
+        BukkitStandIn.install();
+        Location origin = new Location(BukkitStandIn.getWorld(), 0, 64, 0);
+        BukkitStandIn.setOnlinePlayers(players, origin);
+
+        ObjectSystemDefinition definition = new ObjectSystemDefinition();
+        definition.addModificationRules(new VelocityModificationRule<ParticleObject>(ParticleObject.class, new StaticVelocityModifier<ParticleObject>(new Vector(0, -0.01, 0))));
+
+        ActiveObjectSystem objectSystem = new ActiveObjectSystem(definition, origin);
+        objectSystem.ensureObjectCapacity(objects);
+        Random random = new Random(0);
+        for (int index = 0; index < objects; index++) {
+            Vector position = new Vector(random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16);
+            Vector velocity = new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 0.5).multiply(0.1);
+            objectSystem.addObject(new ParticleObject(position, velocity).addParticles(new ParticleDefinition().setType(ParticleType.FIREWORKS_SPARK)));
+        }
+
+        runner = new ObjectSystemRunner(BukkitStandIn.getPlugin(), objectSystem);
+        // Never skip work because of the time budget; the benchmark should measure the full update
+        runner.setTimeBudget(0);
+    }
+
+    @Benchmark
+    public void update() {
+
+        RunnerAccess.update(runner);
+    }
+
+}
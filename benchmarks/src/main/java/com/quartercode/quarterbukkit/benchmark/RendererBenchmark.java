@@ -0,0 +1,144 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Color;
+import org.bukkit.FireworkEffect.Type;
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.FireworkEffectDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.FireworkObject;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleObject;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleType;
+import com.quartercode.quarterbukkit.api.objectsystem.object.RealEntityObject;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ObjectSystemRunner;
+import com.quartercode.quarterbukkit.api.objectsystem.run.Renderer;
+import com.quartercode.quarterbukkit.api.objectsystem.run.Renderer.RenderingResult;
+import com.quartercode.quarterbukkit.api.objectsystem.run.RunnerAccess;
+import com.quartercode.quarterbukkit.benchmark.standin.BukkitStandIn;
+
+/**
+ * Measures each of the {@link ObjectSystemRunner#DEFAULT_RENDERERS default renderers} in isolation.
+ * Every invocation renders a fixed amount of objects which are accepted by the benchmarked renderer.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5)
+@Measurement (iterations = 10)
+@Fork (1)
+public class RendererBenchmark {
+
+    @Param ({ "BaseObjectRenderer", "BlockCollisionRenderer", "StandalonePhysicsObjectRenderer", "ParticleRenderer", "FireworkRenderer", "RealEntityObjectRenderer" })
+    private String                 renderer;
+
+    @Param ({ "1000" })
+    private int                    objects;
+
+    @Param ({ "10" })
+    private int                    players;
+
+    private Plugin                 plugin;
+    private ActiveObjectSystem     objectSystem;
+    private ObjectSystemRunner     runner;
+    private Renderer<BaseObject>   benchmarkedRenderer;
+    private final List<BaseObject> renderedObjects = new ArrayList<BaseObject>();
+
+    @SuppressWarnings ("unchecked")
+    @Setup (Level.Trial)
+    public void setUp() {
+
+        BukkitStandIn.install();
+        Location origin = new Location(BukkitStandIn.getWorld(), 0, 64, 0);
+        BukkitStandIn.setOnlinePlayers(players, origin);
+        plugin = BukkitStandIn.getPlugin();
+
+        objectSystem = new ActiveObjectSystem(new ObjectSystemDefinition(), origin);
+        objectSystem.enableBlockCollision(32);
+        objectSystem.getChunkSnapshotCache().refresh(origin);
+        runner = new ObjectSystemRunner(plugin, objectSystem);
+
+        for (Renderer<?> defaultRenderer : ObjectSystemRunner.DEFAULT_RENDERERS) {
+            if (defaultRenderer.getClass().getSimpleName().equals(renderer)) {
+                benchmarkedRenderer = (Renderer<BaseObject>) defaultRenderer;
+            }
+        }
+        if (benchmarkedRenderer == null) {
+            throw new IllegalArgumentException("Unknown default renderer: " + renderer);
+        }
+
+        Random random = new Random(0);
+        for (int index = 0; index < objects; index++) {
+            Vector position = new Vector(random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16, random.nextDouble() * 32 - 16);
+            Vector velocity = new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 0.5).multiply(0.1);
+            renderedObjects.add(createObject(position, velocity));
+        }
+    }
+
+    private BaseObject createObject(Vector position, Vector velocity) {
+
+        Class<?> objectType = benchmarkedRenderer.getObjectType();
+        if (objectType == FireworkObject.class) {
+            return new FireworkObject(position, velocity).addEffects(new FireworkEffectDefinition().setType(Type.BALL).addColors(Color.RED));
+        } else if (objectType == RealEntityObject.class) {
+            return new RealEntityObject(objectSystem, BukkitStandIn.createEntity(objectSystem.getOrigin().add(position)));
+        } else if (objectType.isAssignableFrom(ParticleObject.class)) {
+            return new ParticleObject(position, velocity).addParticles(new ParticleDefinition().setType(ParticleType.FIREWORKS_SPARK));
+        } else {
+            throw new IllegalArgumentException("Unsupported renderer object type: " + objectType.getName());
+        }
+    }
+
+    @Benchmark
+    public int render() {
+
+        // Each invocation is one tick, so the receivers of the particles are looked up once per invocation
+        RunnerAccess.resetReceivers(runner);
+
+        int removals = 0;
+        for (BaseObject object : renderedObjects) {
+            if (benchmarkedRenderer.render(plugin, objectSystem, object) == RenderingResult.REMOVE) {
+                removals++;
+            }
+        }
+        return removals;
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.benchmark.standin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+import net.minecraft.server.v1_7_R4.EntityFireworks;
+import net.minecraft.server.v1_7_R4.EntityPlayer;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.v1_7_R4.CraftWorld;
+import org.bukkit.craftbukkit.v1_7_R4.entity.CraftFirework;
+import org.bukkit.craftbukkit.v1_7_R4.entity.CraftPlayer;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.meta.FireworkMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.benchmark.standin.StandInHandler.Answer;
+
+/**
+ * A lightweight in-process stand-in for a bukkit server, which allows to run the QuarterBukkit hot paths headless.
+ * It installs a proxy {@link Server} with one flat, empty {@link World} and a configurable amount of online {@link Player}s.
+ * The proxy server class is located in a craftbukkit package, so the version-dependent reflection code finds the
+ * stand-in craftbukkit and minecraft server classes of this module.
+ * Particle packets and firework effects are not sent anywhere, they are only counted.
+ */
+public class BukkitStandIn {
+
+    private static final String      CB_PACKAGE = "org.bukkit.craftbukkit.v1_7_R4";
+
+    private static boolean           installed;
+    private static World             world;
+    private static Plugin            plugin;
+    private static CraftPlayer[]     onlinePlayers = new CraftPlayer[0];
+
+    /**
+     * Installs the stand-in server as the bukkit server if it isn't installed yet.
+     * The stand-in can't be uninstalled since bukkit doesn't allow to replace its server.
+     */
+    public static synchronized void install() {
+
+        if (installed) {
+            return;
+        }
+
+        world = createWorld();
+        plugin = StandInHandler.create(new StandInHandler("BenchmarkPlugin").returns("getName", "Benchmark").returns("isEnabled", true), Plugin.class);
+
+        StandInHandler serverHandler = new StandInHandler("StandInServer");
+        serverHandler.returns("getName", "QuarterBukkit-StandIn").returns("getVersion", "stand-in").returns("getBukkitVersion", "1.7.9-R0.2");
+        serverHandler.returns("getLogger", Logger.getLogger("StandInServer"));
+        serverHandler.returns("getWorld", world);
+        serverHandler.returns("getOnlinePlayers", new Answer() {
+
+            @Override
+            public Object answer(Object[] args) {
+
+                return onlinePlayers.clone();
+            }
+
+        });
+        Bukkit.setServer(createServer(serverHandler));
+
+        installed = true;
+    }
+
+    private static Server createServer(InvocationHandler handler) {
+
+        try {
+            Class<?> serverClass = Class.forName(CB_PACKAGE + ".CraftServer");
+            return (Server) Proxy.newProxyInstance(serverClass.getClassLoader(), new Class<?>[] { serverClass }, handler);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Cannot find the stand-in craftbukkit server interface", e);
+        }
+    }
+
+    private static World createWorld() {
+
+        final Chunk chunk = StandInHandler.create(new StandInHandler("StandInChunk").returns("getChunkSnapshot", StandInHandler.create(new StandInHandler("StandInChunkSnapshot"), ChunkSnapshot.class)), Chunk.class);
+
+        final StandInHandler worldHandler = new StandInHandler("StandInWorld");
+        final CraftWorld world = StandInHandler.create(worldHandler, CraftWorld.class);
+        worldHandler.returns("getName", "world").returns("getMaxHeight", 256).returns("isChunkLoaded", true).returns("getChunkAt", chunk);
+        worldHandler.returns("getHandle", new net.minecraft.server.v1_7_R4.World());
+        worldHandler.returns("spawnEntity", new Answer() {
+
+            @Override
+            public Object answer(Object[] args) {
+
+                FireworkMeta meta = StandInHandler.create(new StandInHandler("StandInFireworkMeta"), FireworkMeta.class);
+                StandInHandler fireworkHandler = new StandInHandler("StandInFirework");
+                fireworkHandler.returns("getWorld", world).returns("getLocation", ((Location) args[0]).clone()).returns("getFireworkMeta", meta);
+                fireworkHandler.returns("getHandle", new EntityFireworks()).returns("isValid", true);
+                return StandInHandler.create(fireworkHandler, CraftFirework.class);
+            }
+
+        });
+
+        return world;
+    }
+
+    /**
+     * Returns the flat and empty {@link World} of the stand-in server.
+     * All its chunks are loaded and only contain air.
+     *
+     * @return The stand-in world.
+     */
+    public static World getWorld() {
+
+        return world;
+    }
+
+    /**
+     * Returns a {@link Plugin} which can be used to run object systems on the stand-in server.
+     *
+     * @return The stand-in plugin.
+     */
+    public static Plugin getPlugin() {
+
+        return plugin;
+    }
+
+    /**
+     * Returns the players which are currently online on the stand-in server.
+     *
+     * @return The online stand-in players.
+     */
+    public static Player[] getOnlinePlayers() {
+
+        return onlinePlayers.clone();
+    }
+
+    /**
+     * Replaces the online players of the stand-in server with the given amount of new players.
+     * All players are located at the given {@link Location}.
+     *
+     * @param amount The amount of players which should be online.
+     * @param location The location of all players.
+     */
+    public static synchronized void setOnlinePlayers(int amount, final Location location) {
+
+        CraftPlayer[] players = new CraftPlayer[amount];
+        for (int index = 0; index < amount; index++) {
+            StandInHandler playerHandler = new StandInHandler("StandInPlayer" + index);
+            playerHandler.returns("getName", "Player" + index).returns("getWorld", world).returns("isOnline", true).returns("isValid", true);
+            playerHandler.returns("getHandle", new EntityPlayer());
+            playerHandler.returns("getLocation", new Answer() {
+
+                @Override
+                public Object answer(Object[] args) {
+
+                    if (args == null) {
+                        return location.clone();
+                    }
+
+                    Location target = (Location) args[0];
+                    target.setWorld(location.getWorld());
+                    target.setX(location.getX());
+                    target.setY(location.getY());
+                    target.setZ(location.getZ());
+                    return target;
+                }
+
+            });
+            players[index] = StandInHandler.create(playerHandler, CraftPlayer.class);
+        }
+
+        onlinePlayers = players;
+    }
+
+    /**
+     * Returns the amount of particle packets which have been sent to all currently online players.
+     *
+     * @return The amount of sent packets.
+     */
+    public static long getSentPackets() {
+
+        long packets = 0;
+        for (CraftPlayer player : onlinePlayers) {
+            packets += player.getHandle().playerConnection.getSentPackets();
+        }
+        return packets;
+    }
+
+    /**
+     * Creates a new {@link Entity} which stands at the given {@link Location} and never moves.
+     * It can be used to benchmark the handling of real entities.
+     *
+     * @param location The location of the entity.
+     * @return The new stand-in entity.
+     */
+    public static Entity createEntity(Location location) {
+
+        StandInHandler entityHandler = new StandInHandler("StandInEntity");
+        entityHandler.returns("getWorld", location.getWorld()).returns("getLocation", location.clone()).returns("getVelocity", new Vector()).returns("isValid", true);
+        entityHandler.returns("teleport", true);
+        return StandInHandler.create(entityHandler, Entity.class);
+    }
+
+    private BukkitStandIn() {
+
+    }
+
+}
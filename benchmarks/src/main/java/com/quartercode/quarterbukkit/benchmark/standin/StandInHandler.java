@@ -0,0 +1,129 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.benchmark.standin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An {@link InvocationHandler} for the proxies which stand in for the bukkit interfaces.
+ * It returns configured values for some methods and default values ({@code null}, {@code false} or {@code 0}) for all other ones.
+ * Equality and hash codes are based on identity.
+ */
+public class StandInHandler implements InvocationHandler {
+
+    private static final Map<Class<?>, Object> DEFAULT_VALUES = new HashMap<Class<?>, Object>();
+
+    static {
+
+        DEFAULT_VALUES.put(boolean.class, false);
+        DEFAULT_VALUES.put(byte.class, (byte) 0);
+        DEFAULT_VALUES.put(short.class, (short) 0);
+        DEFAULT_VALUES.put(char.class, (char) 0);
+        DEFAULT_VALUES.put(int.class, 0);
+        DEFAULT_VALUES.put(long.class, 0L);
+        DEFAULT_VALUES.put(float.class, 0F);
+        DEFAULT_VALUES.put(double.class, 0D);
+
+    }
+
+    /**
+     * Creates a new proxy which implements the given interfaces and uses the given stand-in handler.
+     *
+     * @param handler The stand-in handler which answers the method calls.
+     * @param type The main interface the proxy implements. The proxy is cast to this type.
+     * @param additionalTypes Some more interfaces the proxy should implement.
+     * @return The new proxy.
+     */
+    @SuppressWarnings ("unchecked")
+    public static <T> T create(StandInHandler handler, Class<T> type, Class<?>... additionalTypes) {
+
+        Class<?>[] types = new Class<?>[additionalTypes.length + 1];
+        types[0] = type;
+        System.arraycopy(additionalTypes, 0, types, 1, additionalTypes.length);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), types, handler);
+    }
+
+    /**
+     * An answer calculates the return value of a method call using the arguments of the call.
+     */
+    public static interface Answer {
+
+        /**
+         * Calculates the return value of a method call.
+         *
+         * @param args The arguments of the method call.
+         * @return The return value.
+         */
+        public Object answer(Object[] args);
+
+    }
+
+    private final String              name;
+    private final Map<String, Object> returnValues = new HashMap<String, Object>();
+
+    /**
+     * Creates a new stand-in handler with the given name, which is returned by the {@code toString()} method of the proxy.
+     *
+     * @param name The name of the proxy.
+     */
+    public StandInHandler(String name) {
+
+        this.name = name;
+    }
+
+    /**
+     * Lets all methods with the given name return the given value.
+     * If the value is an {@link Answer}, the return value is calculated by that answer on each call.
+     *
+     * @param methodName The name of the methods which should return the value.
+     * @param value The value which should be returned.
+     * @return This object.
+     */
+    public StandInHandler returns(String methodName, Object value) {
+
+        returnValues.put(methodName, value);
+        return this;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+
+        String methodName = method.getName();
+
+        if (methodName.equals("equals") && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if (methodName.equals("hashCode") && args == null) {
+            return System.identityHashCode(proxy);
+        } else if (methodName.equals("toString") && args == null) {
+            return name;
+        }
+
+        if (returnValues.containsKey(methodName)) {
+            Object value = returnValues.get(methodName);
+            return value instanceof Answer ? ((Answer) value).answer(args) : value;
+        }
+
+        return DEFAULT_VALUES.get(method.getReturnType());
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * A stand-in for the minecraft server's entity base class.
+ * It provides the methods the renderers call via reflection.
+ */
+public class Entity {
+
+    private boolean invisible;
+
+    /**
+     * Creates a new visible entity.
+     */
+    public Entity() {
+
+    }
+
+    /**
+     * Returns whether the entity is invisible.
+     *
+     * @return Whether the entity is invisible.
+     */
+    public boolean isInvisible() {
+
+        return invisible;
+    }
+
+    /**
+     * Sets whether the entity is invisible.
+     *
+     * @param invisible Whether the entity should be invisible.
+     */
+    public void setInvisible(boolean invisible) {
+
+        this.invisible = invisible;
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * A stand-in for the minecraft server's player entity.
+ * It provides the public {@link PlayerConnection} field the particle renderer reads via reflection.
+ */
+public class EntityPlayer extends Entity {
+
+    /**
+     * The connection which counts all packets that are sent to the player.
+     */
+    public PlayerConnection playerConnection = new PlayerConnection();
+
+    /**
+     * Creates a new player entity with a new {@link PlayerConnection}.
+     */
+    public EntityPlayer() {
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * A stand-in for the minecraft server's world particles packet.
+ * It provides the fields the particle renderer writes via reflection.
+ */
+public class PacketPlayOutWorldParticles extends Packet {
+
+    private String a;
+    private float  b;
+    private float  c;
+    private float  d;
+    private float  e;
+    private float  f;
+    private float  g;
+    private float  h;
+    private int    i;
+
+    /**
+     * Creates a new empty world particles packet.
+     */
+    public PacketPlayOutWorldParticles() {
+
+    }
+
+    /**
+     * Returns the name of the particle type which is displayed by the packet.
+     *
+     * @return The particle type name.
+     */
+    public String getParticleName() {
+
+        return a;
+    }
+
+    /**
+     * Returns the amount of particles which are displayed by the packet.
+     *
+     * @return The particle amount.
+     */
+    public int getAmount() {
+
+        return i;
+    }
+
+}
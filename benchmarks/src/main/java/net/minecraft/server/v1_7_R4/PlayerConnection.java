@@ -0,0 +1,56 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * A stand-in for the minecraft server's player connection.
+ * Instead of sending the packets over the network, it just counts them.
+ */
+public class PlayerConnection {
+
+    private long sentPackets;
+
+    /**
+     * Creates a new player connection which hasn't sent any packets yet.
+     */
+    public PlayerConnection() {
+
+    }
+
+    /**
+     * Returns the amount of packets which have been "sent" through the connection.
+     *
+     * @return The amount of sent packets.
+     */
+    public long getSentPackets() {
+
+        return sentPackets;
+    }
+
+    /**
+     * Counts the given packet as sent.
+     *
+     * @param packet The packet that should be sent.
+     */
+    public void sendPacket(Packet packet) {
+
+        sentPackets++;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * A stand-in for the minecraft server's world.
+ * It provides the methods the firework renderer calls via reflection.
+ */
+public class World {
+
+    private long entityEffects;
+
+    /**
+     * Creates a new world which hasn't broadcasted any entity effects yet.
+     */
+    public World() {
+
+    }
+
+    /**
+     * Returns the amount of entity effects which have been broadcasted in the world.
+     *
+     * @return The amount of broadcasted entity effects.
+     */
+    public long getEntityEffects() {
+
+        return entityEffects;
+    }
+
+    /**
+     * Counts the given entity effect as broadcasted.
+     *
+     * @param entity The entity the effect is played on.
+     * @param effect The id of the effect.
+     */
+    public void broadcastEntityEffect(Entity entity, byte effect) {
+
+        entityEffects++;
+    }
+
+}
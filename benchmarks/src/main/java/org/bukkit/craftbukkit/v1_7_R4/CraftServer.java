@@ -0,0 +1,30 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bukkit.craftbukkit.v1_7_R4;
+
+import org.bukkit.Server;
+
+/**
+ * The {@link Server} interface the stand-in server proxy implements.
+ * Since this interface is package-private, the proxy class is defined in this package.
+ * That way, the version-dependent reflection code of QuarterBukkit derives the package version {@code v1_7_R4} from the server class.
+ */
+interface CraftServer extends Server {
+
+}
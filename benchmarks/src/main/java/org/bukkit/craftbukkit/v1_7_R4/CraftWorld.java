@@ -0,0 +1,36 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bukkit.craftbukkit.v1_7_R4;
+
+import org.bukkit.World;
+
+/**
+ * A stand-in for the craftbukkit world.
+ * It is implemented by a proxy and provides the handle method the renderers call via reflection.
+ */
+public interface CraftWorld extends World {
+
+    /**
+     * Returns the minecraft server world which is wrapped by the bukkit world.
+     *
+     * @return The wrapped minecraft server world.
+     */
+    public net.minecraft.server.v1_7_R4.World getHandle();
+
+}
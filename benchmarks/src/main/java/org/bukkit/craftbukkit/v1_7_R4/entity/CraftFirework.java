@@ -0,0 +1,37 @@
+/*
+ * This file is part of QuarterBukkit-Benchmarks.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Benchmarks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Benchmarks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Benchmarks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bukkit.craftbukkit.v1_7_R4.entity;
+
+import net.minecraft.server.v1_7_R4.EntityFireworks;
+import org.bukkit.entity.Firework;
+
+/**
+ * A stand-in for the craftbukkit firework.
+ * It is implemented by a proxy and provides the handle method the firework renderer calls via reflection.
+ */
+public interface CraftFirework extends Firework {
+
+    /**
+     * Returns the minecraft server firework entity which is wrapped by the bukkit firework.
+     *
+     * @return The wrapped minecraft server firework entity.
+     */
+    public EntityFireworks getHandle();
+
+}
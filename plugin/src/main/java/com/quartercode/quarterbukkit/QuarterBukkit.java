@@ -23,8 +23,12 @@ import java.io.IOException;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.mcstats.MetricsLite;
+import com.quartercode.quarterbukkit.api.command.CommandExecutor;
+import com.quartercode.quarterbukkit.util.ChunkSnapshotCacheListener;
 import com.quartercode.quarterbukkit.util.Config;
 import com.quartercode.quarterbukkit.util.CustomEventListener;
+import com.quartercode.quarterbukkit.util.ObjectSystemMetricsCommand;
+import com.quartercode.quarterbukkit.util.ObjectSystemSchedulerListener;
 import com.quartercode.quarterbukkit.util.QuarterBukkitExceptionListener;
 import com.quartercode.quarterbukkit.util.QuarterBukkitUpdater;
 
@@ -91,6 +95,16 @@ public class QuarterBukkit extends JavaPlugin {
 
         // Custom events
         new CustomEventListener(this);
+
+        // Object system block collision
+        new ChunkSnapshotCacheListener(this);
+
+        // Object system scheduler cleanup
+        new ObjectSystemSchedulerListener(this);
+
+        // Admin commands
+        CommandExecutor commandExecutor = new CommandExecutor(this, "quarterbukkit");
+        commandExecutor.addCommandHandler(new ObjectSystemMetricsCommand());
     }
 
     @Override
@@ -18,17 +18,30 @@
 
 package com.quartercode.quarterbukkit.api.objectsystem;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.bukkit.Location;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ChunkSnapshotCache;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.SpatialHash;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.run.BaseObjectRenderer;
+import com.quartercode.quarterbukkit.api.objectsystem.run.BlockCollisionRenderer;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ObjectSystemRunner;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ObjectSystemScheduler;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ReceiverCache;
 
 /**
  * An active object system runs the rules defined by an {@link ObjectSystemDefinition}.
@@ -43,11 +56,24 @@ import org.bukkit.Location;
  */
 public class ActiveObjectSystem {
 
-    private final ObjectSystemDefinition definition;
-
-    private final Location               origin;
-    private final Collection<BaseObject> objects = new ArrayList<BaseObject>();
-    private int                          lifetime;
+    private final ObjectSystemDefinition           definition;
+
+    private final Location                         origin;
+    private final ObjectStore                      objects         = new ObjectStore();
+    private final transient Collection<BaseObject> objectsView     = Collections.unmodifiableCollection(objects);
+    private final transient PhysicsColumns         physicsColumns  = new PhysicsColumns();
+    private final transient ObjectPool             objectPool      = new ObjectPool();
+    private transient SpatialHash                  spatialHash;
+    private transient ChunkSnapshotCache           chunkSnapshotCache;
+    private final transient ObjectSystemMetrics    metrics;
+    private final transient ExpirationWheel        expirationWheel;
+    private final transient ObjectQueue            objectQueue     = new ObjectQueue();
+    private final transient ReceiverCache          receiverCache   = new ReceiverCache();
+    private int                                    lifetime;
+    private transient int                          sourcesLifetime = -1;
+    private transient int                          sourceTicks     = 1;
+    private transient boolean                      renderPhase;
+    private transient volatile Future<?>           pendingSimulation;
 
     /**
      * Creates a new active object system that runs the given {@link ObjectSystemDefinition} and is centered on the given origin {@link Location}.
@@ -60,6 +86,25 @@ public class ActiveObjectSystem {
 
         this.definition = definition;
         this.origin = origin.clone();
+        metrics = new ObjectSystemMetrics();
+        expirationWheel = new ExpirationWheel(this);
+    }
+
+    /**
+     * Creates a new instance of the given active object system which is centered on the given origin {@link Location}.
+     * The instance uses the same {@link ObjectSystemDefinition} and records into the same {@link #getMetrics() metrics} as the given system.
+     * However, it doesn't contain any objects; it is only used for displaying the objects of the given system at another origin.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param instanced The active object system the new instance displays.
+     * @param origin The origin location the new instance is centered on.
+     */
+    public ActiveObjectSystem(ActiveObjectSystem instanced, Location origin) {
+
+        definition = instanced.getDefinition();
+        this.origin = origin.clone();
+        metrics = instanced.getMetrics();
+        expirationWheel = new ExpirationWheel(this);
     }
 
     /**
@@ -86,24 +131,65 @@ public class ActiveObjectSystem {
     /**
      * Returns the objects, which must implement {@link BaseObject}, that are simulated by the active system.
      * Their behavior is defined by the system's {@link ObjectSystemDefinition}.
+     * If the objects are currently being simulated on another thread (see {@link #setPendingSimulation(Future)}), this method waits for the simulation to complete.
      *
      * @return The objects that are simulated by the active system.
      */
     public Collection<BaseObject> getObjects() {
 
-        return Collections.unmodifiableCollection(objects);
+        awaitPendingSimulation();
+        return objectsView;
     }
 
     /**
      * Returns a modifiable {@link Iterator} that allows to iterate over and modify the object list (see {@link #getObjects()}).
+     * Note that objects removed through the iterator only leave an empty slot behind until {@link #compactObjects()} is called.
+     * Just like {@link #getObjects()}, this method waits for a {@link #setPendingSimulation(Future) pending simulation} to complete.
      *
      * @return A modifiable iterator for the object list.
      */
     public Iterator<BaseObject> getModifiableObjectsIterator() {
 
+        awaitPendingSimulation();
         return objects.iterator();
     }
 
+    /**
+     * Closes the empty slots left behind by objects which have been removed through the {@link #getModifiableObjectsIterator() modifiable iterator}.
+     * This is done in a single pass over all objects, no matter how many objects have been removed.
+     * Note that this is an internal method and should not be used as an api function.
+     * It must not be called while the objects are being iterated.
+     */
+    public void compactObjects() {
+
+        objects.compact();
+    }
+
+    /**
+     * Adds the given object, which must implement {@link BaseObject}, to the active system that should simulate it.
+     * Its behavior is defined by the system's {@link ObjectSystemDefinition}.
+     * In contrast to {@link #addObjects(BaseObject...)}, this method doesn't create any temporary objects.
+     * Therefore, it should be used by {@link Source}s together with {@link #ensureObjectCapacity(int)} for adding a lot of objects.
+     *
+     * @param object The object that should be added to the active system.
+     */
+    public void addObject(BaseObject object) {
+
+        attach(object);
+        objects.add(object);
+    }
+
+    /**
+     * Makes sure that the given amount of objects can be added to the active system without growing the internal storage more than once.
+     * This should be called before a large amount of objects is added one by one (e.g. by a {@link Source}).
+     *
+     * @param additionalObjects The amount of objects that are going to be added.
+     */
+    public void ensureObjectCapacity(int additionalObjects) {
+
+        objects.ensureCapacity(objects.size() + additionalObjects);
+    }
+
     /**
      * Adds the given objects, which must implement {@link BaseObject}, to the active system that should simulate them.
      * Their behavior is defined by the system's {@link ObjectSystemDefinition}.
@@ -124,9 +210,146 @@ public class ActiveObjectSystem {
     public void addObjects(Collection<BaseObject> objects) {
 
         Validate.noNullElements(objects, "Cannot add null objects to active object system");
+
+        for (BaseObject object : objects) {
+            attach(object);
+        }
         this.objects.addAll(objects);
     }
 
+    /**
+     * Adds a new object, which exactly represents the given prototype object, to the active system and returns it.
+     * If the {@link #getObjectPool() object pool} contains a recycled object of the same class, that object is reused.
+     * Otherwise, the prototype is cloned.
+     * The prototype itself is never added to the active system, so it can be used for spawning multiple objects.
+     *
+     * @param prototype The prototype object the new object should represent.
+     * @return The new object that was added to the active system.
+     */
+    public <O extends PoolableObject> O spawnObject(O prototype) {
+
+        O object = objectPool.spawn(prototype);
+        attach(object);
+        objects.add(object);
+        return object;
+    }
+
+    private void attach(BaseObject object) {
+
+        if (object instanceof DefaultBaseObject) {
+            ((DefaultBaseObject) object).attach(this);
+        }
+    }
+
+    /**
+     * Queues the given objects, which must implement {@link BaseObject}, for being added to the active system.
+     * In contrast to {@link #addObjects(BaseObject...)}, this method can be called from any thread, e.g. by an asynchronous task which calculated the new objects.
+     * The queued objects are added by the object system runner at the start of its next simulation step, before any modification rules are applied.
+     *
+     * @param objects The objects that should be added to the active system.
+     */
+    public void queueObjects(BaseObject... objects) {
+
+        queueObjects(Arrays.asList(objects));
+    }
+
+    /**
+     * Queues the given objects, which must implement {@link BaseObject}, for being added to the active system.
+     * In contrast to {@link #addObjects(Collection)}, this method can be called from any thread, e.g. by an asynchronous task which calculated the new objects.
+     * The queued objects are added by the object system runner at the start of its next simulation step, before any modification rules are applied.
+     *
+     * @param objects The objects that should be added to the active system.
+     */
+    public void queueObjects(Collection<BaseObject> objects) {
+
+        Validate.noNullElements(objects, "Cannot queue null objects for active object system");
+
+        for (BaseObject object : objects) {
+            objectQueue.offer(object, false);
+        }
+    }
+
+    /**
+     * Queues the given objects, which must implement {@link BaseObject}, for being removed from the active system.
+     * In contrast to {@link #removeObjects(BaseObject...)}, this method can be called from any thread.
+     * The objects are removed by the object system runner at the start of its next simulation step, in the same order as the queued additions.
+     * Note that the removed objects are not recycled into the {@link #getObjectPool() object pool}, since the queuing thread might still use them.
+     *
+     * @param objects The objects that should be removed from the active system.
+     */
+    public void queueRemovals(BaseObject... objects) {
+
+        queueRemovals(Arrays.asList(objects));
+    }
+
+    /**
+     * Queues the given objects, which must implement {@link BaseObject}, for being removed from the active system.
+     * In contrast to {@link #removeObjects(Collection)}, this method can be called from any thread.
+     * The objects are removed by the object system runner at the start of its next simulation step, in the same order as the queued additions.
+     * Note that the removed objects are not recycled into the {@link #getObjectPool() object pool}, since the queuing thread might still use them.
+     *
+     * @param objects The objects that should be removed from the active system.
+     */
+    public void queueRemovals(Collection<BaseObject> objects) {
+
+        Validate.noNullElements(objects, "Cannot queue null objects for active object system");
+
+        for (BaseObject object : objects) {
+            objectQueue.offer(object, true);
+        }
+    }
+
+    /**
+     * Adds and removes all objects which have been {@link #queueObjects(BaseObject...) queued} by any thread so far, in the order they were queued.
+     * Note that this is an internal method and should not be used as an api function.
+     * It must only be called by the thread which updates the active system, and not while the objects are being iterated.
+     */
+    public void drainQueuedObjects() {
+
+        objectQueue.drain(this);
+    }
+
+    /**
+     * Marks the objects and rows of the active system as being modified by the given simulation, which runs on a worker thread of the {@link ObjectSystemScheduler}.
+     * Until the mark is removed by passing {@code null}, {@link #getObjects()} and the other methods which read the objects wait for the simulation to complete,
+     * so the main thread never sees objects that are modified at the same time.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param pendingSimulation The simulation which currently modifies the objects, or {@code null} if no simulation is pending anymore.
+     */
+    public void setPendingSimulation(Future<?> pendingSimulation) {
+
+        this.pendingSimulation = pendingSimulation;
+    }
+
+    private void awaitPendingSimulation() {
+
+        // The simulation threads themselves never wait since they might be running the pending simulation, which would then never complete
+        Future<?> simulation = pendingSimulation;
+        if (simulation != null && !simulation.isDone() && !ObjectSystemScheduler.isSimulationThread()) {
+            try {
+                simulation.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the simulation of an active object system", e);
+            } catch (ExecutionException e) {
+                // The failure is reported by the object system runner when it emits the simulation
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link ObjectPool} which recycles the objects that were removed from the active system.
+     * New objects can be taken from the pool using {@link #spawnObject(PoolableObject)}.
+     * Note that the pool is disabled by default.
+     *
+     * @return The object pool of the active system.
+     */
+    public ObjectPool getObjectPool() {
+
+        return objectPool;
+    }
+
     /**
      * Removes the given objects, which must implement {@link BaseObject}, from the active system in order to stop them from being simulated.
      *
@@ -139,12 +362,150 @@ public class ActiveObjectSystem {
 
     /**
      * Removes the given objects, which must implement {@link BaseObject}, from the active system in order to stop them from being simulated.
+     * All objects are removed in a single pass, so large amounts of objects should be removed with one call instead of many.
+     * Note that this method must not be called while the objects are being iterated.
      *
      * @param objects The objects that should be removed from the active system.
      */
     public void removeObjects(Collection<BaseObject> objects) {
 
         this.objects.removeAll(objects);
+
+        for (BaseObject object : objects) {
+            if (object instanceof DefaultBaseObject && ((DefaultBaseObject) object).getSystem() == this) {
+                ((DefaultBaseObject) object).detach();
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link PhysicsColumns} which store {@link StandalonePhysicsObject}s in a structure-of-arrays layout.
+     * Systems with a lot of objects should add their standalone physics objects to those columns instead of using {@link #addObjects(BaseObject...)}.
+     * That way, simulating them does not create a java object for each single object.
+     * The rows are simulated by the object system runner just like the regular {@link #getObjects() objects}.
+     *
+     * @return The physics columns of the active system.
+     */
+    public PhysicsColumns getPhysicsColumns() {
+
+        return physicsColumns;
+    }
+
+    /**
+     * Returns the {@link SpatialHash} which indexes the positions of all {@link PhysicsObject}s and {@link #getPhysicsColumns() physics columns} rows of the active system,
+     * or {@code null} if the spatial hash is not {@link #enableSpatialHash(double) enabled}.
+     * {@link ModificationRule}s and renderers can use it to find the neighbors of an object.
+     * The hash is rebuilt by the object system runner at the start of each tick, so it contains the positions the objects had at that time.
+     *
+     * @return The spatial hash of the active system, or {@code null}.
+     */
+    public SpatialHash getSpatialHash() {
+
+        return spatialHash;
+    }
+
+    /**
+     * Enables the {@link SpatialHash} of the active system, which then uses the given cell size.
+     * The cell size should be roughly the radius of the neighbor queries that are used by the modification rules and renderers.
+     * Note that maintaining the hash costs one pass over all objects each tick.
+     *
+     * @param cellSize The edge length of the grid cells of the spatial hash in blocks.
+     */
+    public void enableSpatialHash(double cellSize) {
+
+        spatialHash = new SpatialHash(cellSize);
+        spatialHash.rebuild(objects, physicsColumns);
+    }
+
+    /**
+     * Disables the {@link SpatialHash} of the active system, so {@link #getSpatialHash()} returns {@code null} again.
+     */
+    public void disableSpatialHash() {
+
+        spatialHash = null;
+    }
+
+    /**
+     * Returns the {@link ChunkSnapshotCache} which provides the blocks around the origin of the active system for collision checks,
+     * or {@code null} if block collision is not {@link #enableBlockCollision(double) enabled}.
+     * The cache is refreshed by the object system runner at the start of each tick.
+     *
+     * @return The chunk snapshot cache of the active system, or {@code null}.
+     */
+    public ChunkSnapshotCache getChunkSnapshotCache() {
+
+        return chunkSnapshotCache;
+    }
+
+    /**
+     * Enables block collision for the active system, which then caches the snapshots of all chunks within the given radius around its origin.
+     * The radius should cover the region the objects of the system can reach.
+     * The collisions are resolved by a {@link BlockCollisionRenderer}, which is part of the default renderers.
+     *
+     * @param radius The radius around the origin whose blocks can be collided with.
+     */
+    public void enableBlockCollision(double radius) {
+
+        chunkSnapshotCache = new ChunkSnapshotCache(radius);
+    }
+
+    /**
+     * Disables block collision for the active system, so {@link #getChunkSnapshotCache()} returns {@code null} again.
+     */
+    public void disableBlockCollision() {
+
+        chunkSnapshotCache = null;
+    }
+
+    /**
+     * Returns the {@link ObjectSystemMetrics} which collect runtime statistics about the updates of the active system.
+     *
+     * @return The metrics of the active system.
+     */
+    public ObjectSystemMetrics getMetrics() {
+
+        return metrics;
+    }
+
+    /**
+     * Returns the {@link ReceiverCache} which stores the players that receive the output of the renderers of the active system during the current tick.
+     * It is reset by the {@link ObjectSystemRunner} at the start of each update.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @return The receiver cache of the active system.
+     */
+    public ReceiverCache getReceiverCache() {
+
+        return receiverCache;
+    }
+
+    /**
+     * Counts the live objects of the active system, including the rows of the {@link #getPhysicsColumns() physics columns}, by their concrete class.
+     * This takes a pass over all objects, so it shouldn't be called every tick.
+     *
+     * @return The amount of live objects of each object class.
+     */
+    public Map<Class<?>, Integer> getObjectCounts() {
+
+        awaitPendingSimulation();
+
+        Map<Class<?>, Integer> objectCounts = new HashMap<Class<?>, Integer>();
+        for (BaseObject object : objects) {
+            incrementCount(objectCounts, object.getClass());
+        }
+        for (int row = 0; row < physicsColumns.size(); row++) {
+            if (!physicsColumns.isRemoved(row)) {
+                incrementCount(objectCounts, physicsColumns.getFlyweight(row).getClass());
+            }
+        }
+
+        return objectCounts;
+    }
+
+    private void incrementCount(Map<Class<?>, Integer> counts, Class<?> type) {
+
+        Integer count = counts.get(type);
+        counts.put(type, count == null ? 1 : count + 1);
     }
 
     /**
@@ -159,6 +520,31 @@ public class ActiveObjectSystem {
         return lifetime;
     }
 
+    /**
+     * Returns the amount of lifetime ticks the current update of the {@link Source}s covers.
+     * It is 1 if the sources are updated every tick.
+     * However, a degraded runner doesn't update the sources every tick, and a runner that {@link #fastForwardLifetime(int) fast-forwards} the lifetime skips ticks.
+     * In that case, the sources should spawn all objects which were due in the ticks since their last update,
+     * which are the ticks from {@code getLifetime() - getSourceTicks() + 1} to {@link #getLifetime()}.
+     *
+     * @return The amount of ticks since the last source update.
+     */
+    public int getSourceTicks() {
+
+        return sourceTicks;
+    }
+
+    /**
+     * Marks the start of a new update of the {@link Source}s and calculates the {@link #getSourceTicks() source ticks} since the last update.
+     * Note that this is an internal method and should not be used as an api function.
+     * It must be called by the object system runner right before the sources are updated.
+     */
+    public void startSourceUpdate() {
+
+        sourceTicks = lifetime - sourcesLifetime;
+        sourcesLifetime = lifetime;
+    }
+
     /**
      * Increments the current lifetime of the active object system.
      * Note that this is an internal method and should not be used as an api function.
@@ -166,6 +552,89 @@ public class ActiveObjectSystem {
     public void incrementLifetime() {
 
         lifetime++;
+        expirationWheel.advance(lifetime);
+    }
+
+    /**
+     * Sets whether the renderers are currently applied to the objects of the active system.
+     * During the render phase, the lifetimes of the attached {@link DefaultBaseObject}s already include the current tick,
+     * just like the {@link BaseObjectRenderer} increments the lifetimes of all other objects before the remaining renderers are applied.
+     * Note that this is an internal method and should not be used as an api function.
+     * It is called by the object system runner around the rendering of each simulation step.
+     *
+     * @param renderPhase Whether the renderers are currently applied.
+     */
+    public void setRenderPhase(boolean renderPhase) {
+
+        this.renderPhase = renderPhase;
+    }
+
+    /**
+     * Returns the tick the lifetimes of the attached {@link DefaultBaseObject}s are derived from.
+     * This is the {@link #getLifetime() lifetime} of the active system, plus one during the {@link #setRenderPhase(boolean) render phase}.
+     *
+     * @return The tick the object lifetimes are derived from.
+     */
+    int getObjectTick() {
+
+        return renderPhase ? lifetime + 1 : lifetime;
+    }
+
+    /**
+     * Puts the given {@link DefaultBaseObject}, which must be attached to the active system, into the {@link ExpirationWheel} of the system.
+     * If the object has already reached its expiration time, it is marked as expired immediately.
+     * This method is called by the object itself whenever its lifetime or expiration time changes.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param object The default base object whose expiration tick should be tracked.
+     */
+    public void scheduleExpiration(DefaultBaseObject object) {
+
+        if (object.getExpirationTime() == -1) {
+            object.setExpired(false);
+            expirationWheel.unschedule(object);
+        } else if (object.getExpirationTick() <= lifetime) {
+            object.setExpired(true);
+            expirationWheel.unschedule(object);
+        } else {
+            object.setExpired(false);
+            expirationWheel.schedule(object, object.getExpirationTick());
+        }
+    }
+
+    void unscheduleExpiration(DefaultBaseObject object) {
+
+        expirationWheel.unschedule(object);
+    }
+
+    /**
+     * Increments the lifetime of the active object system and the lifetimes of all its objects by the given amount of ticks.
+     * That way, objects expire as if the system had been simulated during that time.
+     * Note that the positions of the objects are not changed.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param ticks The amount of ticks the lifetimes should be incremented by.
+     */
+    public void fastForwardLifetime(int ticks) {
+
+        lifetime += ticks;
+        expirationWheel.advance(lifetime);
+
+        for (BaseObject object : objects) {
+            if (object instanceof DefaultBaseObject) {
+                DefaultBaseObject defaultObject = (DefaultBaseObject) object;
+                // Attached default objects derive their lifetimes from the lifetime of the system
+                if (defaultObject.getSystem() != this) {
+                    defaultObject.setLifetime(defaultObject.getLifetime() + ticks);
+                }
+            } else {
+                for (int tick = 0; tick < ticks; tick++) {
+                    object.incrementLifetime();
+                }
+            }
+        }
+
+        physicsColumns.fastForwardLifetime(ticks);
     }
 
     @Override
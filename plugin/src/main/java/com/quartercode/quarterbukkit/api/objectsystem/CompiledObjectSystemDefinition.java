@@ -0,0 +1,120 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * A compiled object system definition is an immutable snapshot of the {@link Source}s and {@link ModificationRule}s an {@link ObjectSystemDefinition} contained at one {@link #getVersion() version}.
+ * The sources and rules are stored in arrays, so they can be iterated without creating any new collections, and the rules which apply to a concrete object class are
+ * looked up only once per snapshot and kept in the order of the definition.<br>
+ * <br>
+ * Since the snapshot can't change, it can be shared by all {@link ActiveObjectSystem}s which use the same definition and by multiple threads.
+ * Changes to the definition never affect an existing snapshot; instead, the definition creates a new one with the next version.
+ *
+ * @see ObjectSystemDefinition#getSnapshot()
+ */
+public final class CompiledObjectSystemDefinition {
+
+    private final int                                                   version;
+    private final List<Source>                                          sources;
+    private final List<ModificationRule<?, ?>>                          modificationRules;
+    private final transient Map<Class<?>, List<ModificationRule<?, ?>>> typedModificationRules = new ConcurrentHashMap<Class<?>, List<ModificationRule<?, ?>>>();
+
+    CompiledObjectSystemDefinition(int version, Collection<Source> sources, Collection<ModificationRule<?, ?>> modificationRules) {
+
+        this.version = version;
+        this.sources = Collections.unmodifiableList(Arrays.asList(sources.toArray(new Source[sources.size()])));
+        this.modificationRules = Collections.unmodifiableList(Arrays.asList(modificationRules.toArray(new ModificationRule<?, ?>[modificationRules.size()])));
+    }
+
+    /**
+     * Returns the {@link ObjectSystemDefinition#getVersion() version} of the object system definition the snapshot was compiled from.
+     *
+     * @return The definition version of the snapshot.
+     */
+    public int getVersion() {
+
+        return version;
+    }
+
+    /**
+     * Returns the object {@link Source}s, which are responsible for spawning new objects.
+     * The returned list is backed by an array and can't be modified.
+     *
+     * @return The sources of the snapshot.
+     */
+    public List<Source> getSources() {
+
+        return sources;
+    }
+
+    /**
+     * Returns the object {@link ModificationRule}s, which are responsible for controlling the behavior of existing objects.
+     * The returned list is backed by an array and can't be modified.
+     *
+     * @return The modification rules of the snapshot.
+     */
+    public List<ModificationRule<?, ?>> getModificationRules() {
+
+        return modificationRules;
+    }
+
+    /**
+     * Returns the object {@link ModificationRule}s which can modify objects of the given class, in the order they were added to the definition.
+     * The rules are only selected once per object class; afterwards, the same array-backed list is returned for that class.
+     *
+     * @param objectClass The concrete class of the objects the modification rules should apply to.
+     * @return The modification rules of the snapshot which apply to the given object class.
+     */
+    public List<ModificationRule<?, ?>> getModificationRules(Class<?> objectClass) {
+
+        List<ModificationRule<?, ?>> rules = typedModificationRules.get(objectClass);
+
+        if (rules == null) {
+            List<ModificationRule<?, ?>> selectedRules = new ArrayList<ModificationRule<?, ?>>();
+            for (int index = 0; index < modificationRules.size(); index++) {
+                ModificationRule<?, ?> modificationRule = modificationRules.get(index);
+                if (modificationRule.getObjectType().isAssignableFrom(objectClass)) {
+                    selectedRules.add(modificationRule);
+                }
+            }
+
+            rules = Collections.unmodifiableList(Arrays.asList(selectedRules.toArray(new ModificationRule<?, ?>[selectedRules.size()])));
+            typedModificationRules.put(objectClass, rules);
+        }
+
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+}
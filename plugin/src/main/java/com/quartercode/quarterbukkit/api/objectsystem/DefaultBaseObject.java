@@ -25,13 +25,22 @@ import org.apache.commons.lang.builder.ToStringStyle;
 
 /**
  * A default implementation of {@link BaseObject} that just stores lifetime and expiration time as member variables.
+ * While the object is part of an {@link ActiveObjectSystem}, its lifetime is derived from the system tick it was spawned at,
+ * and its expiration is tracked by the {@link ExpirationWheel} of the system.
+ * That way, the object doesn't need any bookkeeping each tick.
  *
  * @see BaseObject
  */
 public class DefaultBaseObject implements BaseObject {
 
-    private int lifetime;
-    private int expirationTime;
+    private int                          lifetime;
+    private int                          expirationTime;
+
+    private transient ActiveObjectSystem system;
+    private transient int                spawnTick;
+    private transient boolean            expired;
+    private transient int                wheelTick;
+    private transient int                wheelIndex = -1;
 
     /**
      * Creates a new default base object that never expires.
@@ -54,13 +63,33 @@ public class DefaultBaseObject implements BaseObject {
     @Override
     public int getLifetime() {
 
-        return lifetime;
+        return system == null ? lifetime : system.getObjectTick() - spawnTick;
     }
 
     @Override
     public void incrementLifetime() {
 
-        lifetime++;
+        if (system == null) {
+            lifetime++;
+        } else {
+            setLifetime(getLifetime() + 1);
+        }
+    }
+
+    /**
+     * Sets the amount of ticks the object has existed inside its {@link ActiveObjectSystem}.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param lifetime The new lifetime of the object.
+     */
+    public void setLifetime(int lifetime) {
+
+        if (system == null) {
+            this.lifetime = lifetime;
+        } else {
+            spawnTick = system.getObjectTick() - lifetime;
+            system.scheduleExpiration(this);
+        }
     }
 
     @Override
@@ -73,16 +102,111 @@ public class DefaultBaseObject implements BaseObject {
     public void setExpirationTime(int expirationTime) {
 
         this.expirationTime = expirationTime;
+
+        if (system != null) {
+            system.scheduleExpiration(this);
+        }
+    }
+
+    /**
+     * Returns the {@link ActiveObjectSystem} the object is currently attached to.
+     * While the object is attached, its lifetime is derived from the lifetime of that system.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @return The active system the object is attached to, or {@code null} if it isn't attached to any system.
+     */
+    public ActiveObjectSystem getSystem() {
+
+        return system;
+    }
+
+    /**
+     * Returns whether the expiration tick of the object has arrived in the {@link ActiveObjectSystem} it is attached to.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @return Whether the attached object has expired and should be removed.
+     */
+    public boolean isExpired() {
+
+        return expired;
+    }
+
+    void setExpired(boolean expired) {
+
+        this.expired = expired;
+    }
+
+    int getExpirationTick() {
+
+        return spawnTick + expirationTime;
+    }
+
+    int getWheelTick() {
+
+        return wheelTick;
+    }
+
+    int getWheelIndex() {
+
+        return wheelIndex;
+    }
+
+    void setWheelEntry(int wheelTick, int wheelIndex) {
+
+        this.wheelTick = wheelTick;
+        this.wheelIndex = wheelIndex;
+    }
+
+    /**
+     * Attaches the object to the given {@link ActiveObjectSystem}, which derives the lifetime of the object from its own lifetime from now on.
+     * The current lifetime of the object is kept.
+     * Note that this is an internal method and should not be used as an api function.
+     * It is called by the active system when the object is added to it.
+     *
+     * @param system The active system the object is added to.
+     */
+    public void attach(ActiveObjectSystem system) {
+
+        int currentLifetime = getLifetime();
+        if (this.system != null) {
+            this.system.unscheduleExpiration(this);
+        }
+
+        this.system = system;
+        spawnTick = system.getObjectTick() - currentLifetime;
+        system.scheduleExpiration(this);
+    }
+
+    /**
+     * Detaches the object from its {@link ActiveObjectSystem}, so its lifetime is frozen and stored in the object again.
+     * Note that this is an internal method and should not be used as an api function.
+     * It is called when the object is removed from its active system.
+     */
+    public void detach() {
+
+        if (system != null) {
+            lifetime = getLifetime();
+            system.unscheduleExpiration(this);
+            system = null;
+        }
+
+        expired = false;
     }
 
     @Override
     public DefaultBaseObject clone() {
 
+        DefaultBaseObject clone;
         try {
-            return (DefaultBaseObject) super.clone();
+            clone = (DefaultBaseObject) super.clone();
         } catch (CloneNotSupportedException e) {
             throw new Error(e);
         }
+
+        // The clone isn't part of any active system, so it stores its lifetime itself; the wheel entry still belongs to the original object
+        clone.wheelIndex = -1;
+        clone.detach();
+        return clone;
     }
 
     @Override
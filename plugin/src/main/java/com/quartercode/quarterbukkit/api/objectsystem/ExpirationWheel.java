@@ -0,0 +1,177 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+import java.util.Arrays;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * A hashed timing wheel which tracks the absolute expiration ticks of the {@link DefaultBaseObject}s of an {@link ActiveObjectSystem}.
+ * Each object that expires is put into the bucket of its expiration tick, and the bucket of each tick is processed once the system reaches that tick.
+ * Objects which never expire are not stored at all, and objects which expire after more than one wheel rotation are only visited once per rotation.
+ * That way, large systems of long-lived objects don't need any expiration bookkeeping each tick.<br>
+ * <br>
+ * Each object has at most one entry in the wheel, and the object remembers the position of that entry.
+ * When the expiration tick of an object changes, its entry is moved to the new bucket in O(1), and when the object leaves its system, the entry is removed.
+ * Note that this is an internal class and should not be used as an api class.
+ *
+ * @see DefaultBaseObject
+ */
+public class ExpirationWheel {
+
+    private static final int            BUCKETS                 = 512;
+    private static final int            MASK                    = BUCKETS - 1;
+    private static final int            DEFAULT_BUCKET_CAPACITY = 4;
+
+    private final ActiveObjectSystem    system;
+    private final DefaultBaseObject[][] bucketObjects           = new DefaultBaseObject[BUCKETS][];
+    private final int[]                 bucketSizes             = new int[BUCKETS];
+    private int                         size;
+    private int                         tick;
+
+    /**
+     * Creates a new expiration wheel for the objects of the given {@link ActiveObjectSystem}.
+     *
+     * @param system The active system whose objects are tracked.
+     */
+    public ExpirationWheel(ActiveObjectSystem system) {
+
+        this.system = system;
+    }
+
+    /**
+     * Returns the amount of objects which are currently stored in the wheel.
+     *
+     * @return The amount of stored objects.
+     */
+    public synchronized int size() {
+
+        return size;
+    }
+
+    /**
+     * Puts the given object into the bucket of the given expiration tick.
+     * If the object is already stored in the wheel, its entry is moved to that bucket.
+     * It is marked as {@link DefaultBaseObject#isExpired() expired} once the active system {@link #advance(int) reaches} that tick.
+     * Note that this is an internal method and should not be used as an api function.
+     * It may be called by multiple threads at once.
+     *
+     * @param object The object that should expire.
+     * @param expirationTick The absolute tick of the active system at which the object expires.
+     */
+    public synchronized void schedule(DefaultBaseObject object, int expirationTick) {
+
+        if (object.getWheelIndex() >= 0) {
+            if (object.getWheelTick() == expirationTick) {
+                return;
+            }
+
+            removeEntry(object.getWheelTick() & MASK, object.getWheelIndex());
+        }
+
+        int bucket = expirationTick & MASK;
+        int bucketSize = bucketSizes[bucket];
+
+        if (bucketObjects[bucket] == null) {
+            bucketObjects[bucket] = new DefaultBaseObject[DEFAULT_BUCKET_CAPACITY];
+        } else if (bucketSize == bucketObjects[bucket].length) {
+            bucketObjects[bucket] = Arrays.copyOf(bucketObjects[bucket], bucketSize * 2);
+        }
+
+        bucketObjects[bucket][bucketSize] = object;
+        object.setWheelEntry(expirationTick, bucketSize);
+        bucketSizes[bucket]++;
+        size++;
+    }
+
+    /**
+     * Removes the entry of the given object from the wheel, so it doesn't expire anymore.
+     * If the object isn't stored in the wheel, nothing happens.
+     * Note that this is an internal method and should not be used as an api function.
+     * It may be called by multiple threads at once.
+     *
+     * @param object The object whose entry should be removed.
+     */
+    public synchronized void unschedule(DefaultBaseObject object) {
+
+        if (object.getWheelIndex() >= 0) {
+            removeEntry(object.getWheelTick() & MASK, object.getWheelIndex());
+        }
+    }
+
+    private void removeEntry(int bucket, int index) {
+
+        // The removed entry is replaced by the last entry of the bucket, so the bucket never needs to be shifted
+        DefaultBaseObject[] objects = bucketObjects[bucket];
+        int lastIndex = --bucketSizes[bucket];
+
+        objects[index].setWheelEntry(0, -1);
+        if (index != lastIndex) {
+            objects[index] = objects[lastIndex];
+            objects[index].setWheelEntry(objects[index].getWheelTick(), index);
+        }
+        objects[lastIndex] = null;
+        size--;
+    }
+
+    /**
+     * Processes the buckets of all ticks up to the given new tick of the active system and marks the objects which expire at those ticks as expired.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param newTick The new lifetime of the active system.
+     */
+    public synchronized void advance(int newTick) {
+
+        // If more than one rotation passed, each bucket only needs to be processed once
+        int ticks = Math.min(newTick - tick, BUCKETS);
+        for (int processedTick = newTick - ticks + 1; processedTick <= newTick; processedTick++) {
+            processBucket(processedTick & MASK, newTick);
+        }
+
+        tick = newTick;
+    }
+
+    private void processBucket(int bucket, int newTick) {
+
+        DefaultBaseObject[] objects = bucketObjects[bucket];
+
+        // Entries of later wheel rotations stay in the bucket; a removed entry is replaced by the last one, which is checked next
+        int index = 0;
+        while (index < bucketSizes[bucket]) {
+            DefaultBaseObject object = objects[index];
+            if (object.getWheelTick() <= newTick) {
+                if (object.getSystem() == system) {
+                    object.setExpired(true);
+                }
+
+                removeEntry(bucket, index);
+            } else {
+                index++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("size", size).append("tick", tick).toString();
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+/**
+ * A {@link ModificationApplier} that is able to compile a {@link Modifier} chain together with itself into a {@link ModificationKernel}.
+ * If a {@link ModificationRule} uses such an applier, it doesn't call the modifier chain and the applier separately.
+ * Instead, it applies the compiled kernel, which doesn't need to create any modification objects.
+ *
+ * @param <O> The type of object the modification applier can apply modifications to. This must extend {@link BaseObject}.
+ * @param <M> The type of the modification object that is applied to objects by the modification applier.
+ * @see ModificationRule
+ * @see ModificationKernel
+ */
+public interface FusingModificationApplier<O extends BaseObject, M> extends ModificationApplier<O, M> {
+
+    /**
+     * Compiles the given {@link Modifier} chain and the modification applier into a {@link ModificationKernel}.
+     * The kernel must reflect changes to the settings of the modifiers (e.g. a new factor) immediately.
+     * If the chain contains modifiers the applier doesn't know, those modifiers can just be called regularly by the kernel.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param modifier The first modifier of the chain that should be compiled.
+     * @return The compiled modification kernel, or {@code null} if the chain can't be fused at all.
+     */
+    public ModificationKernel<O> compile(Modifier<? super O, ? extends M> modifier);
+
+}
@@ -0,0 +1,42 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+/**
+ * A modification kernel fuses the {@link Modifier} chain and the {@link ModificationApplier} of a {@link ModificationRule} into a single operation.
+ * In contrast to the regular modifier chain, it doesn't need to create a new modification object for each modified object.
+ * Instead, it calculates the modification inside a reusable accumulator and then directly applies it to the object.
+ * Kernels are created by {@link FusingModificationApplier}s.
+ *
+ * @param <O> The type of object the kernel can modify. This must extend {@link BaseObject}.
+ * @see ModificationRule
+ * @see FusingModificationApplier
+ */
+public interface ModificationKernel<O extends BaseObject> {
+
+    /**
+     * Calculates the modification for the given object and applies it to the object.
+     * The result must be exactly the same as the result of the modifier chain and modification applier the kernel was compiled from.
+     * Note that this method may be called by multiple threads at once.
+     *
+     * @param object The object that should be modified.
+     */
+    public void apply(O object);
+
+}
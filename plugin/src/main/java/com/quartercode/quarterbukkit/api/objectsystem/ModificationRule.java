@@ -33,7 +33,11 @@ import org.apache.commons.lang.builder.ToStringStyle;
  * Note that a modifier can be wrapped around another one using a {@link ModifierWrapper} in order to create a modifier chain.
  * The first modifier of that chain can then be set as the rule modifier.
  * That way, different modifiers can be combined together.
- * For example, a second modifier could adjust the actual velocity modification depending on the location of the object.
+ * For example, a second modifier could adjust the actual velocity modification depending on the location of the object.<br>
+ * <br>
+ * If the applier is a {@link FusingModificationApplier}, the modifier chain and the applier are compiled into a {@link ModificationKernel} whenever
+ * one of them is changed.
+ * The kernel is then applied instead, so no modification object needs to be created for each modified object.
  *
  * @param <O> The type of object that can be modified by the rule. This must extend {@link BaseObject}.
  * @param <M> The type of the modification object that is returned by the modifier.
@@ -42,9 +46,10 @@ import org.apache.commons.lang.builder.ToStringStyle;
  */
 public class ModificationRule<O extends BaseObject, M> {
 
-    private final Class<O>            objectType;
-    private ModificationApplier<O, M> applier;
-    private Modifier<O, M>            modifier;
+    private final Class<O>                  objectType;
+    private ModificationApplier<O, M>       applier;
+    private Modifier<O, M>                  modifier;
+    private transient ModificationKernel<O> kernel;
 
     /**
      * Creates a new modification rule that modifies objects of the given type and then lets the given {@link ModificationApplier} execute the changes.
@@ -108,6 +113,7 @@ public class ModificationRule<O extends BaseObject, M> {
 
         Validate.notNull(applier, "Modification applier of modification rule cannot be null");
         this.applier = applier;
+        compile();
     }
 
     /**
@@ -133,17 +139,33 @@ public class ModificationRule<O extends BaseObject, M> {
 
         Validate.notNull(modifier, "Modifier of modification rule cannot be null");
         this.modifier = modifier;
+        compile();
+    }
+
+    @SuppressWarnings ("unchecked")
+    private void compile() {
+
+        if (applier instanceof FusingModificationApplier && modifier != null) {
+            kernel = ((FusingModificationApplier<O, M>) applier).compile(modifier);
+        } else {
+            kernel = null;
+        }
     }
 
     /**
      * Applies the modification rule to the given object.
      * This first calls the {@link Modifier} and then passes the changes into the {@link ModificationApplier}.
+     * If the modifier chain was compiled into a {@link ModificationKernel}, that kernel is applied instead.
      *
      * @param object The object that should be modified.
      */
     public void apply(O object) {
 
-        applier.applyModification(object, modifier.getModification(object));
+        if (kernel != null) {
+            kernel.apply(object);
+        } else {
+            applier.applyModification(object, modifier.getModification(object));
+        }
     }
 
     @Override
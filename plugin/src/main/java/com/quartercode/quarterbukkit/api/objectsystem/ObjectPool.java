@@ -0,0 +1,214 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * An object pool recycles the {@link PoolableObject}s which were removed from an {@link ActiveObjectSystem}, so they can be reused for new objects.
+ * That way, continuous emitters don't create millions of short-lived objects per minute, which the garbage collector would need to collect.<br>
+ * <br>
+ * New objects are {@link #spawn(PoolableObject) spawned} from a prototype object.
+ * If the pool contains a recycled object of the same class, that object is {@link PoolableObject#reset(PoolableObject) reset} from the prototype
+ * (a hit). Otherwise, the prototype is cloned (a miss).
+ * Note that the pool is disabled by default, in which case no objects are recycled and every spawn is a miss.
+ * If the pool is enabled, references to objects must not be kept after the objects were removed from their system since they will be reused.
+ *
+ * @see ActiveObjectSystem#getObjectPool()
+ * @see PoolableObject
+ */
+public class ObjectPool {
+
+    private static final int                                DEFAULT_MAX_SIZE = 4096;
+
+    private final Map<Class<?>, ArrayDeque<PoolableObject>> freeObjects      = new HashMap<Class<?>, ArrayDeque<PoolableObject>>();
+    private boolean                                         enabled;
+    private int                                             maxSize          = DEFAULT_MAX_SIZE;
+
+    private long                                            hits;
+    private long                                            misses;
+    private long                                            recycled;
+
+    /**
+     * Returns whether the pool recycles removed objects.
+     * If the pool is disabled, every {@link #spawn(PoolableObject) spawn} just clones the given prototype.
+     *
+     * @return Whether the pool is enabled.
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Sets whether the pool recycles removed objects.
+     * If the pool is disabled, every {@link #spawn(PoolableObject) spawn} just clones the given prototype.
+     * Disabling the pool also drops all objects that are currently pooled.
+     *
+     * @param enabled Whether the pool should be enabled.
+     */
+    public void setEnabled(boolean enabled) {
+
+        this.enabled = enabled;
+
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Returns the maximum amount of recycled objects the pool stores for each object class.
+     * If more objects are recycled, they are left to the garbage collector.
+     *
+     * @return The maximum amount of pooled objects per class.
+     */
+    public int getMaxSize() {
+
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum amount of recycled objects the pool stores for each object class.
+     * If more objects are recycled, they are left to the garbage collector.
+     *
+     * @param maxSize The new maximum amount of pooled objects per class.
+     */
+    public void setMaxSize(int maxSize) {
+
+        Validate.isTrue(maxSize >= 0, "Object pool max size must be >= 0: ", maxSize);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns a new object that exactly represents the given prototype object.
+     * If a recycled object of the same class is available, it is reset from the prototype and returned.
+     * Otherwise, a {@link PoolableObject#clone() clone} of the prototype is returned.
+     * Note that the returned object is not added to any {@link ActiveObjectSystem}.
+     *
+     * @param prototype The prototype object the new object should represent.
+     * @return The new object, which is either a recycled object or a clone of the prototype.
+     */
+    @SuppressWarnings ("unchecked")
+    public <O extends PoolableObject> O spawn(O prototype) {
+
+        Validate.notNull(prototype, "Cannot spawn object from null prototype");
+
+        if (enabled) {
+            ArrayDeque<PoolableObject> objects = freeObjects.get(prototype.getClass());
+            if (objects != null && !objects.isEmpty()) {
+                PoolableObject object = objects.pollLast();
+                object.reset(prototype);
+                hits++;
+                return (O) object;
+            }
+        }
+
+        misses++;
+        return (O) prototype.clone();
+    }
+
+    /**
+     * Stores the given object, which was removed from its {@link ActiveObjectSystem}, so it can be reused by a later {@link #spawn(PoolableObject) spawn}.
+     * If the pool is disabled or already stores the maximum amount of objects of the object class, nothing happens.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param object The removed object that should be recycled.
+     */
+    public void recycle(PoolableObject object) {
+
+        if (!enabled) {
+            return;
+        }
+
+        ArrayDeque<PoolableObject> objects = freeObjects.get(object.getClass());
+        if (objects == null) {
+            objects = new ArrayDeque<PoolableObject>();
+            freeObjects.put(object.getClass(), objects);
+        }
+
+        if (objects.size() < maxSize) {
+            objects.addLast(object);
+            recycled++;
+        }
+    }
+
+    /**
+     * Drops all objects that are currently pooled.
+     */
+    public void clear() {
+
+        freeObjects.clear();
+    }
+
+    /**
+     * Returns the amount of objects that are currently pooled and can be reused.
+     *
+     * @return The amount of pooled objects.
+     */
+    public int getSize() {
+
+        int size = 0;
+        for (ArrayDeque<PoolableObject> objects : freeObjects.values()) {
+            size += objects.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total amount of {@link #spawn(PoolableObject) spawns} which reused a recycled object.
+     *
+     * @return The amount of pool hits.
+     */
+    public long getHits() {
+
+        return hits;
+    }
+
+    /**
+     * Returns the total amount of {@link #spawn(PoolableObject) spawns} which had to clone the prototype because no recycled object was available.
+     *
+     * @return The amount of pool misses.
+     */
+    public long getMisses() {
+
+        return misses;
+    }
+
+    /**
+     * Returns the total amount of objects that have been {@link #recycle(PoolableObject) recycled} by the pool.
+     *
+     * @return The amount of recycled objects.
+     */
+    public long getRecycled() {
+
+        return recycled;
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("enabled", enabled).append("size", getSize()).append("hits", hits).append("misses", misses).toString();
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * A lock-free multi-producer single-consumer queue which collects objects that should be added to or removed from an {@link ActiveObjectSystem}.
+ * Any thread can {@link #offer(BaseObject, boolean) offer} objects at any time without blocking the other threads or the main thread.
+ * The queued changes are then {@link #drain(ActiveObjectSystem) drained} by the object system runner at a fixed point in the tick, where no objects are being iterated.<br>
+ * <br>
+ * Internally, the offered changes are pushed onto a linked stack using compare-and-set operations.
+ * The consumer takes the whole stack with a single atomic swap and reverses it, so the changes are applied in the order they were offered.
+ * An addition which is followed by a removal of the same object cancels out, so all remaining removals can be done in a single pass over the objects.
+ * Note that this is an internal class and should not be used as an api class.
+ *
+ * @see ActiveObjectSystem#queueObjects(BaseObject...)
+ * @see ActiveObjectSystem#queueRemovals(BaseObject...)
+ */
+public class ObjectQueue {
+
+    private final AtomicReference<Node> head = new AtomicReference<Node>();
+
+    /**
+     * Queues the addition or removal of the given object.
+     * This method can be called from any thread.
+     *
+     * @param object The object that should be added or removed.
+     * @param removal Whether the object should be removed instead of added.
+     */
+    public void offer(BaseObject object, boolean removal) {
+
+        Validate.notNull(object, "Cannot queue null object");
+
+        Node node = new Node(object, removal);
+        Node currentHead;
+        do {
+            currentHead = head.get();
+            node.next = currentHead;
+        } while (!head.compareAndSet(currentHead, node));
+    }
+
+    /**
+     * Returns whether there are no queued changes at the moment.
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty() {
+
+        return head.get() == null;
+    }
+
+    /**
+     * Applies all changes which have been queued so far to the given {@link ActiveObjectSystem} in the order they were offered.
+     * Changes which are offered while this method runs are left for the next call.
+     * This method must only be called by the thread which updates the active system, and not while the objects of that system are being iterated.
+     *
+     * @param system The active system the queued changes should be applied to.
+     */
+    public void drain(ActiveObjectSystem system) {
+
+        if (head.get() == null) {
+            return;
+        }
+
+        // The stack contains the newest change first, so it is reversed before the changes are applied
+        Node node = head.getAndSet(null);
+        Node first = null;
+        while (node != null) {
+            Node next = node.next;
+            node.next = first;
+            first = node;
+            node = next;
+        }
+
+        // A removal cancels the pending addition of the same object; otherwise, it removes the object from the system before the pending additions are done
+        List<BaseObject> additions = new ArrayList<BaseObject>();
+        Map<BaseObject, Integer> additionIndices = new IdentityHashMap<BaseObject, Integer>();
+        List<BaseObject> removals = new ArrayList<BaseObject>();
+        for (node = first; node != null; node = node.next) {
+            if (!node.removal) {
+                additionIndices.put(node.object, additions.size());
+                additions.add(node.object);
+            } else {
+                Integer additionIndex = additionIndices.remove(node.object);
+                if (additionIndex != null) {
+                    additions.set(additionIndex, null);
+                } else {
+                    removals.add(node.object);
+                }
+            }
+        }
+
+        if (!removals.isEmpty()) {
+            system.removeObjects(removals);
+        }
+
+        system.ensureObjectCapacity(additionIndices.size());
+        for (BaseObject addition : additions) {
+            if (addition != null) {
+                system.addObject(addition);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+    private static class Node {
+
+        private final BaseObject object;
+        private final boolean    removal;
+        private Node             next;
+
+        private Node(BaseObject object, boolean removal) {
+
+            this.object = object;
+            this.removal = removal;
+        }
+
+    }
+
+}
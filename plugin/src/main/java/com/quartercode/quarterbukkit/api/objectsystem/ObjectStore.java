@@ -0,0 +1,246 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.commons.lang.Validate;
+
+/**
+ * An array-backed collection that stores the objects of an {@link ActiveObjectSystem}.
+ * It is optimized for the typical object system workload where a lot of objects are added and removed each tick.<br>
+ * <br>
+ * Objects which are removed through {@link Iterator#remove()} just leave an empty slot behind in O(1).
+ * All empty slots are then closed by a single {@link #compact()} pass, which is called once per tick by the object system runner.
+ * That way, removing thousands of objects in one tick costs a single pass over the array instead of one array shift per object.
+ * The iteration order is the insertion order and is not changed by removals.
+ *
+ * @see ActiveObjectSystem
+ */
+public class ObjectStore extends AbstractCollection<BaseObject> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private BaseObject[]     elements         = new BaseObject[DEFAULT_CAPACITY];
+    private int              end;
+    private int              removed;
+    private int              compactions;
+
+    @Override
+    public int size() {
+
+        return end - removed;
+    }
+
+    @Override
+    public Iterator<BaseObject> iterator() {
+
+        return new ObjectStoreIterator();
+    }
+
+    @Override
+    public boolean add(BaseObject object) {
+
+        Validate.notNull(object, "Cannot add null object to object store");
+
+        ensureCapacity(end + 1);
+        elements[end++] = object;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends BaseObject> objects) {
+
+        Validate.noNullElements(objects, "Cannot add null objects to object store");
+
+        ensureCapacity(end + objects.size());
+        for (BaseObject object : objects) {
+            elements[end++] = object;
+        }
+        return !objects.isEmpty();
+    }
+
+    /**
+     * Makes sure that the given amount of objects can be stored without growing the internal array again.
+     * This should be called before adding a large amount of objects one by one.
+     *
+     * @param capacity The amount of objects the store must be able to hold.
+     */
+    public void ensureCapacity(int capacity) {
+
+        if (capacity > elements.length) {
+            BaseObject[] newElements = new BaseObject[Math.max(capacity, elements.length + (elements.length >> 1))];
+            System.arraycopy(elements, 0, newElements, 0, end);
+            elements = newElements;
+        }
+    }
+
+    /**
+     * Removes all objects that are {@link Object#equals(Object) equal} to one of the given objects in a single pass.
+     * Afterwards, the store is compacted.
+     * Note that this method must not be called while the store is being iterated.
+     *
+     * @param objects The objects that should be removed from the store.
+     * @return Whether at least one object was removed.
+     */
+    @Override
+    public boolean removeAll(Collection<?> objects) {
+
+        if (objects.isEmpty() || size() == 0) {
+            return false;
+        }
+
+        Collection<?> lookup = objects.size() > 4 && ! (objects instanceof Set) ? new HashSet<Object>(objects) : objects;
+
+        int oldRemoved = removed;
+        for (int index = 0; index < end; index++) {
+            if (elements[index] != null && lookup.contains(elements[index])) {
+                elements[index] = null;
+                removed++;
+            }
+        }
+
+        boolean changed = removed != oldRemoved;
+        compact();
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+
+        for (int index = 0; index < end; index++) {
+            elements[index] = null;
+        }
+
+        end = 0;
+        removed = 0;
+        compactions++;
+    }
+
+    /**
+     * Closes all empty slots which were left behind by objects that have been removed using {@link Iterator#remove()}.
+     * This takes a single pass over the store and keeps the order of the remaining objects.
+     * Note that this method must not be called while the store is being iterated.
+     */
+    public void compact() {
+
+        if (removed == 0) {
+            return;
+        }
+
+        int newEnd = 0;
+        for (int index = 0; index < end; index++) {
+            if (elements[index] != null) {
+                elements[newEnd++] = elements[index];
+            }
+        }
+        for (int index = newEnd; index < end; index++) {
+            elements[index] = null;
+        }
+
+        end = newEnd;
+        removed = 0;
+        compactions++;
+    }
+
+    @Override
+    public int hashCode() {
+
+        int hashCode = 1;
+        for (BaseObject object : this) {
+            hashCode = 31 * hashCode + object.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        } else if (! (obj instanceof ObjectStore) || ((ObjectStore) obj).size() != size()) {
+            return false;
+        }
+
+        Iterator<BaseObject> otherIterator = ((ObjectStore) obj).iterator();
+        for (BaseObject object : this) {
+            if (!object.equals(otherIterator.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class ObjectStoreIterator implements Iterator<BaseObject> {
+
+        private final int expectedCompactions = compactions;
+        private int       nextIndex;
+        private int       lastIndex           = -1;
+
+        @Override
+        public boolean hasNext() {
+
+            checkCompactions();
+
+            while (nextIndex < end && elements[nextIndex] == null) {
+                nextIndex++;
+            }
+            return nextIndex < end;
+        }
+
+        @Override
+        public BaseObject next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            lastIndex = nextIndex++;
+            return elements[lastIndex];
+        }
+
+        @Override
+        public void remove() {
+
+            checkCompactions();
+
+            if (lastIndex < 0) {
+                throw new IllegalStateException("No object to remove");
+            }
+
+            elements[lastIndex] = null;
+            removed++;
+            lastIndex = -1;
+        }
+
+        private void checkCompactions() {
+
+            if (compactions != expectedCompactions) {
+                throw new ConcurrentModificationException("Object store was compacted during iteration");
+            }
+        }
+
+    }
+
+}
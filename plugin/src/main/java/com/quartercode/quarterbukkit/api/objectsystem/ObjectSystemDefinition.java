@@ -21,7 +21,6 @@ package com.quartercode.quarterbukkit.api.objectsystem;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.builder.EqualsBuilder;
@@ -31,7 +30,11 @@ import org.apache.commons.lang.builder.ToStringStyle;
 
 /**
  * This class describes an object system and allows to create new equivalent {@link ActiveObjectSystem}s using it.
- * It basically contains some {@link Source}s, which spawn new objects, and some {@link ModificationRule}s, which define the behavior of these objects.
+ * It basically contains some {@link Source}s, which spawn new objects, and some {@link ModificationRule}s, which define the behavior of these objects.<br>
+ * <br>
+ * The sources and rules are read through an immutable {@link CompiledObjectSystemDefinition snapshot}, which is compiled once per {@link #getVersion() version}
+ * and shared by all users of the definition.
+ * Therefore, the definition can be changed while an active object system iterates over its sources or rules; the change is picked up with the next snapshot.
  *
  * @see Source
  * @see ModificationRule
@@ -39,17 +42,54 @@ import org.apache.commons.lang.builder.ToStringStyle;
  */
 public class ObjectSystemDefinition {
 
-    private final Collection<Source>                 sources           = new ArrayList<Source>();
-    private final Collection<ModificationRule<?, ?>> modificationRules = new ArrayList<ModificationRule<?, ?>>();
+    private final Collection<Source>                         sources           = new ArrayList<Source>();
+    private final Collection<ModificationRule<?, ?>>         modificationRules = new ArrayList<ModificationRule<?, ?>>();
+    private transient int                                    version;
+    private transient volatile CompiledObjectSystemDefinition snapshot;
+
+    /**
+     * Returns a counter that is incremented each time a {@link Source} or a {@link ModificationRule} is added to or removed from the definition.
+     * It allows users of the definition to cache data which is derived from the sources and rules until the counter changes.
+     *
+     * @return The current version of the object system definition.
+     */
+    public synchronized int getVersion() {
+
+        return version;
+    }
+
+    /**
+     * Returns an immutable {@link CompiledObjectSystemDefinition snapshot} of the current {@link Source}s and {@link ModificationRule}s of the definition.
+     * The snapshot is only compiled once per {@link #getVersion() version}, so the same object is returned until the definition is changed.
+     * Since a new snapshot is swapped in as a whole, a caller either sees the old or the new sources and rules, but never a mixture of both.
+     *
+     * @return The compiled snapshot of the current version of the object system definition.
+     */
+    public CompiledObjectSystemDefinition getSnapshot() {
+
+        CompiledObjectSystemDefinition currentSnapshot = snapshot;
+
+        if (currentSnapshot == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = new CompiledObjectSystemDefinition(version, sources, modificationRules);
+                }
+                currentSnapshot = snapshot;
+            }
+        }
+
+        return currentSnapshot;
+    }
 
     /**
      * Returns the object {@link Source}s, which are responsible for spawning new objects.
+     * The returned collection is taken from the current {@link #getSnapshot() snapshot}, so it can't be modified and doesn't reflect later changes.
      *
      * @return The sources of the defined object system.
      */
     public Collection<Source> getSources() {
 
-        return Collections.unmodifiableCollection(sources);
+        return getSnapshot().getSources();
     }
 
     /**
@@ -67,10 +107,12 @@ public class ObjectSystemDefinition {
      *
      * @param sources The sources that should be added to the object system.
      */
-    public void addSources(List<Source> sources) {
+    public synchronized void addSources(List<Source> sources) {
 
         Validate.noNullElements(sources, "Cannot add null sources to object system definition");
         this.sources.addAll(sources);
+        version++;
+        snapshot = null;
     }
 
     /**
@@ -88,19 +130,22 @@ public class ObjectSystemDefinition {
      *
      * @param sources The sources that should be removed from the object system.
      */
-    public void removeSources(Collection<Source> sources) {
+    public synchronized void removeSources(Collection<Source> sources) {
 
         this.sources.removeAll(sources);
+        version++;
+        snapshot = null;
     }
 
     /**
      * Returns the object {@link ModificationRule}s, which are responsible for controlling the behavior of existing objects.
+     * The returned collection is taken from the current {@link #getSnapshot() snapshot}, so it can't be modified and doesn't reflect later changes.
      *
      * @return The modification rules of the defined object system.
      */
     public Collection<ModificationRule<?, ?>> getModificationRules() {
 
-        return Collections.unmodifiableCollection(modificationRules);
+        return getSnapshot().getModificationRules();
     }
 
     /**
@@ -118,10 +163,12 @@ public class ObjectSystemDefinition {
      *
      * @param modificationRules The modification rules that should be added to the object system.
      */
-    public void addModificationRules(List<ModificationRule<?, ?>> modificationRules) {
+    public synchronized void addModificationRules(List<ModificationRule<?, ?>> modificationRules) {
 
         Validate.noNullElements(modificationRules, "Cannot add null modification rules to object system definition");
         this.modificationRules.addAll(modificationRules);
+        version++;
+        snapshot = null;
     }
 
     /**
@@ -139,9 +186,11 @@ public class ObjectSystemDefinition {
      *
      * @param modificationRules The modification rules that should be removed from the object system.
      */
-    public void removeModificationRules(Collection<ModificationRule<?, ?>> modificationRules) {
+    public synchronized void removeModificationRules(Collection<ModificationRule<?, ?>> modificationRules) {
 
         this.modificationRules.removeAll(modificationRules);
+        version++;
+        snapshot = null;
     }
 
     @Override
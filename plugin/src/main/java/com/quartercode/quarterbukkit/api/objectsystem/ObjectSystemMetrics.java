@@ -0,0 +1,380 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+import java.util.Arrays;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Object system metrics collect runtime statistics about the updates of an {@link ActiveObjectSystem}.
+ * They contain the durations of the recent updates, the time spent on modification rules, sources and renderers,
+ * the amount of spawned and expired objects, and the amount of particle packets and firework entities which were emitted by the renderers.
+ * All times are measured in nanoseconds.<br>
+ * <br>
+ * The update durations are only kept for the last {@link #getWindowSize()} updates, so the minimum, average and percentile values describe the recent load.
+ * All other values are totals since the metrics were created (or {@link #reset() reset}).
+ * The metrics are recorded by the object system runner and the renderers on the main thread.
+ *
+ * @see ActiveObjectSystem#getMetrics()
+ */
+public class ObjectSystemMetrics implements Cloneable {
+
+    /**
+     * The default amount of recent updates whose durations are kept.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+
+    private long[]          updateTimes;
+    private int             updateTimesStart;
+    private int             updateTimesSize;
+
+    private long            updates;
+    private long            rulesTime;
+    private long            sourcesTime;
+    private long            renderersTime;
+
+    private long            spawnedObjects;
+    private long            expiredObjects;
+    private int             lastSpawnedObjects;
+    private int             lastExpiredObjects;
+
+    private long            particlePackets;
+    private long            fireworks;
+
+    /**
+     * Creates new empty object system metrics which keep the durations of the last {@link #DEFAULT_WINDOW_SIZE} updates.
+     */
+    public ObjectSystemMetrics() {
+
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates new empty object system metrics which keep the durations of the given amount of recent updates.
+     *
+     * @param windowSize The amount of recent updates whose durations are kept.
+     */
+    public ObjectSystemMetrics(int windowSize) {
+
+        Validate.isTrue(windowSize > 0, "Object system metrics window size must be > 0: ", windowSize);
+        updateTimes = new long[windowSize];
+    }
+
+    /**
+     * Returns the amount of recent updates whose durations are kept.
+     *
+     * @return The window size.
+     */
+    public int getWindowSize() {
+
+        return updateTimes.length;
+    }
+
+    /**
+     * Returns the total amount of recorded updates.
+     *
+     * @return The amount of updates.
+     */
+    public long getUpdates() {
+
+        return updates;
+    }
+
+    /**
+     * Returns the shortest duration of the recent updates.
+     * If no update has been recorded yet, 0 is returned.
+     *
+     * @return The minimum update time in nanoseconds.
+     */
+    public long getMinUpdateTime() {
+
+        long min = updateTimesSize == 0 ? 0 : Long.MAX_VALUE;
+        for (int index = 0; index < updateTimesSize; index++) {
+            min = Math.min(min, updateTimes[index]);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the average duration of the recent updates.
+     * If no update has been recorded yet, 0 is returned.
+     *
+     * @return The average update time in nanoseconds.
+     */
+    public long getAverageUpdateTime() {
+
+        if (updateTimesSize == 0) {
+            return 0;
+        }
+
+        long sum = 0;
+        for (int index = 0; index < updateTimesSize; index++) {
+            sum += updateTimes[index];
+        }
+        return sum / updateTimesSize;
+    }
+
+    /**
+     * Returns the duration which is not exceeded by the given percentage of the recent updates.
+     * For example, a percentile of 99 returns the duration only 1 percent of the recent updates took longer than.
+     * If no update has been recorded yet, 0 is returned.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The percentile update time in nanoseconds.
+     */
+    public long getPercentileUpdateTime(double percentile) {
+
+        Validate.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100: ", percentile);
+
+        if (updateTimesSize == 0) {
+            return 0;
+        }
+
+        long[] sortedUpdateTimes = Arrays.copyOf(updateTimes, updateTimesSize);
+        Arrays.sort(sortedUpdateTimes);
+        int index = (int) Math.ceil(percentile / 100 * updateTimesSize) - 1;
+        return sortedUpdateTimes[Math.max(0, index)];
+    }
+
+    /**
+     * Returns the total time that was spent on applying {@link ModificationRule}s.
+     *
+     * @return The time spent on modification rules in nanoseconds.
+     */
+    public long getRulesTime() {
+
+        return rulesTime;
+    }
+
+    /**
+     * Returns the total time that was spent on updating {@link Source}s.
+     *
+     * @return The time spent on sources in nanoseconds.
+     */
+    public long getSourcesTime() {
+
+        return sourcesTime;
+    }
+
+    /**
+     * Returns the total time that was spent on applying renderers.
+     *
+     * @return The time spent on renderers in nanoseconds.
+     */
+    public long getRenderersTime() {
+
+        return renderersTime;
+    }
+
+    /**
+     * Returns the total amount of objects that were spawned by the {@link Source}s.
+     *
+     * @return The amount of spawned objects.
+     */
+    public long getSpawnedObjects() {
+
+        return spawnedObjects;
+    }
+
+    /**
+     * Returns the amount of objects that were spawned by the {@link Source}s during the last update.
+     *
+     * @return The amount of objects spawned in the last update.
+     */
+    public int getLastSpawnedObjects() {
+
+        return lastSpawnedObjects;
+    }
+
+    /**
+     * Returns the total amount of objects that were removed by the renderers, e.g. because they expired.
+     *
+     * @return The amount of expired objects.
+     */
+    public long getExpiredObjects() {
+
+        return expiredObjects;
+    }
+
+    /**
+     * Returns the amount of objects that were removed by the renderers during the last update.
+     *
+     * @return The amount of objects expired in the last update.
+     */
+    public int getLastExpiredObjects() {
+
+        return lastExpiredObjects;
+    }
+
+    /**
+     * Returns the total amount of particle packets that were sent to players.
+     *
+     * @return The amount of sent particle packets.
+     */
+    public long getParticlePackets() {
+
+        return particlePackets;
+    }
+
+    /**
+     * Returns the total amount of firework entities that were spawned in order to display firework effects.
+     *
+     * @return The amount of spawned firework entities.
+     */
+    public long getFireworks() {
+
+        return fireworks;
+    }
+
+    /**
+     * Records an update which took the given amount of time in total and the given amounts of time for the different stages.
+     * The amounts of objects which were spawned and expired since the last recorded update are the amounts of the recorded update.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param updateTime The total duration of the update in nanoseconds.
+     * @param rulesTime The time spent on modification rules in nanoseconds.
+     * @param sourcesTime The time spent on sources in nanoseconds.
+     * @param renderersTime The time spent on renderers in nanoseconds.
+     */
+    public void recordUpdate(long updateTime, long rulesTime, long sourcesTime, long renderersTime) {
+
+        // The update times are stored in a ring buffer which overwrites the oldest time once it is full
+        if (updateTimesSize < updateTimes.length) {
+            updateTimes[updateTimesSize++] = updateTime;
+        } else {
+            updateTimes[updateTimesStart] = updateTime;
+            updateTimesStart = (updateTimesStart + 1) % updateTimes.length;
+        }
+
+        updates++;
+        this.rulesTime += rulesTime;
+        this.sourcesTime += sourcesTime;
+        this.renderersTime += renderersTime;
+
+        spawnedObjects += lastSpawnedObjects;
+        expiredObjects += lastExpiredObjects;
+    }
+
+    /**
+     * Sets the amount of objects which were spawned during the current update.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param spawnedObjects The amount of spawned objects.
+     */
+    public void setLastSpawnedObjects(int spawnedObjects) {
+
+        lastSpawnedObjects = spawnedObjects;
+    }
+
+    /**
+     * Sets the amount of objects which were removed by the renderers during the current update.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param expiredObjects The amount of expired objects.
+     */
+    public void setLastExpiredObjects(int expiredObjects) {
+
+        lastExpiredObjects = expiredObjects;
+    }
+
+    /**
+     * Adds the given amount of particle packets to the amount of sent particle packets.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param packets The amount of particle packets that were sent.
+     */
+    public void recordParticlePackets(int packets) {
+
+        particlePackets += packets;
+    }
+
+    /**
+     * Increments the amount of firework entities which were spawned in order to display firework effects.
+     * Note that this is an internal method and should not be used as an api function.
+     */
+    public void recordFirework() {
+
+        fireworks++;
+    }
+
+    /**
+     * Adds all totals (times, objects, packets and fireworks) of the given metrics to these metrics.
+     * The recent update durations and the amount of updates are not changed.
+     * This can be used to aggregate the metrics of multiple object systems.
+     *
+     * @param metrics The metrics whose totals should be added.
+     */
+    public void addTotals(ObjectSystemMetrics metrics) {
+
+        rulesTime += metrics.rulesTime;
+        sourcesTime += metrics.sourcesTime;
+        renderersTime += metrics.renderersTime;
+
+        spawnedObjects += metrics.spawnedObjects;
+        expiredObjects += metrics.expiredObjects;
+        lastSpawnedObjects += metrics.lastSpawnedObjects;
+        lastExpiredObjects += metrics.lastExpiredObjects;
+
+        particlePackets += metrics.particlePackets;
+        fireworks += metrics.fireworks;
+    }
+
+    /**
+     * Resets all values of the metrics to 0.
+     */
+    public void reset() {
+
+        updateTimesStart = 0;
+        updateTimesSize = 0;
+
+        updates = 0;
+        rulesTime = 0;
+        sourcesTime = 0;
+        renderersTime = 0;
+
+        spawnedObjects = 0;
+        expiredObjects = 0;
+        lastSpawnedObjects = 0;
+        lastExpiredObjects = 0;
+
+        particlePackets = 0;
+        fireworks = 0;
+    }
+
+    @Override
+    public ObjectSystemMetrics clone() {
+
+        try {
+            ObjectSystemMetrics clone = (ObjectSystemMetrics) super.clone();
+            clone.updateTimes = updateTimes.clone();
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new Error(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("updates", updates).append("averageUpdateTime", getAverageUpdateTime()).append("particlePackets", particlePackets).toString();
+    }
+
+}
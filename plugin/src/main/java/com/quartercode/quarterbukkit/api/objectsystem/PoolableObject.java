@@ -0,0 +1,38 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem;
+
+/**
+ * A poolable object is a {@link BaseObject} that can be recycled by an {@link ObjectPool} after it was removed from its {@link ActiveObjectSystem}.
+ * Instead of cloning a prototype for every spawned object, the pool resets a recycled object of the same class using {@link #reset(PoolableObject)}.
+ *
+ * @see ObjectPool
+ */
+public interface PoolableObject extends BaseObject {
+
+    /**
+     * Resets the object, so it afterwards exactly represents the given prototype object, like a {@link #clone()} of the prototype would.
+     * The lifetime of the object is reset to the lifetime of the prototype.
+     * Note that the prototype is always an instance of the same class as the object.
+     *
+     * @param prototype The prototype object whose state should be copied into the object.
+     */
+    public void reset(PoolableObject prototype);
+
+}
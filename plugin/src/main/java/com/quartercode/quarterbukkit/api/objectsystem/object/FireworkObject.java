@@ -25,6 +25,7 @@ import java.util.Collections;
 import org.apache.commons.lang.Validate;
 import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.PoolableObject;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
 
 /**
@@ -217,6 +218,18 @@ public class FireworkObject extends StandalonePhysicsObject {
         return this;
     }
 
+    @Override
+    public void reset(PoolableObject prototype) {
+
+        super.reset(prototype);
+
+        FireworkObject fireworkPrototype = (FireworkObject) prototype;
+        power = fireworkPrototype.power;
+        effects.clear();
+        effects.addAll(fireworkPrototype.effects);
+        speedBasedFrequency = fireworkPrototype.speedBasedFrequency;
+    }
+
     @Override
     public FireworkObject clone() {
 
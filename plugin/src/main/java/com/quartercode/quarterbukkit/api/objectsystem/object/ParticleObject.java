@@ -25,6 +25,7 @@ import java.util.Collections;
 import org.apache.commons.lang.Validate;
 import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.PoolableObject;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
 
 /**
@@ -33,7 +34,7 @@ import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsO
  */
 public class ParticleObject extends StandalonePhysicsObject {
 
-    private final Collection<ParticleDefinition> particles           = new ArrayList<ParticleDefinition>();
+    private Collection<ParticleDefinition>       particles           = new ArrayList<ParticleDefinition>();
     private boolean                              speedBasedFrequency = true;
 
     /**
@@ -190,10 +191,26 @@ public class ParticleObject extends StandalonePhysicsObject {
         return this;
     }
 
+    @Override
+    public void reset(PoolableObject prototype) {
+
+        super.reset(prototype);
+
+        ParticleObject particlePrototype = (ParticleObject) prototype;
+        particles.clear();
+        particles.addAll(particlePrototype.particles);
+        speedBasedFrequency = particlePrototype.speedBasedFrequency;
+    }
+
     @Override
     public ParticleObject clone() {
 
-        return (ParticleObject) super.clone();
+        ParticleObject clone = (ParticleObject) super.clone();
+
+        // Deep cloning
+        clone.particles = new ArrayList<ParticleDefinition>(particles);
+
+        return clone;
     }
 
 }
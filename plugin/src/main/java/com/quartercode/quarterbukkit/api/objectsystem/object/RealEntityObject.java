@@ -24,19 +24,24 @@ import org.bukkit.entity.Entity;
 import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
 import com.quartercode.quarterbukkit.api.objectsystem.DefaultBaseObject;
-import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PrimitivePhysicsObject;
 
 /**
  * An object that represents a regular bukkit {@link Entity} and makes it controllable for an {@link ActiveObjectSystem}.
  * All calls to {@link PhysicsObject} methods are forwarded to the equivalent methods of the entity object.
+ * The primitive position accessors reuse a single {@link Location} object, so they don't create any new objects.
+ * However, bukkit always copies the velocity of an entity, which means that the velocity accessors can't avoid creating a vector.
  *
  * @see Entity
  */
-public class RealEntityObject extends DefaultBaseObject implements PhysicsObject {
+public class RealEntityObject extends DefaultBaseObject implements PrimitivePhysicsObject {
 
     private final ActiveObjectSystem referenceSystem;
     private final Entity             entity;
 
+    private transient Location       origin;
+    private transient Location       location;
+
     /**
      * Creates a new real entity object that never expires for the given {@link Entity}.
      * Note that a reference to the object's {@link ActiveObjectSystem} must be provided for position vector calculations.
@@ -98,8 +103,37 @@ public class RealEntityObject extends DefaultBaseObject implements PhysicsObject
     @Override
     public void setPosition(Vector position) {
 
-        Location oldLocation = entity.getLocation();
-        entity.teleport(position.toLocation(oldLocation.getWorld(), oldLocation.getYaw(), oldLocation.getPitch()).add(referenceSystem.getOrigin()));
+        setPosition(position.getX(), position.getY(), position.getZ());
+    }
+
+    @Override
+    public double getX() {
+
+        return getLocation().getX() - getOrigin().getX();
+    }
+
+    @Override
+    public double getY() {
+
+        return getLocation().getY() - getOrigin().getY();
+    }
+
+    @Override
+    public double getZ() {
+
+        return getLocation().getZ() - getOrigin().getZ();
+    }
+
+    @Override
+    public void setPosition(double x, double y, double z) {
+
+        // The yaw and pitch of the entity are kept since they are stored in the reused location
+        Location location = getLocation();
+        Location origin = getOrigin();
+        location.setX(origin.getX() + x);
+        location.setY(origin.getY() + y);
+        location.setZ(origin.getZ() + z);
+        entity.teleport(location);
     }
 
     @Override
@@ -114,10 +148,62 @@ public class RealEntityObject extends DefaultBaseObject implements PhysicsObject
         entity.setVelocity(velocity.clone());
     }
 
+    @Override
+    public double getVelocityX() {
+
+        return entity.getVelocity().getX();
+    }
+
+    @Override
+    public double getVelocityY() {
+
+        return entity.getVelocity().getY();
+    }
+
+    @Override
+    public double getVelocityZ() {
+
+        return entity.getVelocity().getZ();
+    }
+
+    @Override
+    public void setVelocity(double x, double y, double z) {
+
+        entity.setVelocity(new Vector(x, y, z));
+    }
+
+    @Override
+    public void addVelocity(double dx, double dy, double dz) {
+
+        Vector velocity = entity.getVelocity();
+        entity.setVelocity(velocity.setX(velocity.getX() + dx).setY(velocity.getY() + dy).setZ(velocity.getZ() + dz));
+    }
+
+    private Location getOrigin() {
+
+        if (origin == null) {
+            origin = referenceSystem.getOrigin();
+        }
+
+        return origin;
+    }
+
+    private Location getLocation() {
+
+        if (location == null) {
+            location = new Location(null, 0, 0, 0);
+        }
+
+        return entity.getLocation(location);
+    }
+
     @Override
     public RealEntityObject clone() {
 
-        return (RealEntityObject) super.clone();
+        RealEntityObject clone = (RealEntityObject) super.clone();
+        // The reused location must not be shared with the clone
+        clone.location = null;
+        return clone;
     }
 
 }
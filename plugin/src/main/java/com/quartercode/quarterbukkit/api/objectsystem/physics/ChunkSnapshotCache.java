@@ -0,0 +1,225 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+
+/**
+ * A chunk snapshot cache keeps {@link ChunkSnapshot}s of all chunks around the origin of an {@link ActiveObjectSystem}.
+ * Since chunk snapshots are immutable copies of the block data, they can be read by the worker threads of an asynchronous simulation,
+ * which must never access the world directly.
+ * The snapshot of a chunk is only taken again after the chunk has been {@link #invalidate(World, int, int) invalidated} because one of its blocks
+ * changed or because it was loaded or unloaded.
+ * Chunks which are not loaded are treated as if they only contained air.<br>
+ * <br>
+ * The cache is {@link #refresh(Location) refreshed} by the object system runner on the main thread at the start of each tick.
+ * It can then be used by the renderers to check whether a position is inside a solid block.
+ *
+ * @see ActiveObjectSystem#enableBlockCollision(double)
+ */
+public class ChunkSnapshotCache {
+
+    private static final Set<ChunkSnapshotCache> CACHES = Collections.newSetFromMap(new WeakHashMap<ChunkSnapshotCache, Boolean>());
+    private static final boolean[]               SOLID_BLOCKS;
+
+    static {
+
+        int maxId = 0;
+        for (Material material : Material.values()) {
+            maxId = Math.max(maxId, material.getId());
+        }
+
+        SOLID_BLOCKS = new boolean[maxId + 1];
+        for (Material material : Material.values()) {
+            SOLID_BLOCKS[material.getId()] = material.isSolid();
+        }
+
+    }
+
+    /**
+     * Marks the given chunk as changed in all chunk snapshot caches, so its snapshot is taken again on the next refresh.
+     * Note that this is an internal method and should not be used as an api function.
+     * It is called on the main thread by a listener of QuarterBukkit whenever a block changes or a chunk is loaded or unloaded.
+     *
+     * @param world The world that contains the changed chunk.
+     * @param chunkX The x-coordinate of the changed chunk.
+     * @param chunkZ The z-coordinate of the changed chunk.
+     */
+    public static void invalidate(World world, int chunkX, int chunkZ) {
+
+        for (ChunkSnapshotCache cache : CACHES) {
+            cache.invalidateChunk(world.getName(), chunkX, chunkZ);
+        }
+    }
+
+    private final double     radius;
+
+    private String           worldName;
+    private int              minChunkX;
+    private int              minChunkZ;
+    private int              chunksX;
+    private int              chunksZ;
+    private ChunkSnapshot[]  snapshots = new ChunkSnapshot[0];
+    private boolean[]        invalid   = new boolean[0];
+    private int              maxHeight;
+
+    private double           originX;
+    private double           originY;
+    private double           originZ;
+
+    private long             refreshes;
+
+    /**
+     * Creates a new chunk snapshot cache which keeps the snapshots of all chunks within the given radius around the origin of an {@link ActiveObjectSystem}.
+     *
+     * @param radius The radius around the origin in blocks.
+     */
+    public ChunkSnapshotCache(double radius) {
+
+        Validate.isTrue(radius >= 0, "Chunk snapshot cache radius must be >= 0: ", radius);
+        this.radius = radius;
+
+        CACHES.add(this);
+    }
+
+    /**
+     * Returns the radius around the origin of the {@link ActiveObjectSystem} whose chunks are cached.
+     *
+     * @return The cached radius in blocks.
+     */
+    public double getRadius() {
+
+        return radius;
+    }
+
+    /**
+     * Returns the total amount of {@link ChunkSnapshot}s that have been taken by the cache.
+     *
+     * @return The amount of taken snapshots.
+     */
+    public long getRefreshes() {
+
+        return refreshes;
+    }
+
+    /**
+     * Takes new {@link ChunkSnapshot}s of all chunks around the given origin which are not cached yet or have been invalidated since their last snapshot.
+     * Note that this is an internal method and should not be used as an api function.
+     * It must be called on the main thread while no other thread reads the cache.
+     *
+     * @param origin The origin of the {@link ActiveObjectSystem} the cache is used for.
+     */
+    public void refresh(Location origin) {
+
+        World world = origin.getWorld();
+        int newMinChunkX = (int) Math.floor(origin.getX() - radius) >> 4;
+        int newMinChunkZ = (int) Math.floor(origin.getZ() - radius) >> 4;
+        int newChunksX = ((int) Math.floor(origin.getX() + radius) >> 4) - newMinChunkX + 1;
+        int newChunksZ = ((int) Math.floor(origin.getZ() + radius) >> 4) - newMinChunkZ + 1;
+
+        // Drop all snapshots if the cached region changed; this only happens if the origin of the active system is moved
+        if (!world.getName().equals(worldName) || newMinChunkX != minChunkX || newMinChunkZ != minChunkZ || newChunksX != chunksX || newChunksZ != chunksZ) {
+            worldName = world.getName();
+            minChunkX = newMinChunkX;
+            minChunkZ = newMinChunkZ;
+            chunksX = newChunksX;
+            chunksZ = newChunksZ;
+            snapshots = new ChunkSnapshot[chunksX * chunksZ];
+            invalid = new boolean[chunksX * chunksZ];
+            for (int index = 0; index < invalid.length; index++) {
+                invalid[index] = true;
+            }
+            maxHeight = world.getMaxHeight();
+        }
+
+        originX = origin.getX();
+        originY = origin.getY();
+        originZ = origin.getZ();
+
+        for (int index = 0; index < snapshots.length; index++) {
+            if (invalid[index]) {
+                int chunkX = minChunkX + index % chunksX;
+                int chunkZ = minChunkZ + index / chunksX;
+                snapshots[index] = world.isChunkLoaded(chunkX, chunkZ) ? world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false) : null;
+                invalid[index] = false;
+                refreshes++;
+            }
+        }
+    }
+
+    private void invalidateChunk(String worldName, int chunkX, int chunkZ) {
+
+        int offsetX = chunkX - minChunkX;
+        int offsetZ = chunkZ - minChunkZ;
+        if (worldName.equals(this.worldName) && offsetX >= 0 && offsetX < chunksX && offsetZ >= 0 && offsetZ < chunksZ) {
+            invalid[offsetZ * chunksX + offsetX] = true;
+        }
+    }
+
+    /**
+     * Returns whether the block at the given position, which is relative to the origin of the {@link ActiveObjectSystem}, is solid.
+     * Positions outside the cached region, outside the world height or inside unloaded chunks are never solid.
+     * This method can be called by any thread.
+     *
+     * @param x The x-coordinate of the position relative to the origin.
+     * @param y The y-coordinate of the position relative to the origin.
+     * @param z The z-coordinate of the position relative to the origin.
+     * @return Whether the block at the given position is solid.
+     */
+    public boolean isSolid(double x, double y, double z) {
+
+        int blockX = (int) Math.floor(originX + x);
+        int blockY = (int) Math.floor(originY + y);
+        int blockZ = (int) Math.floor(originZ + z);
+        if (blockY < 0 || blockY >= maxHeight) {
+            return false;
+        }
+
+        int offsetX = (blockX >> 4) - minChunkX;
+        int offsetZ = (blockZ >> 4) - minChunkZ;
+        if (offsetX < 0 || offsetX >= chunksX || offsetZ < 0 || offsetZ >= chunksZ) {
+            return false;
+        }
+
+        ChunkSnapshot snapshot = snapshots[offsetZ * chunksX + offsetX];
+        if (snapshot == null) {
+            return false;
+        }
+
+        int typeId = snapshot.getBlockTypeId(blockX & 15, blockY, blockZ & 15);
+        return typeId >= 0 && typeId < SOLID_BLOCKS.length && SOLID_BLOCKS[typeId];
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("radius", radius).append("world", worldName).append("chunks", snapshots.length).toString();
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.Modifier;
+import com.quartercode.quarterbukkit.api.objectsystem.ModifierWrapper;
+import com.quartercode.quarterbukkit.api.objectsystem.util.ShapedModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.VectorLengthModifier;
+import com.quartercode.quarterbukkit.api.shape.Shape;
+
+/**
+ * A kernel that applies a velocity {@link ModificationRule} to all rows of some {@link PhysicsColumns} in batches instead of one row after another.
+ * Each batch is processed by a few simple loops over primitive arrays, which the jit compiler is able to unroll and vectorize.
+ * In contrast to the {@link FusedVelocityKernel}, the rows don't need to be loaded into flyweight objects for that.<br>
+ * <br>
+ * Since no flyweight objects are available, only modifiers whose modifications just depend on the position of a row can be compiled:
+ *
+ * <ul>
+ * <li>{@link ColumnVelocityModifier}s (e.g. the static and targeted velocity modifiers)</li>
+ * <li>{@link ShapedModifier}s</li>
+ * <li>{@link VectorLengthModifier}s</li>
+ * </ul>
+ *
+ * Rules with other modifiers can't be compiled and must be applied to each row separately.
+ * The settings of all modifiers are read for each batch, so changes to them are reflected immediately.
+ * If the modifier chain of the rule is changed after the compilation, the kernel becomes {@link #isValid() invalid} and must be compiled again.
+ * Note that a column kernel is not thread-safe since it reuses the same batch arrays.
+ *
+ * @see PhysicsColumns
+ * @see ColumnVelocityModifier
+ */
+public class ColumnVelocityKernel {
+
+    private static final int             BATCH_SIZE = 1024;
+
+    /**
+     * Compiles the given {@link ModificationRule} into a new column velocity kernel.
+     * This is only possible if the rule uses a {@link VelocityModificationApplier} and the whole modifier chain consists of supported modifiers.
+     *
+     * @param modificationRule The modification rule that should be compiled.
+     * @return The compiled kernel, or {@code null} if the rule can't be applied in batches.
+     */
+    public static ColumnVelocityKernel compile(ModificationRule<?, ?> modificationRule) {
+
+        if (modificationRule.getApplier().getClass() != VelocityModificationApplier.class) {
+            return null;
+        }
+
+        Node root = compileNode(modificationRule.getModifier());
+        return root == null ? null : new ColumnVelocityKernel(modificationRule, root);
+    }
+
+    private static Node compileNode(Modifier<?, ?> modifier) {
+
+        if (modifier instanceof ColumnVelocityModifier) {
+            return new ColumnNode(modifier);
+        } else if (! (modifier instanceof ModifierWrapper)) {
+            return null;
+        }
+
+        // Subclasses of the wrappers might override the modification calculation, so only the exact classes can be compiled
+        ModifierWrapper<?, ?> wrapper = (ModifierWrapper<?, ?>) modifier;
+        Node wrapped = compileNode(wrapper.getWrapped());
+        if (wrapped == null) {
+            return null;
+        } else if (wrapper.getClass() == ShapedModifier.class) {
+            return new ShapedNode(wrapper, wrapped);
+        } else if (wrapper.getClass() == VectorLengthModifier.class) {
+            return new VectorLengthNode(wrapper, wrapped);
+        } else {
+            return null;
+        }
+    }
+
+    private final ModificationRule<?, ?> modificationRule;
+    private final Node                   root;
+
+    private final double[]               resultX    = new double[BATCH_SIZE];
+    private final double[]               resultY    = new double[BATCH_SIZE];
+    private final double[]               resultZ    = new double[BATCH_SIZE];
+    private final boolean[]              written    = new boolean[BATCH_SIZE];
+
+    private ColumnVelocityKernel(ModificationRule<?, ?> modificationRule, Node root) {
+
+        this.modificationRule = modificationRule;
+        this.root = root;
+    }
+
+    /**
+     * Returns whether the {@link ModificationRule} and its modifier chain still have the structure the kernel was compiled from.
+     * If that's not the case, the kernel must not be applied anymore.
+     *
+     * @return Whether the kernel is still valid.
+     */
+    public boolean isValid() {
+
+        return modificationRule.getApplier().getClass() == VelocityModificationApplier.class && modificationRule.getModifier() == root.modifier && root.isValid();
+    }
+
+    /**
+     * Applies the compiled {@link ModificationRule} to all rows of the given {@link PhysicsColumns} whose prototypes have the object type of the rule.
+     * Removed rows are skipped.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param physicsColumns The physics columns whose rows should be modified.
+     */
+    public void apply(PhysicsColumns physicsColumns) {
+
+        Class<?> objectType = modificationRule.getObjectType();
+        int size = physicsColumns.size();
+        StandalonePhysicsObject[] flyweights = physicsColumns.getFlyweightColumn();
+        double[] positionX = physicsColumns.getPositionXColumn();
+        double[] positionY = physicsColumns.getPositionYColumn();
+        double[] positionZ = physicsColumns.getPositionZColumn();
+        double[] velocityX = physicsColumns.getVelocityXColumn();
+        double[] velocityY = physicsColumns.getVelocityYColumn();
+        double[] velocityZ = physicsColumns.getVelocityZColumn();
+
+        for (int offset = 0; offset < size; offset += BATCH_SIZE) {
+            int length = Math.min(BATCH_SIZE, size - offset);
+            root.write(positionX, positionY, positionZ, offset, length, resultX, resultY, resultZ, written);
+
+            for (int index = 0; index < length; index++) {
+                StandalonePhysicsObject flyweight = flyweights[offset + index];
+                // Zero modifications are skipped, just like the velocity modification applier does
+                if (written[index] && flyweight != null && objectType.isInstance(flyweight) && !VelocityModificationApplier.isZero(resultX[index], resultY[index], resultZ[index])) {
+                    velocityX[offset + index] += resultX[index];
+                    velocityY[offset + index] += resultY[index];
+                    velocityZ[offset + index] += resultZ[index];
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return getClass().getSimpleName() + "[" + root + "]";
+    }
+
+    private static abstract class Node {
+
+        protected final Modifier<?, ?> modifier;
+
+        protected Node(Modifier<?, ?> modifier) {
+
+            this.modifier = modifier;
+        }
+
+        protected abstract boolean isValid();
+
+        protected abstract void write(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written);
+
+        @Override
+        public String toString() {
+
+            return modifier.getClass().getSimpleName();
+        }
+
+    }
+
+    private static abstract class WrapperNode extends Node {
+
+        private final ModifierWrapper<?, ?> wrapper;
+        protected final Node                wrapped;
+
+        protected WrapperNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper);
+
+            this.wrapper = wrapper;
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        protected boolean isValid() {
+
+            return wrapper.getWrapped() == wrapped.modifier && wrapped.isValid();
+        }
+
+        @Override
+        public String toString() {
+
+            return super.toString() + "(" + wrapped + ")";
+        }
+
+    }
+
+    private static class ColumnNode extends Node {
+
+        private ColumnNode(Modifier<?, ?> modifier) {
+
+            super(modifier);
+        }
+
+        @Override
+        protected boolean isValid() {
+
+            return true;
+        }
+
+        @Override
+        protected void write(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written) {
+
+            ((ColumnVelocityModifier<?>) modifier).writeModifications(positionX, positionY, positionZ, offset, length, resultX, resultY, resultZ, written);
+        }
+
+    }
+
+    private static class ShapedNode extends WrapperNode {
+
+        private ShapedNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper, wrapped);
+        }
+
+        @Override
+        protected void write(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written) {
+
+            // The wrapped modifier only depends on the positions, so it can just be calculated for the whole batch
+            wrapped.write(positionX, positionY, positionZ, offset, length, resultX, resultY, resultZ, written);
+
+            ShapedModifier<?, ?> shapedModifier = (ShapedModifier<?, ?>) modifier;
+            Shape shape = shapedModifier.getShape();
+            boolean inversed = shapedModifier.isInversed();
+            Vector nullObject = (Vector) shapedModifier.getNullObject();
+
+            for (int index = 0; index < length; index++) {
+                boolean intersectsShape = shape.intersects(positionX[offset + index], positionY[offset + index], positionZ[offset + index]);
+
+                if (intersectsShape == inversed) {
+                    if (nullObject == null) {
+                        written[index] = false;
+                    } else {
+                        resultX[index] = nullObject.getX();
+                        resultY[index] = nullObject.getY();
+                        resultZ[index] = nullObject.getZ();
+                        written[index] = true;
+                    }
+                }
+            }
+        }
+
+    }
+
+    private static class VectorLengthNode extends WrapperNode {
+
+        private VectorLengthNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper, wrapped);
+        }
+
+        @Override
+        protected void write(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written) {
+
+            wrapped.write(positionX, positionY, positionZ, offset, length, resultX, resultY, resultZ, written);
+
+            // Rows without a modification are scaled as well, which doesn't matter but keeps the loop free of branches
+            float factor = ((VectorLengthModifier<?>) modifier).getFactor();
+            for (int index = 0; index < length; index++) {
+                resultX[index] *= factor;
+                resultY[index] *= factor;
+                resultZ[index] *= factor;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import org.bukkit.util.Vector;
+
+/**
+ * A {@link FusableVelocityModifier} whose velocity modification {@link Vector} only depends on the position of the {@link PhysicsObject}.
+ * Such modifiers can calculate the modifications for a whole batch of {@link PhysicsColumns} rows at once in a simple loop over primitive arrays.
+ * That loop doesn't call any methods for each row, so the jit compiler is able to unroll and vectorize it.
+ *
+ * @param <O> The type of object the velocity modifier can use to calculate a velocity modification {@link Vector}.
+ *        This must extend {@link PhysicsObject}.
+ * @see FusableVelocityModifier
+ * @see ColumnVelocityKernel
+ */
+public interface ColumnVelocityModifier<O extends PhysicsObject> extends FusableVelocityModifier<O> {
+
+    /**
+     * Calculates the velocity modifications for the given batch of positions and writes them into the given result arrays.
+     * The position of the row with the batch index {@code i} is stored at the index {@code offset + i} of the position arrays.
+     * Its modification must be written to the index {@code i} of the result arrays.
+     * Each modification must be exactly the same as the one {@link #writeModification(PhysicsObject, Vector)} would write for an object at that position.
+     * Note that this method may be called by multiple threads at once.
+     *
+     * @param positionX The x-coordinates of the positions the modifications should be calculated for.
+     * @param positionY The y-coordinates of the positions the modifications should be calculated for.
+     * @param positionZ The z-coordinates of the positions the modifications should be calculated for.
+     * @param offset The index of the first position of the batch inside the position arrays.
+     * @param length The amount of positions in the batch.
+     * @param resultX The array the x-components of the calculated modifications should be written into.
+     * @param resultY The array the y-components of the calculated modifications should be written into.
+     * @param resultZ The array the z-components of the calculated modifications should be written into.
+     * @param written The array which stores whether a modification was written for each position.
+     *        An entry is {@code false} if {@link #writeModification(PhysicsObject, Vector)} would return {@code false} for that position.
+     */
+    public void writeModifications(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written);
+
+}
@@ -0,0 +1,45 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import org.bukkit.util.Vector;
+
+/**
+ * A {@link VelocityModifier} that is able to write its velocity modification {@link Vector} into a given vector instead of creating a new one.
+ * Such modifiers can be fused with the surrounding modifier chain by a {@link FusedVelocityKernel}.
+ *
+ * @param <O> The type of object the velocity modifier can use to calculate a velocity modification {@link Vector}.
+ *        This must extend {@link PhysicsObject}.
+ * @see VelocityModifier
+ * @see FusedVelocityKernel
+ */
+public interface FusableVelocityModifier<O extends PhysicsObject> extends VelocityModifier<O> {
+
+    /**
+     * Calculates the velocity modification {@link Vector} for the given {@link PhysicsObject} and writes it into the given result vector.
+     * The written vector must be exactly the same as the one returned by {@link #getModification(PhysicsObject)}.
+     * Note that this method may be called by multiple threads at once.
+     *
+     * @param object The object the velocity modifier should calculate a velocity modification vector for.
+     * @param result The vector the calculated velocity modification vector should be written into.
+     * @return Whether a modification was written. This is {@code false} if {@link #getModification(PhysicsObject)} would return {@code null}.
+     */
+    public boolean writeModification(O object, Vector result);
+
+}
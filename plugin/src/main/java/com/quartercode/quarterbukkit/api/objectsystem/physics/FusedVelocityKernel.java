@@ -0,0 +1,307 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationKernel;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.Modifier;
+import com.quartercode.quarterbukkit.api.objectsystem.ModifierWrapper;
+import com.quartercode.quarterbukkit.api.objectsystem.util.ShapedModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.VectorLengthModifier;
+import com.quartercode.quarterbukkit.api.objectsystem.util.WeightedVectorLengthModifier;
+import com.quartercode.quarterbukkit.api.shape.Shape;
+
+/**
+ * A {@link ModificationKernel} that fuses a velocity {@link Modifier} chain and the {@link VelocityModificationApplier}.
+ * All modifiers of the chain write into a single accumulator {@link Vector} which is reused for every object modified by the current thread.
+ * That accumulator is then added to the velocity of the object using {@link PrimitivePhysicsObject#addVelocity(double, double, double)} if possible.
+ * Therefore, no vector needs to be created for each object.<br>
+ * <br>
+ * The following modifiers are fused:
+ *
+ * <ul>
+ * <li>{@link FusableVelocityModifier}s (e.g. the static and targeted velocity modifiers)</li>
+ * <li>{@link ShapedModifier}s</li>
+ * <li>{@link VectorLengthModifier}s</li>
+ * <li>{@link WeightedVectorLengthModifier}s</li>
+ * </ul>
+ *
+ * All other modifiers, including subclasses of the listed wrappers, are called regularly and their results are copied into the accumulator.
+ * The settings of all modifiers are read on each application, so changes to them are reflected immediately.
+ * If a wrapped modifier is replaced after the compilation, the affected wrapper is called regularly as well.
+ *
+ * @param <O> The type of physics object the kernel can modify.
+ * @see VelocityModificationApplier
+ * @see ModificationRule
+ */
+public class FusedVelocityKernel<O extends PhysicsObject> implements ModificationKernel<O> {
+
+    private static final ThreadLocal<Vector> ACCUMULATORS = new AccumulatorThreadLocal();
+
+    /**
+     * Compiles the given velocity {@link Modifier} chain into a new fused velocity kernel.
+     * If not even the first modifier of the chain can be fused, {@code null} is returned since the kernel wouldn't be faster than the regular chain.
+     *
+     * @param modifier The first modifier of the chain that should be compiled.
+     * @return The compiled kernel, or {@code null} if the chain can't be fused at all.
+     */
+    public static <O extends PhysicsObject> FusedVelocityKernel<O> compile(Modifier<? super O, ? extends Vector> modifier) {
+
+        Node root = compileNode(modifier);
+        return root instanceof CallNode ? null : new FusedVelocityKernel<O>(root);
+    }
+
+    private static Node compileNode(Modifier<?, ?> modifier) {
+
+        if (modifier instanceof FusableVelocityModifier) {
+            return new FusableNode(modifier);
+        } else if (! (modifier instanceof ModifierWrapper)) {
+            return new CallNode(modifier);
+        }
+
+        // Subclasses of the wrappers might override the modification calculation, so only the exact classes can be fused
+        ModifierWrapper<?, ?> wrapper = (ModifierWrapper<?, ?>) modifier;
+        if (wrapper.getClass() == ShapedModifier.class) {
+            return new ShapedNode(wrapper, compileNode(wrapper.getWrapped()));
+        } else if (wrapper.getClass() == VectorLengthModifier.class) {
+            return new VectorLengthNode(wrapper, compileNode(wrapper.getWrapped()));
+        } else if (wrapper.getClass() == WeightedVectorLengthModifier.class) {
+            return new WeightedVectorLengthNode(wrapper, compileNode(wrapper.getWrapped()));
+        } else {
+            return new CallNode(modifier);
+        }
+    }
+
+    private final Node root;
+
+    private FusedVelocityKernel(Node root) {
+
+        this.root = root;
+    }
+
+    @Override
+    public void apply(O object) {
+
+        Vector accumulator = ACCUMULATORS.get();
+        // Zero modifications are skipped, just like the velocity modification applier does
+        if (!root.write(object, accumulator) || VelocityModificationApplier.isZero(accumulator.getX(), accumulator.getY(), accumulator.getZ())) {
+            return;
+        }
+
+        if (object instanceof PrimitivePhysicsObject) {
+            ((PrimitivePhysicsObject) object).addVelocity(accumulator.getX(), accumulator.getY(), accumulator.getZ());
+        } else {
+            object.setVelocity(object.getVelocity().add(accumulator));
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return getClass().getSimpleName() + "[" + root + "]";
+    }
+
+    private static class AccumulatorThreadLocal extends ThreadLocal<Vector> {
+
+        @Override
+        protected Vector initialValue() {
+
+            return new Vector();
+        }
+
+    }
+
+    private static abstract class Node {
+
+        protected final Modifier<?, ?> modifier;
+
+        protected Node(Modifier<?, ?> modifier) {
+
+            this.modifier = modifier;
+        }
+
+        // Writes the modification of the modifier into the accumulator and returns false if the modifier would return null
+        protected abstract boolean write(PhysicsObject object, Vector accumulator);
+
+        @SuppressWarnings ("unchecked")
+        protected boolean call(PhysicsObject object, Vector accumulator) {
+
+            Vector modification = ((Modifier<PhysicsObject, Vector>) modifier).getModification(object);
+            if (modification == null) {
+                return false;
+            }
+
+            accumulator.copy(modification);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+
+            return modifier == null ? "null" : modifier.getClass().getSimpleName();
+        }
+
+    }
+
+    private static abstract class WrapperNode extends Node {
+
+        private final ModifierWrapper<?, ?> wrapper;
+        private final Node                  wrapped;
+
+        protected WrapperNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper);
+
+            this.wrapper = wrapper;
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        protected boolean write(PhysicsObject object, Vector accumulator) {
+
+            // Fall back to the regular chain if the wrapped modifier was replaced after the compilation
+            if (wrapper.getWrapped() != wrapped.modifier) {
+                return call(object, accumulator);
+            } else {
+                return writeWrapper(object, accumulator, wrapped);
+            }
+        }
+
+        protected abstract boolean writeWrapper(PhysicsObject object, Vector accumulator, Node wrapped);
+
+        @Override
+        public String toString() {
+
+            return super.toString() + "(" + wrapped + ")";
+        }
+
+    }
+
+    private static class CallNode extends Node {
+
+        private CallNode(Modifier<?, ?> modifier) {
+
+            super(modifier);
+        }
+
+        @Override
+        protected boolean write(PhysicsObject object, Vector accumulator) {
+
+            return call(object, accumulator);
+        }
+
+    }
+
+    private static class FusableNode extends Node {
+
+        private FusableNode(Modifier<?, ?> modifier) {
+
+            super(modifier);
+        }
+
+        @SuppressWarnings ("unchecked")
+        @Override
+        protected boolean write(PhysicsObject object, Vector accumulator) {
+
+            return ((FusableVelocityModifier<PhysicsObject>) modifier).writeModification(object, accumulator);
+        }
+
+    }
+
+    private static class ShapedNode extends WrapperNode {
+
+        private ShapedNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper, wrapped);
+        }
+
+        @Override
+        protected boolean writeWrapper(PhysicsObject object, Vector accumulator, Node wrapped) {
+
+            ShapedModifier<?, ?> shapedModifier = (ShapedModifier<?, ?>) modifier;
+            Shape shape = shapedModifier.getShape();
+            boolean intersectsShape;
+            if (object instanceof PrimitivePhysicsObject) {
+                PrimitivePhysicsObject primitiveObject = (PrimitivePhysicsObject) object;
+                intersectsShape = shape.intersects(primitiveObject.getX(), primitiveObject.getY(), primitiveObject.getZ());
+            } else {
+                Vector position = object.getPosition();
+                intersectsShape = shape.intersects(position.getX(), position.getY(), position.getZ());
+            }
+
+            if (intersectsShape == !shapedModifier.isInversed()) {
+                return wrapped.write(object, accumulator);
+            } else {
+                Vector nullObject = (Vector) shapedModifier.getNullObject();
+                if (nullObject == null) {
+                    return false;
+                }
+
+                accumulator.copy(nullObject);
+                return true;
+            }
+        }
+
+    }
+
+    private static class VectorLengthNode extends WrapperNode {
+
+        private VectorLengthNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper, wrapped);
+        }
+
+        @Override
+        protected boolean writeWrapper(PhysicsObject object, Vector accumulator, Node wrapped) {
+
+            if (!wrapped.write(object, accumulator)) {
+                return false;
+            }
+
+            VectorLengthModifier<?> vectorLengthModifier = (VectorLengthModifier<?>) modifier;
+            accumulator.multiply(vectorLengthModifier.getFactor());
+            return true;
+        }
+
+    }
+
+    private static class WeightedVectorLengthNode extends WrapperNode {
+
+        private WeightedVectorLengthNode(ModifierWrapper<?, ?> wrapper, Node wrapped) {
+
+            super(wrapper, wrapped);
+        }
+
+        @SuppressWarnings ("unchecked")
+        @Override
+        protected boolean writeWrapper(PhysicsObject object, Vector accumulator, Node wrapped) {
+
+            if (!wrapped.write(object, accumulator)) {
+                return false;
+            }
+
+            WeightedVectorLengthModifier<PhysicsObject> weightedModifier = (WeightedVectorLengthModifier<PhysicsObject>) modifier;
+            accumulator.multiply(weightedModifier.getWeighter().getWeight(object));
+            return true;
+        }
+
+    }
+
+}
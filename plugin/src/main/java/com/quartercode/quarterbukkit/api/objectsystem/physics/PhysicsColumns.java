@@ -0,0 +1,443 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+
+/**
+ * A structure-of-arrays store for a large amount of {@link StandalonePhysicsObject}s that are part of an {@link ActiveObjectSystem}.
+ * Instead of one java object per simulated object, the store keeps the positions, velocities, lifetimes and expiration times of all rows in primitive arrays.
+ * That way, simulating a lot of objects does not create any garbage every tick.<br>
+ * <br>
+ * Each row references a prototype object, which defines everything that is not stored in the columns (e.g. the particles of a particle object).
+ * Since many rows share the same prototype, the store creates one flyweight copy of each prototype.
+ * When a row is {@link #load(int) loaded}, the row state is copied into the flyweight of its prototype, so {@link ModificationRule}s and renderers
+ * can work with it like with any other {@link PhysicsObject}. Afterwards, the changed state is {@link #store(int, StandalonePhysicsObject) stored} back.
+ * Note that a flyweight is only valid until the next row with the same prototype is loaded, so modifiers must not keep references to it.
+ *
+ * @see ActiveObjectSystem#getPhysicsColumns()
+ * @see StandalonePhysicsObject
+ */
+public class PhysicsColumns {
+
+    private static final int                                             DEFAULT_CAPACITY = 16;
+
+    private final Map<StandalonePhysicsObject, Prototype>                prototypes       = new IdentityHashMap<StandalonePhysicsObject, Prototype>();
+    private final Map<StandalonePhysicsObject, Prototype>                flyweightUsages  = new IdentityHashMap<StandalonePhysicsObject, Prototype>();
+
+    private int                                                          size;
+    private int                                                          removed;
+
+    private StandalonePhysicsObject[]                                    flyweights       = new StandalonePhysicsObject[DEFAULT_CAPACITY];
+    private double[]                                                     positionX        = new double[DEFAULT_CAPACITY];
+    private double[]                                                     positionY        = new double[DEFAULT_CAPACITY];
+    private double[]                                                     positionZ        = new double[DEFAULT_CAPACITY];
+    private double[]                                                     velocityX        = new double[DEFAULT_CAPACITY];
+    private double[]                                                     velocityY        = new double[DEFAULT_CAPACITY];
+    private double[]                                                     velocityZ        = new double[DEFAULT_CAPACITY];
+    private int[]                                                        lifetime         = new int[DEFAULT_CAPACITY];
+    private int[]                                                        expirationTime   = new int[DEFAULT_CAPACITY];
+
+    /**
+     * Returns the amount of rows that are currently stored, including rows that have been {@link #remove(int) removed} but not yet {@link #compact() compacted}.
+     * Row indices range from 0 to this value minus one.
+     *
+     * @return The amount of rows.
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Returns whether no live rows are stored.
+     *
+     * @return Whether the store is empty.
+     */
+    public boolean isEmpty() {
+
+        return size == removed;
+    }
+
+    /**
+     * Makes sure that the given amount of rows can be stored without growing the columns again.
+     * This should be called before adding a large amount of rows.
+     *
+     * @param capacity The amount of rows the store must be able to hold.
+     */
+    public void ensureCapacity(int capacity) {
+
+        if (capacity > positionX.length) {
+            int newCapacity = Math.max(capacity, positionX.length + (positionX.length >> 1));
+
+            StandalonePhysicsObject[] newFlyweights = new StandalonePhysicsObject[newCapacity];
+            System.arraycopy(flyweights, 0, newFlyweights, 0, size);
+            flyweights = newFlyweights;
+
+            positionX = grow(positionX, newCapacity);
+            positionY = grow(positionY, newCapacity);
+            positionZ = grow(positionZ, newCapacity);
+            velocityX = grow(velocityX, newCapacity);
+            velocityY = grow(velocityY, newCapacity);
+            velocityZ = grow(velocityZ, newCapacity);
+            lifetime = grow(lifetime, newCapacity);
+            expirationTime = grow(expirationTime, newCapacity);
+        }
+    }
+
+    private double[] grow(double[] column, int newCapacity) {
+
+        double[] newColumn = new double[newCapacity];
+        System.arraycopy(column, 0, newColumn, 0, size);
+        return newColumn;
+    }
+
+    private int[] grow(int[] column, int newCapacity) {
+
+        int[] newColumn = new int[newCapacity];
+        System.arraycopy(column, 0, newColumn, 0, size);
+        return newColumn;
+    }
+
+    /**
+     * Adds a new row which copies the current position, velocity, lifetime and expiration time of the given prototype object.
+     * The prototype is not copied; instead, it is shared by all rows that use it and must therefore not be modified afterwards.
+     *
+     * @param prototype The prototype object that defines the initial state and all properties which are not stored in the columns.
+     * @return The index of the new row.
+     */
+    public int add(StandalonePhysicsObject prototype) {
+
+        int row = add(prototype, prototype.getX(), prototype.getY(), prototype.getZ(), prototype.getVelocityX(), prototype.getVelocityY(), prototype.getVelocityZ());
+        lifetime[row] = prototype.getLifetime();
+        return row;
+    }
+
+    /**
+     * Adds a new row which uses the given prototype object, position and velocity.
+     * The expiration time is copied from the prototype.
+     * The prototype is not copied; instead, it is shared by all rows that use it and must therefore not be modified afterwards.
+     *
+     * @param prototype The prototype object that defines all properties which are not stored in the columns.
+     * @param x The initial x-coordinate of the position of the new row.
+     * @param y The initial y-coordinate of the position of the new row.
+     * @param z The initial z-coordinate of the position of the new row.
+     * @param vx The initial x-component of the velocity of the new row.
+     * @param vy The initial y-component of the velocity of the new row.
+     * @param vz The initial z-component of the velocity of the new row.
+     * @return The index of the new row.
+     */
+    public int add(StandalonePhysicsObject prototype, double x, double y, double z, double vx, double vy, double vz) {
+
+        Validate.notNull(prototype, "Cannot add row with null prototype to physics columns");
+
+        ensureCapacity(size + 1);
+
+        int row = size++;
+        flyweights[row] = getFlyweight(prototype);
+        positionX[row] = x;
+        positionY[row] = y;
+        positionZ[row] = z;
+        velocityX[row] = vx;
+        velocityY[row] = vy;
+        velocityZ[row] = vz;
+        lifetime[row] = 0;
+        expirationTime[row] = prototype.getExpirationTime();
+
+        return row;
+    }
+
+    private StandalonePhysicsObject getFlyweight(StandalonePhysicsObject prototype) {
+
+        Prototype usage = prototypes.get(prototype);
+        if (usage == null) {
+            usage = new Prototype(prototype, prototype.clone());
+            prototypes.put(prototype, usage);
+            flyweightUsages.put(usage.flyweight, usage);
+        }
+        usage.rows++;
+        return usage.flyweight;
+    }
+
+    /**
+     * Returns whether the given row has been {@link #remove(int) removed} and will disappear on the next {@link #compact()} call.
+     *
+     * @param row The index of the row that should be checked.
+     * @return Whether the row has been removed.
+     */
+    public boolean isRemoved(int row) {
+
+        return flyweights[row] == null;
+    }
+
+    /**
+     * Copies the state of the given row into the flyweight object of the row's prototype and returns that flyweight.
+     * The flyweight can then be used like any other {@link StandalonePhysicsObject}.
+     * Changes made to it must be written back using {@link #store(int, StandalonePhysicsObject)}.
+     *
+     * @param row The index of the row that should be loaded.
+     * @return The flyweight object which now represents the row.
+     */
+    public StandalonePhysicsObject load(int row) {
+
+        StandalonePhysicsObject flyweight = flyweights[row];
+        load(row, flyweight);
+        return flyweight;
+    }
+
+    /**
+     * Copies the state of the given row into the given flyweight object, which should be a {@link StandalonePhysicsObject#clone() clone} of the row's
+     * {@link #getFlyweight(int) shared flyweight}.
+     * This allows multiple threads to work on different rows with the same prototype at the same time, as long as each thread uses its own flyweights.
+     * Changes made to the flyweight must be written back using {@link #store(int, StandalonePhysicsObject)}.
+     *
+     * @param row The index of the row that should be loaded.
+     * @param flyweight The flyweight object the state of the row should be copied into.
+     */
+    public void load(int row, StandalonePhysicsObject flyweight) {
+
+        flyweight.setPosition(positionX[row], positionY[row], positionZ[row]);
+        flyweight.setVelocity(velocityX[row], velocityY[row], velocityZ[row]);
+        flyweight.setLifetime(lifetime[row]);
+        flyweight.setExpirationTime(expirationTime[row]);
+    }
+
+    /**
+     * Returns the flyweight object which is shared by all rows that have the same prototype as the given row.
+     * In contrast to {@link #load(int)}, this method does not copy the row state into the flyweight.
+     *
+     * @param row The index of the row whose shared flyweight should be returned.
+     * @return The shared flyweight object of the row.
+     */
+    public StandalonePhysicsObject getFlyweight(int row) {
+
+        return flyweights[row];
+    }
+
+    /**
+     * Writes the state of the given flyweight object, which was returned by {@link #load(int)}, back into the given row.
+     *
+     * @param row The index of the row the state should be written to.
+     * @param flyweight The flyweight object whose state should be stored.
+     */
+    public void store(int row, StandalonePhysicsObject flyweight) {
+
+        positionX[row] = flyweight.getX();
+        positionY[row] = flyweight.getY();
+        positionZ[row] = flyweight.getZ();
+        velocityX[row] = flyweight.getVelocityX();
+        velocityY[row] = flyweight.getVelocityY();
+        velocityZ[row] = flyweight.getVelocityZ();
+        lifetime[row] = flyweight.getLifetime();
+        expirationTime[row] = flyweight.getExpirationTime();
+    }
+
+    /**
+     * Returns the column array which stores the shared flyweight objects of the rows; removed rows contain {@code null}.
+     * The column arrays are used by {@link ColumnVelocityKernel}s, which process whole batches of rows at once.
+     * Note that the arrays are replaced when the columns grow and might be longer than the amount of rows.
+     *
+     * @return The flyweight column.
+     */
+    StandalonePhysicsObject[] getFlyweightColumn() {
+
+        return flyweights;
+    }
+
+    /**
+     * Returns the column array which stores the x-coordinates of the row positions.
+     * See {@link #getFlyweightColumn()} for more information.
+     *
+     * @return The x-coordinates column.
+     */
+    double[] getPositionXColumn() {
+
+        return positionX;
+    }
+
+    /**
+     * Returns the column array which stores the y-coordinates of the row positions.
+     * See {@link #getFlyweightColumn()} for more information.
+     *
+     * @return The y-coordinates column.
+     */
+    double[] getPositionYColumn() {
+
+        return positionY;
+    }
+
+    /**
+     * Returns the column array which stores the z-coordinates of the row positions.
+     * See {@link #getFlyweightColumn()} for more information.
+     *
+     * @return The z-coordinates column.
+     */
+    double[] getPositionZColumn() {
+
+        return positionZ;
+    }
+
+    /**
+     * Returns the column array which stores the x-components of the row velocities.
+     * See {@link #getFlyweightColumn()} for more information.
+     *
+     * @return The x-components column.
+     */
+    double[] getVelocityXColumn() {
+
+        return velocityX;
+    }
+
+    /**
+     * Returns the column array which stores the y-components of the row velocities.
+     * See {@link #getFlyweightColumn()} for more information.
+     *
+     * @return The y-components column.
+     */
+    double[] getVelocityYColumn() {
+
+        return velocityY;
+    }
+
+    /**
+     * Returns the column array which stores the z-components of the row velocities.
+     * See {@link #getFlyweightColumn()} for more information.
+     *
+     * @return The z-components column.
+     */
+    double[] getVelocityZColumn() {
+
+        return velocityZ;
+    }
+
+    /**
+     * Increments the lifetimes of all rows by the given amount of ticks.
+     *
+     * @param ticks The amount of ticks the lifetimes should be incremented by.
+     */
+    public void fastForwardLifetime(int ticks) {
+
+        for (int row = 0; row < size; row++) {
+            lifetime[row] += ticks;
+        }
+    }
+
+    /**
+     * Marks the given row as removed.
+     * It is skipped by the runner and actually disappears on the next {@link #compact()} call.
+     *
+     * @param row The index of the row that should be removed.
+     */
+    public void remove(int row) {
+
+        if (flyweights[row] != null) {
+            flyweightUsages.get(flyweights[row]).rows--;
+            flyweights[row] = null;
+            removed++;
+        }
+    }
+
+    /**
+     * Removes all rows from the store.
+     */
+    public void clear() {
+
+        for (int row = 0; row < size; row++) {
+            flyweights[row] = null;
+        }
+
+        size = 0;
+        removed = 0;
+        prototypes.clear();
+        flyweightUsages.clear();
+    }
+
+    /**
+     * Closes the gaps left behind by all {@link #remove(int) removed} rows in a single pass over the columns.
+     * The order of the remaining rows is kept.
+     * Prototypes whose last row has been removed are dropped as well, so their flyweights can be garbage collected.
+     * Note that this changes the indices of rows, so it must not be called while the rows are being iterated.
+     */
+    public void compact() {
+
+        if (removed == 0) {
+            return;
+        }
+
+        int newSize = 0;
+        for (int row = 0; row < size; row++) {
+            if (flyweights[row] != null) {
+                if (row != newSize) {
+                    flyweights[newSize] = flyweights[row];
+                    positionX[newSize] = positionX[row];
+                    positionY[newSize] = positionY[row];
+                    positionZ[newSize] = positionZ[row];
+                    velocityX[newSize] = velocityX[row];
+                    velocityY[newSize] = velocityY[row];
+                    velocityZ[newSize] = velocityZ[row];
+                    lifetime[newSize] = lifetime[row];
+                    expirationTime[newSize] = expirationTime[row];
+                }
+                newSize++;
+            }
+        }
+        for (int row = newSize; row < size; row++) {
+            flyweights[row] = null;
+        }
+
+        size = newSize;
+        removed = 0;
+
+        for (Iterator<Prototype> iterator = flyweightUsages.values().iterator(); iterator.hasNext();) {
+            Prototype usage = iterator.next();
+            if (usage.rows == 0) {
+                prototypes.remove(usage.prototype);
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("size", size - removed).append("prototypes", prototypes.size()).toString();
+    }
+
+    private static class Prototype {
+
+        private final StandalonePhysicsObject prototype;
+        private final StandalonePhysicsObject flyweight;
+        private int                           rows;
+
+        private Prototype(StandalonePhysicsObject prototype, StandalonePhysicsObject flyweight) {
+
+            this.prototype = prototype;
+            this.flyweight = flyweight;
+        }
+
+    }
+
+}
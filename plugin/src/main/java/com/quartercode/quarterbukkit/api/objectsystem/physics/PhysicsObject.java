@@ -30,6 +30,7 @@ import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
  * Note that the position vector changes over time if the velocity vector doesn't have a length of zero.
  *
  * @see BaseObject
+ * @see PrimitivePhysicsObject
  * @see VelocityModificationRule
  */
 public interface PhysicsObject extends BaseObject {
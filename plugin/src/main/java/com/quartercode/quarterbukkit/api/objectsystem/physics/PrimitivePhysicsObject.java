@@ -0,0 +1,106 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+
+/**
+ * A {@link PhysicsObject} which also provides primitive accessors for its position and velocity.
+ * Since the vector getters and setters copy the vectors, simulation code should use the primitive accessors (e.g. {@link #getX()} or
+ * {@link #addVelocity(double, double, double)}) instead. They read and change the position and velocity without creating any new vectors.<br>
+ * <br>
+ * Code that handles arbitrary physics objects should check whether an object implements this interface and otherwise fall back to the vector methods.
+ *
+ * @see PhysicsObject
+ * @see StandalonePhysicsObject
+ */
+public interface PrimitivePhysicsObject extends PhysicsObject {
+
+    /**
+     * Returns the x-coordinate of the current position of the physics object without creating a {@link Vector}.
+     *
+     * @return The x-coordinate of the position vector.
+     */
+    public double getX();
+
+    /**
+     * Returns the y-coordinate of the current position of the physics object without creating a {@link Vector}.
+     *
+     * @return The y-coordinate of the position vector.
+     */
+    public double getY();
+
+    /**
+     * Returns the z-coordinate of the current position of the physics object without creating a {@link Vector}.
+     *
+     * @return The z-coordinate of the position vector.
+     */
+    public double getZ();
+
+    /**
+     * Changes the current position of the physics object relative to the origin of the {@link ActiveObjectSystem} it is used in without creating a {@link Vector}.
+     *
+     * @param x The new x-coordinate of the position vector.
+     * @param y The new y-coordinate of the position vector.
+     * @param z The new z-coordinate of the position vector.
+     */
+    public void setPosition(double x, double y, double z);
+
+    /**
+     * Returns the x-component of the current velocity of the physics object without creating a {@link Vector}.
+     *
+     * @return The x-component of the velocity vector.
+     */
+    public double getVelocityX();
+
+    /**
+     * Returns the y-component of the current velocity of the physics object without creating a {@link Vector}.
+     *
+     * @return The y-component of the velocity vector.
+     */
+    public double getVelocityY();
+
+    /**
+     * Returns the z-component of the current velocity of the physics object without creating a {@link Vector}.
+     *
+     * @return The z-component of the velocity vector.
+     */
+    public double getVelocityZ();
+
+    /**
+     * Changes the current velocity of the physics object without creating a {@link Vector}.
+     *
+     * @param x The new x-component of the velocity vector.
+     * @param y The new y-component of the velocity vector.
+     * @param z The new z-component of the velocity vector.
+     */
+    public void setVelocity(double x, double y, double z);
+
+    /**
+     * Adds the given components to the current velocity of the physics object without creating a {@link Vector}.
+     * This is the same as applying a force to the object for one tick.
+     *
+     * @param dx The value that is added to the x-component of the velocity vector.
+     * @param dy The value that is added to the y-component of the velocity vector.
+     * @param dz The value that is added to the z-component of the velocity vector.
+     */
+    public void addVelocity(double dx, double dy, double dz);
+
+}
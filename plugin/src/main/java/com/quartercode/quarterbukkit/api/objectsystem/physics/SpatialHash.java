@@ -0,0 +1,447 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.physics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+
+/**
+ * A spatial hash is a uniform grid index of the {@link PhysicsObject} positions of an {@link ActiveObjectSystem}.
+ * It allows {@link ModificationRule}s and renderers to find the neighbors of an object without scanning all objects of the system.
+ * Since each query only visits the grid cells that intersect the queried region, running one query per object costs O(n) in total
+ * as long as the objects are not packed into a few cells.<br>
+ * <br>
+ * The hash is {@link #rebuild(Collection, PhysicsColumns) rebuilt} by the object system runner at the start of each tick and then contains a snapshot of the positions
+ * of all physics objects which are stored in the {@link ActiveObjectSystem#getObjects() object collection} of the system and all rows of its {@link PhysicsColumns}.
+ * Since the flyweight objects of the rows must not be referenced, rows are indexed by their row index and found by separate queries
+ * like {@link #queryRangeRows(double, double, double, double, int[])}.
+ * The cell size should be roughly the typical query radius.
+ *
+ * @see ActiveObjectSystem#enableSpatialHash(double)
+ */
+public class SpatialHash {
+
+    private static final int  DEFAULT_CAPACITY = 16;
+    private static final int  COORDINATE_BITS  = 21;
+    private static final long COORDINATE_MASK  = (1L << COORDINATE_BITS) - 1;
+    private static final long EMPTY_CELL       = Long.MIN_VALUE;
+
+    private final double      cellSize;
+
+    private int               size;
+    private int               objectCount;
+    private int               rowCount;
+    private PhysicsObject[]   objects          = new PhysicsObject[DEFAULT_CAPACITY];
+    private int[]             rows             = new int[DEFAULT_CAPACITY];
+    private double[]          positionX        = new double[DEFAULT_CAPACITY];
+    private double[]          positionY        = new double[DEFAULT_CAPACITY];
+    private double[]          positionZ        = new double[DEFAULT_CAPACITY];
+    private int[]             nextInCell       = new int[DEFAULT_CAPACITY];
+
+    private long[]            cellKeys         = new long[DEFAULT_CAPACITY * 2];
+    private int[]             cellHeads        = new int[DEFAULT_CAPACITY * 2];
+    private int               minCellX;
+    private int               minCellY;
+    private int               minCellZ;
+    private int               maxCellX;
+    private int               maxCellY;
+    private int               maxCellZ;
+
+    /**
+     * Creates a new empty spatial hash that uses the given cell size.
+     *
+     * @param cellSize The edge length of the cubic grid cells in blocks.
+     */
+    public SpatialHash(double cellSize) {
+
+        Validate.isTrue(cellSize > 0, "Spatial hash cell size must be > 0: ", cellSize);
+        this.cellSize = cellSize;
+        Arrays.fill(cellKeys, EMPTY_CELL);
+    }
+
+    /**
+     * Returns the edge length of the cubic grid cells in blocks.
+     *
+     * @return The cell size.
+     */
+    public double getCellSize() {
+
+        return cellSize;
+    }
+
+    /**
+     * Returns the amount of {@link PhysicsObject}s and {@link PhysicsColumns} rows that are currently indexed.
+     *
+     * @return The amount of indexed objects and rows.
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Replaces the content of the spatial hash with the {@link PhysicsObject}s among the given objects, the live rows of the given {@link PhysicsColumns}
+     * and their current positions.
+     * Objects which don't implement the physics object interface are ignored.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param objects The objects that should be indexed.
+     * @param physicsColumns The physics columns whose rows should be indexed.
+     */
+    public void rebuild(Collection<BaseObject> objects, PhysicsColumns physicsColumns) {
+
+        clear();
+        ensureCapacity(objects.size() + physicsColumns.size());
+
+        for (BaseObject object : objects) {
+            if (object instanceof PrimitivePhysicsObject) {
+                PrimitivePhysicsObject physicsObject = (PrimitivePhysicsObject) object;
+                add(physicsObject, -1, physicsObject.getX(), physicsObject.getY(), physicsObject.getZ());
+            } else if (object instanceof PhysicsObject) {
+                Vector position = ((PhysicsObject) object).getPosition();
+                add((PhysicsObject) object, -1, position.getX(), position.getY(), position.getZ());
+            }
+        }
+
+        double[] columnX = physicsColumns.getPositionXColumn();
+        double[] columnY = physicsColumns.getPositionYColumn();
+        double[] columnZ = physicsColumns.getPositionZColumn();
+        for (int row = 0; row < physicsColumns.size(); row++) {
+            if (!physicsColumns.isRemoved(row)) {
+                add(null, row, columnX[row], columnY[row], columnZ[row]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > objects.length) {
+            int newCapacity = Math.max(capacity, objects.length + (objects.length >> 1));
+            objects = new PhysicsObject[newCapacity];
+            rows = new int[newCapacity];
+            positionX = new double[newCapacity];
+            positionY = new double[newCapacity];
+            positionZ = new double[newCapacity];
+            nextInCell = new int[newCapacity];
+        }
+
+        // The cell table is kept at most half full, so the linear probing sequences stay short
+        if (capacity * 2 > cellKeys.length) {
+            int tableCapacity = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            cellKeys = new long[tableCapacity];
+            cellHeads = new int[tableCapacity];
+            Arrays.fill(cellKeys, EMPTY_CELL);
+        }
+    }
+
+    private void add(PhysicsObject object, int row, double x, double y, double z) {
+
+        // Rows are stored as entries without an object
+        int entry = size++;
+        objects[entry] = object;
+        rows[entry] = row;
+        if (object != null) {
+            objectCount++;
+        } else {
+            rowCount++;
+        }
+        positionX[entry] = x;
+        positionY[entry] = y;
+        positionZ[entry] = z;
+
+        int cellX = toCell(x);
+        int cellY = toCell(y);
+        int cellZ = toCell(z);
+        if (entry == 0) {
+            minCellX = maxCellX = cellX;
+            minCellY = maxCellY = cellY;
+            minCellZ = maxCellZ = cellZ;
+        } else {
+            minCellX = Math.min(minCellX, cellX);
+            minCellY = Math.min(minCellY, cellY);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellX = Math.max(maxCellX, cellX);
+            maxCellY = Math.max(maxCellY, cellY);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+
+        // Each cell stores the first entry of a linked list that goes through the "nextInCell" array
+        long key = toKey(cellX, cellY, cellZ);
+        int slot = findSlot(key);
+        if (cellKeys[slot] == EMPTY_CELL) {
+            cellKeys[slot] = key;
+            nextInCell[entry] = -1;
+        } else {
+            nextInCell[entry] = cellHeads[slot];
+        }
+        cellHeads[slot] = entry;
+    }
+
+    /**
+     * Removes all objects from the spatial hash.
+     */
+    public void clear() {
+
+        for (int entry = 0; entry < size; entry++) {
+            objects[entry] = null;
+        }
+        Arrays.fill(cellKeys, EMPTY_CELL);
+        size = 0;
+        objectCount = 0;
+        rowCount = 0;
+    }
+
+    private int toCell(double coordinate) {
+
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private long toKey(int cellX, int cellY, int cellZ) {
+
+        return (cellX & COORDINATE_MASK) << COORDINATE_BITS * 2 | (cellY & COORDINATE_MASK) << COORDINATE_BITS | cellZ & COORDINATE_MASK;
+    }
+
+    private int findSlot(long key) {
+
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int mask = cellKeys.length - 1;
+        int slot = (int) (hash ^ hash >>> 32) & mask;
+        while (cellKeys[slot] != EMPTY_CELL && cellKeys[slot] != key) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    private int getCellHead(int cellX, int cellY, int cellZ) {
+
+        int slot = findSlot(toKey(cellX, cellY, cellZ));
+        return cellKeys[slot] == EMPTY_CELL ? -1 : cellHeads[slot];
+    }
+
+    /**
+     * Adds all indexed {@link PhysicsObject}s whose positions are within the given radius around the given position to the given result list.
+     * The positions are relative to the origin of the {@link ActiveObjectSystem}.
+     * Note that an object which is located at the queried position is returned as well.
+     *
+     * @param x The x-coordinate of the center of the queried sphere.
+     * @param y The y-coordinate of the center of the queried sphere.
+     * @param z The z-coordinate of the center of the queried sphere.
+     * @param radius The radius of the queried sphere.
+     * @param result The list the found objects should be added to.
+     * @return The amount of objects that were found.
+     */
+    public int queryRange(double x, double y, double z, double radius, List<PhysicsObject> result) {
+
+        return queryRange(x, y, z, radius, result, null);
+    }
+
+    /**
+     * Writes the indices of all indexed {@link PhysicsColumns} rows whose positions are within the given radius around the given position into the given array.
+     * If more rows are found than the array can hold, the remaining rows are skipped.
+     * The positions are relative to the origin of the {@link ActiveObjectSystem}.
+     * Note that the row indices refer to the rows at the time of the last rebuild; rows might have been {@link PhysicsColumns#isRemoved(int) removed} since then.
+     * A found row should be {@link PhysicsColumns#load(int, StandalonePhysicsObject) loaded} into an own flyweight since the shared one might be in use.
+     *
+     * @param x The x-coordinate of the center of the queried sphere.
+     * @param y The y-coordinate of the center of the queried sphere.
+     * @param z The z-coordinate of the center of the queried sphere.
+     * @param radius The radius of the queried sphere.
+     * @param result The array the indices of the found rows should be written to.
+     * @return The amount of rows that were written to the array.
+     */
+    public int queryRangeRows(double x, double y, double z, double radius, int[] result) {
+
+        return queryRange(x, y, z, radius, null, result);
+    }
+
+    private int queryRange(double x, double y, double z, double radius, List<PhysicsObject> objectResult, int[] rowResult) {
+
+        Validate.isTrue(radius >= 0, "Spatial hash query radius must be >= 0: ", radius);
+
+        boolean queryRows = objectResult == null;
+        if ((queryRows ? Math.min(rowCount, rowResult.length) : objectCount) == 0) {
+            return 0;
+        }
+
+        double radiusSquared = radius * radius;
+        int found = 0;
+
+        int fromX = Math.max(toCell(x - radius), minCellX);
+        int fromY = Math.max(toCell(y - radius), minCellY);
+        int fromZ = Math.max(toCell(z - radius), minCellZ);
+        int toX = Math.min(toCell(x + radius), maxCellX);
+        int toY = Math.min(toCell(y + radius), maxCellY);
+        int toZ = Math.min(toCell(z + radius), maxCellZ);
+
+        for (int cellX = fromX; cellX <= toX; cellX++) {
+            for (int cellY = fromY; cellY <= toY; cellY++) {
+                for (int cellZ = fromZ; cellZ <= toZ; cellZ++) {
+                    for (int entry = getCellHead(cellX, cellY, cellZ); entry >= 0; entry = nextInCell[entry]) {
+                        if ( (objects[entry] == null) == queryRows && getDistanceSquared(entry, x, y, z) <= radiusSquared) {
+                            if (!queryRows) {
+                                objectResult.add(objects[entry]);
+                            } else if (found < rowResult.length) {
+                                rowResult[found] = rows[entry];
+                            } else {
+                                return found;
+                            }
+                            found++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Adds the given amount of indexed {@link PhysicsObject}s which are nearest to the given position to the given result list, ordered by their distance.
+     * If less objects are indexed, all objects are added.
+     * The positions are relative to the origin of the {@link ActiveObjectSystem}.
+     * Note that an object which is located at the queried position is returned as well.
+     *
+     * @param x The x-coordinate of the queried position.
+     * @param y The y-coordinate of the queried position.
+     * @param z The z-coordinate of the queried position.
+     * @param amount The maximum amount of objects that should be found.
+     * @param result The list the found objects should be added to.
+     * @return The amount of objects that were found.
+     */
+    public int queryNearest(double x, double y, double z, int amount, List<PhysicsObject> result) {
+
+        Validate.isTrue(amount >= 0, "Spatial hash nearest object amount must be >= 0: ", amount);
+
+        int[] nearestEntries = new int[Math.min(amount, objectCount)];
+        int found = queryNearest(x, y, z, false, nearestEntries);
+
+        for (int index = 0; index < found; index++) {
+            result.add(objects[nearestEntries[index]]);
+        }
+        return found;
+    }
+
+    /**
+     * Writes the indices of the indexed {@link PhysicsColumns} rows which are nearest to the given position into the given array, ordered by their distance.
+     * The array length defines the amount of rows that should be found; if less rows are indexed, all rows are written.
+     * The positions are relative to the origin of the {@link ActiveObjectSystem}.
+     * See {@link #queryRangeRows(double, double, double, double, int[])} for more information about the row indices.
+     *
+     * @param x The x-coordinate of the queried position.
+     * @param y The y-coordinate of the queried position.
+     * @param z The z-coordinate of the queried position.
+     * @param result The array the indices of the found rows should be written to.
+     * @return The amount of rows that were written to the array.
+     */
+    public int queryNearestRows(double x, double y, double z, int[] result) {
+
+        int[] nearestEntries = new int[Math.min(result.length, rowCount)];
+        int found = queryNearest(x, y, z, true, nearestEntries);
+
+        for (int index = 0; index < found; index++) {
+            result[index] = rows[nearestEntries[index]];
+        }
+        return found;
+    }
+
+    private int queryNearest(double x, double y, double z, boolean queryRows, int[] nearestEntries) {
+
+        int maxFound = nearestEntries.length;
+        if (maxFound == 0) {
+            return 0;
+        }
+
+        // The result arrays are local, so multiple threads can query the hash at the same time
+        double[] nearestDistances = new double[maxFound];
+        int found = 0;
+
+        int centerX = toCell(x);
+        int centerY = toCell(y);
+        int centerZ = toCell(z);
+        int maxRing = Math.max(Math.abs(centerX - minCellX), Math.abs(centerX - maxCellX));
+        maxRing = Math.max(maxRing, Math.max(Math.abs(centerY - minCellY), Math.abs(centerY - maxCellY)));
+        maxRing = Math.max(maxRing, Math.max(Math.abs(centerZ - minCellZ), Math.abs(centerZ - maxCellZ)));
+
+        // Visit the cells in rings of growing size around the center cell; every object outside a ring is at least "ring * cellSize" blocks away
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (found == maxFound && nearestDistances[found - 1] <= square(ring * cellSize - cellSize)) {
+                break;
+            }
+
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+                for (int cellY = centerY - ring; cellY <= centerY + ring; cellY++) {
+                    boolean shell = Math.abs(cellX - centerX) == ring || Math.abs(cellY - centerY) == ring;
+                    for (int cellZ = centerZ - ring; cellZ <= centerZ + ring; cellZ += shell || ring == 0 ? 1 : ring * 2) {
+                        for (int entry = getCellHead(cellX, cellY, cellZ); entry >= 0; entry = nextInCell[entry]) {
+                            if ( (objects[entry] == null) == queryRows) {
+                                found = insertNearest(nearestEntries, nearestDistances, found, entry, getDistanceSquared(entry, x, y, z));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private int insertNearest(int[] nearestEntries, double[] nearestDistances, int found, int entry, double distanceSquared) {
+
+        if (found == nearestEntries.length && distanceSquared >= nearestDistances[found - 1]) {
+            return found;
+        }
+
+        // Insertion sort into the bounded result arrays; the amount of requested objects is usually small
+        int index = found == nearestEntries.length ? found - 1 : found;
+        while (index > 0 && nearestDistances[index - 1] > distanceSquared) {
+            nearestEntries[index] = nearestEntries[index - 1];
+            nearestDistances[index] = nearestDistances[index - 1];
+            index--;
+        }
+        nearestEntries[index] = entry;
+        nearestDistances[index] = distanceSquared;
+
+        return Math.min(found + 1, nearestEntries.length);
+    }
+
+    private double getDistanceSquared(int entry, double x, double y, double z) {
+
+        return square(positionX[entry] - x) + square(positionY[entry] - y) + square(positionZ[entry] - z);
+    }
+
+    private double square(double value) {
+
+        return value * value;
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("cellSize", cellSize).append("size", size).toString();
+    }
+
+}
@@ -21,6 +21,7 @@ package com.quartercode.quarterbukkit.api.objectsystem.physics;
 import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
 import com.quartercode.quarterbukkit.api.objectsystem.DefaultBaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.PoolableObject;
 
 /**
  * A standalone implementation of {@link PhysicsObject} that just stores the data in member variables and applies the velocity every tick.
@@ -28,7 +29,7 @@ import com.quartercode.quarterbukkit.api.objectsystem.DefaultBaseObject;
  *
  * @see PhysicsObject
  */
-public class StandalonePhysicsObject extends DefaultBaseObject implements PhysicsObject {
+public class StandalonePhysicsObject extends DefaultBaseObject implements PrimitivePhysicsObject, PoolableObject {
 
     private Vector position;
     private Vector velocity;
@@ -53,14 +54,15 @@ public class StandalonePhysicsObject extends DefaultBaseObject implements Physic
 
     /**
      * Creates a new standalone physics object that never expires, is located at the given position and initially moves with the given velocity.
+     * The given vectors are copied, so they can be shared by multiple objects.
      *
      * @param position The initial position {@link Vector}, which is relative to the origin of the object's {@link ActiveObjectSystem}, of the new object.
      * @param velocity The initial velocity {@link Vector}, which defines the initial movement, of the new object.
      */
     public StandalonePhysicsObject(Vector position, Vector velocity) {
 
-        this.position = position;
-        this.velocity = velocity;
+        this.position = position.clone();
+        this.velocity = velocity.clone();
     }
 
     /**
@@ -116,6 +118,30 @@ public class StandalonePhysicsObject extends DefaultBaseObject implements Physic
         this.position = position.clone();
     }
 
+    @Override
+    public double getX() {
+
+        return position.getX();
+    }
+
+    @Override
+    public double getY() {
+
+        return position.getY();
+    }
+
+    @Override
+    public double getZ() {
+
+        return position.getZ();
+    }
+
+    @Override
+    public void setPosition(double x, double y, double z) {
+
+        position.setX(x).setY(y).setZ(z);
+    }
+
     @Override
     public Vector getVelocity() {
 
@@ -128,6 +154,51 @@ public class StandalonePhysicsObject extends DefaultBaseObject implements Physic
         this.velocity = velocity.clone();
     }
 
+    @Override
+    public double getVelocityX() {
+
+        return velocity.getX();
+    }
+
+    @Override
+    public double getVelocityY() {
+
+        return velocity.getY();
+    }
+
+    @Override
+    public double getVelocityZ() {
+
+        return velocity.getZ();
+    }
+
+    @Override
+    public void setVelocity(double x, double y, double z) {
+
+        velocity.setX(x).setY(y).setZ(z);
+    }
+
+    @Override
+    public void addVelocity(double dx, double dy, double dz) {
+
+        velocity.setX(velocity.getX() + dx).setY(velocity.getY() + dy).setZ(velocity.getZ() + dz);
+    }
+
+    /**
+     * Resets the object, so it afterwards exactly represents the given prototype object.
+     * The position and velocity vectors are updated in place, so no new vectors are created.
+     * Subclasses which add more state must override this method and call the super method.
+     */
+    @Override
+    public void reset(PoolableObject prototype) {
+
+        StandalonePhysicsObject standalonePrototype = (StandalonePhysicsObject) prototype;
+        setLifetime(standalonePrototype.getLifetime());
+        setExpirationTime(standalonePrototype.getExpirationTime());
+        setPosition(standalonePrototype.getX(), standalonePrototype.getY(), standalonePrototype.getZ());
+        setVelocity(standalonePrototype.getVelocityX(), standalonePrototype.getVelocityY(), standalonePrototype.getVelocityZ());
+    }
+
     @Override
     public StandalonePhysicsObject clone() {
 
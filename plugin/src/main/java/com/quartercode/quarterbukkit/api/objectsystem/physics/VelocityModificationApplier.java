@@ -19,10 +19,14 @@
 package com.quartercode.quarterbukkit.api.objectsystem.physics;
 
 import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.FusingModificationApplier;
 import com.quartercode.quarterbukkit.api.objectsystem.ModificationApplier;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationKernel;
+import com.quartercode.quarterbukkit.api.objectsystem.Modifier;
 
 /**
  * A {@link ModificationApplier} that applies a velocity modification {@link Vector} produced by a {@link VelocityModifier} to a {@link PhysicsObject}.
+ * Velocity modifier chains are compiled into {@link FusedVelocityKernel}s, so the modification vectors don't need to be created for each object.
  *
  * @param <O> The type of object the velocity modification applier can apply a velocity modification vector to. This must extend {@link PhysicsObject}.
  *        Note that this type parameter is somewhat unnecessary since the velocity applier accepts all kinds of physics objects.
@@ -31,18 +35,45 @@ import com.quartercode.quarterbukkit.api.objectsystem.ModificationApplier;
  * @see VelocityModificationRule
  * @see VelocityModifier
  */
-public class VelocityModificationApplier<O extends PhysicsObject> implements ModificationApplier<O, Vector> {
-
-    private static final Vector ZERO_VECTOR = new Vector();
+public class VelocityModificationApplier<O extends PhysicsObject> implements FusingModificationApplier<O, Vector> {
 
     @Override
     public void applyModification(PhysicsObject object, Vector modification) {
 
-        if (modification != null && !modification.equals(ZERO_VECTOR)) {
+        // Zero modifications are skipped, so entities don't receive a velocity update every tick
+        if (modification == null || isZero(modification.getX(), modification.getY(), modification.getZ())) {
+            return;
+        }
+
+        if (object instanceof PrimitivePhysicsObject) {
+            ((PrimitivePhysicsObject) object).addVelocity(modification.getX(), modification.getY(), modification.getZ());
+        } else {
             object.setVelocity(object.getVelocity().add(modification));
         }
     }
 
+    /**
+     * Returns whether the given vector components form a zero vector.
+     * Just like {@link Vector#equals(Object)}, each component which is closer to 0 than the {@link Vector#getEpsilon() vector epsilon} is treated as 0.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param x The x component of the vector.
+     * @param y The y component of the vector.
+     * @param z The z component of the vector.
+     * @return True if the vector is a zero vector, false otherwise.
+     */
+    static boolean isZero(double x, double y, double z) {
+
+        double epsilon = Vector.getEpsilon();
+        return Math.abs(x) < epsilon && Math.abs(y) < epsilon && Math.abs(z) < epsilon;
+    }
+
+    @Override
+    public ModificationKernel<O> compile(Modifier<? super O, ? extends Vector> modifier) {
+
+        return FusedVelocityKernel.compile(modifier);
+    }
+
     @Override
     public int hashCode() {
 
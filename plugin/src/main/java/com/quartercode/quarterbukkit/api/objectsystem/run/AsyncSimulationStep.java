@@ -0,0 +1,246 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.run.Renderer.RenderingResult;
+
+/**
+ * A {@link SimulationStep} that leaves the {@link StandalonePhysicsObject}s and rows to a simulation on the simulation executor of the {@link ObjectSystemScheduler}.
+ * The simulation of the next frame is started at the end of a tick and applies the modification rules and the required renderers.
+ * At the start of a later tick, the completed frame is {@link #emit(int, boolean) emitted}, which removes the expired objects and applies the optional renderers.
+ * While the simulation is running, the active object system is marked with {@link ActiveObjectSystem#setPendingSimulation(java.util.concurrent.Future)},
+ * so other code that reads its objects waits for the simulation instead of seeing objects which are modified at the same time.
+ * All other objects are processed on the main thread.
+ */
+class AsyncSimulationStep extends SimulationStep {
+
+    private Future<Simulation> simulation;
+
+    AsyncSimulationStep(ObjectSystemRunner runner) {
+
+        super(runner);
+    }
+
+    /**
+     * Returns whether a simulation was started and hasn't been {@link #emit(int, boolean) emitted} yet.
+     * Note that a pending simulation must be emitted even if the runner doesn't simulate asynchronously anymore.
+     *
+     * @return Whether there is a pending simulation.
+     */
+    boolean isPending() {
+
+        return simulation != null;
+    }
+
+    /**
+     * Returns whether the pending simulation has completed, so it can be {@link #emit(int, boolean) emitted} without blocking the main thread.
+     *
+     * @return Whether the pending simulation is done.
+     */
+    boolean isDone() {
+
+        return simulation.isDone();
+    }
+
+    @Override
+    boolean isAsynchronous() {
+
+        return true;
+    }
+
+    @Override
+    void applyModificationRules() {
+
+        applyModificationRulesToObjects(true);
+    }
+
+    @Override
+    void finish() {
+
+        // Simulate the next frame of all standalone physics objects on a worker thread while the server continues its tick
+        Simulation nextSimulation = new Simulation();
+        simulation = ObjectSystemScheduler.getScheduler(runner.getPlugin()).getSimulationExecutor().submit(nextSimulation, nextSimulation);
+        runner.getObjectSystem().setPendingSimulation(simulation);
+    }
+
+    /**
+     * Emits the last completed frame of the pending simulation.
+     * The objects which expired during the simulation are removed and the optional renderers are applied to all remaining simulated objects and rows.
+     *
+     * @param stride The degradation stride of the runner; only every "stride"th object is rendered by the optional renderers.
+     * @param renderTick Whether the optional renderers are applied in the current tick.
+     * @return The amount of objects and rows which expired during the simulation.
+     */
+    int emit(int stride, boolean renderTick) {
+
+        Simulation lastSimulation;
+        try {
+            lastSimulation = simulation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Asynchronous object system simulation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Asynchronous object system simulation failed", e.getCause());
+        } finally {
+            simulation = null;
+            runner.getObjectSystem().setPendingSimulation(null);
+        }
+
+        ActiveObjectSystem objectSystem = runner.getObjectSystem();
+        BaseObject[] objects = lastSimulation.getObjects();
+        boolean[] removedObjects = lastSimulation.getRemovedObjects();
+
+        // Remove all objects which expired during the simulation in one pass; objects are compared by identity since two objects might be equal without being the same object
+        Set<BaseObject> removals = Collections.newSetFromMap(new IdentityHashMap<BaseObject, Boolean>());
+        for (int index = 0; index < objects.length; index++) {
+            if (removedObjects[index]) {
+                removals.add(objects[index]);
+            }
+        }
+        if (!removals.isEmpty()) {
+            for (Iterator<BaseObject> iterator = objectSystem.getModifiableObjectsIterator(); iterator.hasNext();) {
+                BaseObject object = iterator.next();
+                if (removals.contains(object)) {
+                    iterator.remove();
+                    runner.recycle(object);
+                }
+            }
+            objectSystem.compactObjects();
+        }
+
+        // Only apply the optional renderers, which display the simulated objects; the other renderers were already applied by the simulation
+        int renderOffset = objectSystem.getLifetime() % stride;
+        int objectIndex = 0;
+        objectSystem.setRenderPhase(true);
+
+        for (int index = 0; index < objects.length; index++) {
+            if (!removedObjects[index]) {
+                runner.render(objects[index], false, renderTick, objectIndex++ % stride == renderOffset);
+            }
+        }
+
+        PhysicsColumns physicsColumns = objectSystem.getPhysicsColumns();
+        for (int row = 0; row < lastSimulation.getRows(); row++) {
+            if (!physicsColumns.isRemoved(row)) {
+                runner.render(physicsColumns.load(row), false, renderTick, objectIndex++ % stride == renderOffset);
+            }
+        }
+
+        objectSystem.setRenderPhase(false);
+        physicsColumns.compact();
+
+        return removals.size() + lastSimulation.getRemovedRows();
+    }
+
+    private class Simulation implements Runnable {
+
+        private final BaseObject[] objects;
+        private final boolean[]    removedObjects;
+        private final int          rows;
+        private int                removedRows;
+
+        private Simulation() {
+
+            List<BaseObject> standaloneObjects = new ArrayList<BaseObject>();
+            for (BaseObject object : runner.getObjectSystem().getObjects()) {
+                if (object instanceof StandalonePhysicsObject) {
+                    standaloneObjects.add(object);
+                }
+            }
+
+            objects = standaloneObjects.toArray(new BaseObject[standaloneObjects.size()]);
+            removedObjects = new boolean[objects.length];
+            rows = runner.getObjectSystem().getPhysicsColumns().size();
+        }
+
+        private BaseObject[] getObjects() {
+
+            return objects;
+        }
+
+        private boolean[] getRemovedObjects() {
+
+            return removedObjects;
+        }
+
+        private int getRows() {
+
+            return rows;
+        }
+
+        private int getRemovedRows() {
+
+            return removedRows;
+        }
+
+        @Override
+        public void run() {
+
+            // Just like on the main thread, the modification rules are applied to all objects before the render phase starts
+            ActiveObjectSystem objectSystem = runner.getObjectSystem();
+            for (int index = 0; index < objects.length; index++) {
+                runner.applyModificationRules(objects[index]);
+            }
+
+            // Only the required renderers are applied since the optional ones are applied on the main thread when the frame is emitted
+            objectSystem.setRenderPhase(true);
+            try {
+                for (int index = 0; index < objects.length; index++) {
+                    removedObjects[index] = render(objects[index]);
+                }
+
+                // The rows store their lifetimes in the columns, so they don't depend on the render phase and are simulated in a single pass
+                PhysicsColumns physicsColumns = objectSystem.getPhysicsColumns();
+                for (int row = 0; row < rows; row++) {
+                    if (!physicsColumns.isRemoved(row)) {
+                        StandalonePhysicsObject object = physicsColumns.load(row);
+                        runner.applyModificationRules(object);
+                        if (render(object)) {
+                            physicsColumns.remove(row);
+                            removedRows++;
+                        } else {
+                            physicsColumns.store(row, object);
+                        }
+                    }
+                }
+            } finally {
+                objectSystem.setRenderPhase(false);
+            }
+        }
+
+        private boolean render(BaseObject object) {
+
+            return runner.render(object, true, false, false) == RenderingResult.REMOVE;
+        }
+
+    }
+
+}
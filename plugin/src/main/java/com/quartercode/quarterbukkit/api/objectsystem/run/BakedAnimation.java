@@ -0,0 +1,653 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.Color;
+import org.bukkit.FireworkEffect;
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.Source;
+import com.quartercode.quarterbukkit.api.objectsystem.object.FireworkEffectDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.FireworkObject;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleObject;
+import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleType;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A baked animation is a precomputed sequence of frames that was recorded by simulating a deterministic {@link ObjectSystemDefinition}.
+ * Each frame contains one emission record for each {@link StandalonePhysicsObject} that was displayed during the corresponding tick.
+ * A {@link BakedAnimationRunner} can then replay the animation without running any sources, modification rules or physics,
+ * so a replay only costs the emission of the particle and firework packets.<br>
+ * <br>
+ * Objects which only differ in their physics state (position, velocity and lifetime) share one template object.
+ * When a record is {@link #load(int) loaded}, its state is copied into its template, which is then passed to the renderers.
+ * Baked animations are weakly cached by definition identity (see {@link #bake(ObjectSystemDefinition, int)}) and can be persisted in a compact binary format.
+ * Note that only {@link ParticleObject}s and {@link FireworkObject}s can be persisted.
+ *
+ * @see BakedAnimationRunner
+ */
+public class BakedAnimation {
+
+    private static final int                                            MAGIC_NUMBER      = 0x51424241;
+    private static final int                                            FORMAT_VERSION    = 1;
+    private static final byte                                           TEMPLATE_PARTICLE = 0;
+    private static final byte                                           TEMPLATE_FIREWORK = 1;
+    private static final int                                            MAX_TEMPLATES     = 1 << 16;
+    private static final int                                            MAX_FRAMES        = 1 << 20;
+    private static final int                                            MAX_RECORDS       = 1 << 22;
+    private static final int                                            MAX_DEFINITIONS   = 1 << 10;
+
+    // Cache entries are bucketed by the identity hash code of their definitions and removed once their definitions are garbage collected
+    private static final Map<Integer, List<CacheEntry>>                 CACHE             = new HashMap<Integer, List<CacheEntry>>();
+    private static final ReferenceQueue<ObjectSystemDefinition>         CACHE_QUEUE       = new ReferenceQueue<ObjectSystemDefinition>();
+
+    /**
+     * Returns a baked animation of the given {@link ObjectSystemDefinition} which contains the given amount of frames.
+     * If the same definition object has already been baked with the same amount of frames and has not been changed since, the cached animation is returned.
+     * Otherwise, the definition is simulated for the given amount of ticks and the result is cached.
+     * The cache only references the definition weakly, so cached animations don't prevent unused definitions from being garbage collected.<br>
+     * <br>
+     * Note that the {@link Source}s of the definition receive {@code null} as their plugin during the simulation.
+     * Moreover, only {@link StandalonePhysicsObject}s are recorded.
+     *
+     * @param definition The object system definition that should be baked.
+     * @param frames The amount of ticks the definition should be simulated for.
+     * @return The baked animation of the definition.
+     */
+    public static BakedAnimation bake(ObjectSystemDefinition definition, int frames) {
+
+        Validate.notNull(definition, "Cannot bake null object system definition");
+        Validate.isTrue(frames > 0, "Baked animation frame amount must be > 0: ", frames);
+
+        synchronized (CACHE) {
+            expungeStaleCacheEntries();
+
+            int definitionHash = System.identityHashCode(definition);
+            List<CacheEntry> bucket = CACHE.get(definitionHash);
+            if (bucket == null) {
+                bucket = new ArrayList<CacheEntry>(1);
+                CACHE.put(definitionHash, bucket);
+            }
+
+            CacheEntry entry = null;
+            for (CacheEntry candidate : bucket) {
+                if (candidate.get() == definition) {
+                    entry = candidate;
+                    break;
+                }
+            }
+
+            if (entry == null || entry.getDefinitionVersion() != definition.getVersion() || entry.getAnimation().getFrames() != frames) {
+                bucket.remove(entry);
+                entry = new CacheEntry(definition, definitionHash, definition.getVersion(), record(definition, frames));
+                bucket.add(entry);
+            }
+            return entry.getAnimation();
+        }
+    }
+
+    private static void expungeStaleCacheEntries() {
+
+        Reference<? extends ObjectSystemDefinition> reference;
+        while ( (reference = CACHE_QUEUE.poll()) != null) {
+            CacheEntry entry = (CacheEntry) reference;
+            List<CacheEntry> bucket = CACHE.get(entry.getDefinitionHash());
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    CACHE.remove(entry.getDefinitionHash());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all baked animations from the cache that is used by {@link #bake(ObjectSystemDefinition, int)}.
+     */
+    public static void clearCache() {
+
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private static BakedAnimation record(ObjectSystemDefinition definition, int frames) {
+
+        Recorder recorder = new Recorder();
+        List<Renderer<?>> renderers = new ArrayList<Renderer<?>>();
+        renderers.add(new BaseObjectRenderer());
+        renderers.add(new StandalonePhysicsObjectRenderer());
+        renderers.add(recorder);
+
+        HeadlessObjectSystemRunner runner = new HeadlessObjectSystemRunner(renderers, new ActiveObjectSystem(definition, new Location(null, 0, 0, 0)));
+        for (int frame = 0; frame < frames; frame++) {
+            recorder.startFrame();
+            runner.step(1);
+        }
+
+        return recorder.build();
+    }
+
+    /**
+     * Reads a baked animation which was written using {@link #write(OutputStream)} from the given {@link InputStream}.
+     * The stream is not closed by this method.
+     *
+     * @param inputStream The input stream the animation should be read from.
+     * @return The read baked animation.
+     * @throws IOException The stream can't be read or doesn't contain a valid baked animation.
+     */
+    public static BakedAnimation read(InputStream inputStream) throws IOException {
+
+        DataInputStream input = new DataInputStream(inputStream);
+
+        if (input.readInt() != MAGIC_NUMBER) {
+            throw new IOException("Stream doesn't contain a baked animation");
+        }
+        int formatVersion = input.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported baked animation format version " + formatVersion);
+        }
+
+        StandalonePhysicsObject[] templates = new StandalonePhysicsObject[readCount(input, MAX_TEMPLATES, "template")];
+        for (int index = 0; index < templates.length; index++) {
+            templates[index] = readTemplate(input);
+        }
+
+        int[] frameOffsets = new int[readCount(input, MAX_FRAMES, "frame") + 1];
+        for (int frame = 0; frame < frameOffsets.length; frame++) {
+            frameOffsets[frame] = input.readInt();
+            int previousOffset = frame == 0 ? 0 : frameOffsets[frame - 1];
+            if (frameOffsets[frame] < previousOffset || frameOffsets[frame] > MAX_RECORDS || frame == 0 && frameOffsets[frame] != 0) {
+                throw new IOException("Invalid frame offset " + frameOffsets[frame] + " of frame " + frame + " in baked animation");
+            }
+        }
+
+        int records = frameOffsets[frameOffsets.length - 1];
+        int[] templateIndices = new int[records];
+        float[] states = new float[records * 6];
+        int[] lifetimes = new int[records];
+        for (int record = 0; record < records; record++) {
+            templateIndices[record] = input.readInt();
+            if (templateIndices[record] < 0 || templateIndices[record] >= templates.length) {
+                throw new IOException("Invalid template index " + templateIndices[record] + " in baked animation");
+            }
+
+            for (int component = 0; component < 6; component++) {
+                states[record * 6 + component] = input.readFloat();
+            }
+            lifetimes[record] = input.readInt();
+        }
+
+        return new BakedAnimation(templates, frameOffsets, templateIndices, states, lifetimes);
+    }
+
+    private static StandalonePhysicsObject readTemplate(DataInputStream input) throws IOException {
+
+        byte templateType = input.readByte();
+        try {
+            if (templateType == TEMPLATE_PARTICLE) {
+                ParticleObject template = new ParticleObject();
+                template.setSpeedBasedFrequency(input.readBoolean());
+
+                int particles = readCount(input, MAX_DEFINITIONS, "particle definition");
+                for (int counter = 0; counter < particles; counter++) {
+                    ParticleDefinition particle = new ParticleDefinition();
+                    particle.setType(ParticleType.valueOf(input.readUTF()));
+                    particle.setAmount(input.readInt());
+                    particle.setSpread(new Vector(input.readDouble(), input.readDouble(), input.readDouble()));
+                    float parameter = input.readFloat();
+                    if (particle.getType().hasParameter()) {
+                        particle.setParameter(parameter);
+                    }
+                    template.addParticles(particle);
+                }
+
+                return template;
+            } else if (templateType == TEMPLATE_FIREWORK) {
+                FireworkObject template = new FireworkObject();
+                template.setSpeedBasedFrequency(input.readBoolean());
+                template.setPower(input.readInt());
+
+                int effects = readCount(input, MAX_DEFINITIONS, "firework effect");
+                for (int counter = 0; counter < effects; counter++) {
+                    FireworkEffectDefinition effect = new FireworkEffectDefinition();
+                    effect.setType(FireworkEffect.Type.valueOf(input.readUTF()));
+                    effect.setFlicker(input.readBoolean());
+                    effect.setTrail(input.readBoolean());
+                    effect.addColors(readColors(input));
+                    effect.addFadeColors(readColors(input));
+                    template.addEffects(effect);
+                }
+
+                return template;
+            } else {
+                throw new IOException("Unknown baked animation template type " + templateType);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid baked animation template: " + e.getMessage());
+        }
+    }
+
+    private static List<Color> readColors(DataInputStream input) throws IOException {
+
+        List<Color> colors = new ArrayList<Color>();
+        int amount = readCount(input, MAX_DEFINITIONS, "color");
+        for (int counter = 0; counter < amount; counter++) {
+            colors.add(Color.fromRGB(input.readInt()));
+        }
+        return colors;
+    }
+
+    private static int readCount(DataInputStream input, int maximum, String name) throws IOException {
+
+        int count = input.readInt();
+        if (count < 0 || count > maximum) {
+            throw new IOException("Invalid " + name + " count " + count + " in baked animation (must be between 0 and " + maximum + ")");
+        }
+        return count;
+    }
+
+    private final StandalonePhysicsObject[] templates;
+    private final int[]                     frameOffsets;
+    private final int[]                     templateIndices;
+    private final float[]                   states;
+    private final int[]                     lifetimes;
+
+    private BakedAnimation(StandalonePhysicsObject[] templates, int[] frameOffsets, int[] templateIndices, float[] states, int[] lifetimes) {
+
+        this.templates = templates;
+        this.frameOffsets = frameOffsets;
+        this.templateIndices = templateIndices;
+        this.states = states;
+        this.lifetimes = lifetimes;
+    }
+
+    /**
+     * Returns the amount of frames (ticks) the baked animation contains.
+     *
+     * @return The amount of frames.
+     */
+    public int getFrames() {
+
+        return frameOffsets.length - 1;
+    }
+
+    /**
+     * Returns the total amount of emission records in all frames of the baked animation.
+     *
+     * @return The amount of records.
+     */
+    public int getRecords() {
+
+        return templateIndices.length;
+    }
+
+    /**
+     * Returns the template objects that are shared by the records of the baked animation.
+     * The index of a template in the returned list is returned by {@link #getTemplateIndex(int)}.
+     *
+     * @return The template objects.
+     */
+    public List<StandalonePhysicsObject> getTemplates() {
+
+        return Arrays.asList(templates);
+    }
+
+    /**
+     * Returns the index of the first record of the given frame.
+     *
+     * @param frame The index of the frame.
+     * @return The index of the first record of the frame.
+     */
+    public int getFrameStart(int frame) {
+
+        return frameOffsets[frame];
+    }
+
+    /**
+     * Returns the index after the last record of the given frame.
+     *
+     * @param frame The index of the frame.
+     * @return The index after the last record of the frame.
+     */
+    public int getFrameEnd(int frame) {
+
+        return frameOffsets[frame + 1];
+    }
+
+    /**
+     * Returns the index of the template object (see {@link #getTemplates()}) the given record uses.
+     *
+     * @param record The index of the record.
+     * @return The template index of the record.
+     */
+    public int getTemplateIndex(int record) {
+
+        return templateIndices[record];
+    }
+
+    /**
+     * Copies the state of the given record into its template object and returns that template.
+     * Note that the template is only valid until the next record with the same template is loaded.
+     *
+     * @param record The index of the record that should be loaded.
+     * @return The template object which now represents the record.
+     */
+    public StandalonePhysicsObject load(int record) {
+
+        StandalonePhysicsObject template = templates[templateIndices[record]];
+        int offset = record * 6;
+        template.setPosition(states[offset], states[offset + 1], states[offset + 2]);
+        template.setVelocity(states[offset + 3], states[offset + 4], states[offset + 5]);
+        template.setLifetime(lifetimes[record]);
+        return template;
+    }
+
+    /**
+     * Writes the baked animation into the given {@link OutputStream} using a compact binary format.
+     * It can be read again using {@link #read(InputStream)}.
+     * The stream is flushed, but not closed by this method.
+     *
+     * @param outputStream The output stream the animation should be written to.
+     * @throws IOException The animation can't be written into the stream.
+     * @throws IllegalStateException The animation contains templates which are neither {@link ParticleObject}s nor {@link FireworkObject}s.
+     */
+    public void write(OutputStream outputStream) throws IOException {
+
+        DataOutputStream output = new DataOutputStream(outputStream);
+
+        output.writeInt(MAGIC_NUMBER);
+        output.writeInt(FORMAT_VERSION);
+
+        output.writeInt(templates.length);
+        for (StandalonePhysicsObject template : templates) {
+            writeTemplate(output, template);
+        }
+
+        output.writeInt(getFrames());
+        for (int frameOffset : frameOffsets) {
+            output.writeInt(frameOffset);
+        }
+
+        for (int record = 0; record < templateIndices.length; record++) {
+            output.writeInt(templateIndices[record]);
+            for (int component = 0; component < 6; component++) {
+                output.writeFloat(states[record * 6 + component]);
+            }
+            output.writeInt(lifetimes[record]);
+        }
+
+        output.flush();
+    }
+
+    private void writeTemplate(DataOutputStream output, StandalonePhysicsObject template) throws IOException {
+
+        if (template instanceof ParticleObject) {
+            ParticleObject particleTemplate = (ParticleObject) template;
+            output.writeByte(TEMPLATE_PARTICLE);
+            output.writeBoolean(particleTemplate.hasSpeedBasedFrequency());
+
+            output.writeInt(particleTemplate.getParticles().size());
+            for (ParticleDefinition particle : particleTemplate.getParticles()) {
+                output.writeUTF(particle.getType().name());
+                output.writeInt(particle.getAmount());
+                Vector spread = particle.getSpread();
+                output.writeDouble(spread.getX());
+                output.writeDouble(spread.getY());
+                output.writeDouble(spread.getZ());
+                output.writeFloat(particle.getParameter());
+            }
+        } else if (template instanceof FireworkObject) {
+            FireworkObject fireworkTemplate = (FireworkObject) template;
+            output.writeByte(TEMPLATE_FIREWORK);
+            output.writeBoolean(fireworkTemplate.hasSpeedBasedFrequency());
+            output.writeInt(fireworkTemplate.getPower());
+
+            output.writeInt(fireworkTemplate.getEffects().size());
+            for (FireworkEffectDefinition effect : fireworkTemplate.getEffects()) {
+                output.writeUTF(effect.getType().name());
+                output.writeBoolean(effect.hasFlicker());
+                output.writeBoolean(effect.hasTrail());
+                writeColors(output, effect.getColors());
+                writeColors(output, effect.getFadeColors());
+            }
+        } else {
+            throw new IllegalStateException("Cannot persist baked animation template of type " + template.getClass().getName());
+        }
+    }
+
+    private void writeColors(DataOutputStream output, Collection<Color> colors) throws IOException {
+
+        output.writeInt(colors.size());
+        for (Color color : colors) {
+            output.writeInt(color.asRGB());
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("frames", getFrames()).append("records", getRecords()).append("templates", templates.length).toString();
+    }
+
+    private static class CacheEntry extends WeakReference<ObjectSystemDefinition> {
+
+        private final int            definitionHash;
+        private final int            definitionVersion;
+        private final BakedAnimation animation;
+
+        private CacheEntry(ObjectSystemDefinition definition, int definitionHash, int definitionVersion, BakedAnimation animation) {
+
+            super(definition, CACHE_QUEUE);
+
+            this.definitionHash = definitionHash;
+            this.definitionVersion = definitionVersion;
+            this.animation = animation;
+        }
+
+        private int getDefinitionHash() {
+
+            return definitionHash;
+        }
+
+        private int getDefinitionVersion() {
+
+            return definitionVersion;
+        }
+
+        private BakedAnimation getAnimation() {
+
+            return animation;
+        }
+
+    }
+
+    private static class Recorder implements Renderer<StandalonePhysicsObject> {
+
+        private final List<StandalonePhysicsObject> templates       = new ArrayList<StandalonePhysicsObject>();
+        private final Map<TemplateKey, Integer>     templateIndices = new HashMap<TemplateKey, Integer>();
+
+        private int[]                               frameOffsets    = new int[16];
+        private int                                 frames;
+
+        private int[]                               recordTemplates = new int[256];
+        private float[]                             recordStates    = new float[256 * 6];
+        private int[]                               recordLifetimes = new int[256];
+        private int                                 records;
+
+        private void startFrame() {
+
+            if (frames + 1 >= frameOffsets.length) {
+                frameOffsets = Arrays.copyOf(frameOffsets, frameOffsets.length * 2);
+            }
+
+            frameOffsets[frames++] = records;
+        }
+
+        @Override
+        public Class<StandalonePhysicsObject> getObjectType() {
+
+            return StandalonePhysicsObject.class;
+        }
+
+        @Override
+        public RenderingResult render(Plugin plugin, ActiveObjectSystem objectSystem, StandalonePhysicsObject object) {
+
+            if (records == recordTemplates.length) {
+                recordTemplates = Arrays.copyOf(recordTemplates, records * 2);
+                recordStates = Arrays.copyOf(recordStates, records * 2 * 6);
+                recordLifetimes = Arrays.copyOf(recordLifetimes, records * 2);
+            }
+
+            recordTemplates[records] = getTemplateIndex(object);
+            int offset = records * 6;
+            recordStates[offset] = (float) object.getX();
+            recordStates[offset + 1] = (float) object.getY();
+            recordStates[offset + 2] = (float) object.getZ();
+            recordStates[offset + 3] = (float) object.getVelocityX();
+            recordStates[offset + 4] = (float) object.getVelocityY();
+            recordStates[offset + 5] = (float) object.getVelocityZ();
+            recordLifetimes[records] = object.getLifetime();
+            records++;
+
+            return RenderingResult.NOTHING;
+        }
+
+        private int getTemplateIndex(StandalonePhysicsObject object) {
+
+            // Objects which only differ in their physics state share one template, so the key only contains the recorded non-physics fields
+            TemplateKey key = new TemplateKey(object);
+            Integer templateIndex = templateIndices.get(key);
+            if (templateIndex == null) {
+                StandalonePhysicsObject template = object.clone();
+                template.setPosition(0, 0, 0);
+                template.setVelocity(0, 0, 0);
+                template.setLifetime(0);
+                template.setExpirationTime(-1);
+
+                templateIndex = templates.size();
+                templates.add(template);
+                templateIndices.put(key, templateIndex);
+            }
+            return templateIndex;
+        }
+
+        private BakedAnimation build() {
+
+            int[] finalFrameOffsets = Arrays.copyOf(frameOffsets, frames + 1);
+            finalFrameOffsets[frames] = records;
+
+            StandalonePhysicsObject[] finalTemplates = templates.toArray(new StandalonePhysicsObject[templates.size()]);
+            return new BakedAnimation(finalTemplates, finalFrameOffsets, Arrays.copyOf(recordTemplates, records), Arrays.copyOf(recordStates, records * 6), Arrays.copyOf(recordLifetimes, records));
+        }
+
+    }
+
+    /*
+     * The key of a template contains the fields which are persisted by write().
+     * Particle and firework effect definitions are compared by identity since objects usually share the definitions of their prototype.
+     * Objects of other types can't be persisted and therefore use their own identity, so each of them gets its own template.
+     */
+    private static class TemplateKey {
+
+        private final Class<?> type;
+        private final boolean  speedBasedFrequency;
+        private final int      power;
+        private final Object[] definitions;
+        private final int      hashCode;
+
+        private TemplateKey(StandalonePhysicsObject object) {
+
+            type = object.getClass();
+
+            if (object instanceof ParticleObject) {
+                ParticleObject particleObject = (ParticleObject) object;
+                speedBasedFrequency = particleObject.hasSpeedBasedFrequency();
+                power = 0;
+                definitions = particleObject.getParticles().toArray();
+            } else if (object instanceof FireworkObject) {
+                FireworkObject fireworkObject = (FireworkObject) object;
+                speedBasedFrequency = fireworkObject.hasSpeedBasedFrequency();
+                power = fireworkObject.getPower();
+                definitions = fireworkObject.getEffects().toArray();
+            } else {
+                speedBasedFrequency = false;
+                power = 0;
+                definitions = new BaseObject[] { object };
+            }
+
+            int hash = type.hashCode();
+            hash = 31 * hash + (speedBasedFrequency ? 1 : 0);
+            hash = 31 * hash + power;
+            for (Object definition : definitions) {
+                hash = 31 * hash + System.identityHashCode(definition);
+            }
+            hashCode = hash;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (! (obj instanceof TemplateKey)) {
+                return false;
+            }
+
+            TemplateKey other = (TemplateKey) obj;
+            if (type != other.type || speedBasedFrequency != other.speedBasedFrequency || power != other.power || definitions.length != other.definitions.length) {
+                return false;
+            }
+            for (int index = 0; index < definitions.length; index++) {
+                if (definitions[index] != other.definitions[index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
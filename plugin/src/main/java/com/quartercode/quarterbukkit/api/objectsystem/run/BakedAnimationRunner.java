@@ -0,0 +1,203 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A baked animation runner replays a {@link BakedAnimation} at the origin of an {@link ActiveObjectSystem}.
+ * In contrast to a normal {@link ObjectSystemRunner}, it doesn't run any sources, modification rules or physics.
+ * Instead, it only passes the recorded objects of the current frame to its {@link Renderer}s, which should only display the objects
+ * (e.g. a {@link ParticleRenderer}).<br>
+ * <br>
+ * Since the runner doesn't simulate anything, the sleep, time budget and asynchronous simulation settings of the object system runner have no effect.
+ * Note that the active object system only provides the origin for the renderers; objects which are added to it are ignored.
+ *
+ * @see BakedAnimation
+ */
+public class BakedAnimationRunner extends ObjectSystemRunner {
+
+    /**
+     * The default {@link Renderer}s that are used by baked animation runners if no other renderers are specified.
+     * They only display the recorded {@link StandalonePhysicsObject}s.
+     */
+    public static final List<Renderer<?>> DEFAULT_RENDERERS;
+
+    static {
+
+        List<Renderer<?>> defaultRenderers = new ArrayList<Renderer<?>>();
+        defaultRenderers.add(new ParticleRenderer());
+        defaultRenderers.add(new FireworkRenderer());
+        DEFAULT_RENDERERS = Collections.unmodifiableList(defaultRenderers);
+
+    }
+
+    private final Plugin                  plugin;
+    private final List<Renderer<?>>       renderers;
+    private final ActiveObjectSystem      objectSystem;
+    private final BakedAnimation          animation;
+    private final boolean                 loop;
+
+    private transient Renderer<?>[][]     templateRenderers;
+    private transient int                 frame;
+
+    /**
+     * Creates a new baked animation runner that replays the given {@link BakedAnimation} at the given origin and uses the given {@link Plugin} as host.
+     *
+     * @param plugin The plugin that is used to call some required bukkit methods.
+     *        It hosts the new runner.
+     * @param animation The baked animation that should be replayed.
+     * @param origin The location the recorded positions are relative to.
+     * @param loop Whether the animation should be restarted after its last frame.
+     *        If this is false, the runner stops after the last frame.
+     */
+    public BakedAnimationRunner(Plugin plugin, BakedAnimation animation, Location origin, boolean loop) {
+
+        this(plugin, DEFAULT_RENDERERS, animation, origin, loop);
+    }
+
+    /**
+     * Creates a new baked animation runner that replays the given {@link BakedAnimation} at the given origin using the given {@link Renderer}s
+     * and uses the given {@link Plugin} as host.
+     *
+     * @param plugin The plugin that is used to call some required bukkit methods.
+     *        It hosts the new runner.
+     * @param renderers The renderers that display the recorded objects.
+     * @param animation The baked animation that should be replayed.
+     * @param origin The location the recorded positions are relative to.
+     * @param loop Whether the animation should be restarted after its last frame.
+     *        If this is false, the runner stops after the last frame.
+     */
+    public BakedAnimationRunner(Plugin plugin, List<Renderer<?>> renderers, BakedAnimation animation, Location origin, boolean loop) {
+
+        this(plugin, renderers, animation, new ActiveObjectSystem(new ObjectSystemDefinition(), origin), loop);
+    }
+
+    private BakedAnimationRunner(Plugin plugin, List<Renderer<?>> renderers, BakedAnimation animation, ActiveObjectSystem objectSystem, boolean loop) {
+
+        super(plugin, renderers, objectSystem);
+
+        Validate.notNull(animation, "Cannot replay null baked animation");
+
+        this.plugin = plugin;
+        this.renderers = new ArrayList<Renderer<?>>(renderers);
+        this.objectSystem = objectSystem;
+        this.animation = animation;
+        this.loop = loop;
+    }
+
+    /**
+     * Returns the {@link BakedAnimation} that is replayed by the runner.
+     *
+     * @return The replayed animation.
+     */
+    public BakedAnimation getAnimation() {
+
+        return animation;
+    }
+
+    /**
+     * Returns whether the {@link BakedAnimation} is restarted after its last frame.
+     * If this is false, the runner stops after the last frame.
+     *
+     * @return Whether the animation loops.
+     */
+    public boolean isLoop() {
+
+        return loop;
+    }
+
+    /**
+     * Returns the index of the frame of the {@link BakedAnimation} that is replayed on the next update.
+     *
+     * @return The index of the next frame.
+     */
+    public int getFrame() {
+
+        return frame;
+    }
+
+    /**
+     * Displays the next frame of the {@link BakedAnimation}.
+     */
+    @Override
+    void update() {
+
+        if (frame >= animation.getFrames()) {
+            if (!loop) {
+                setRunning(false);
+                return;
+            }
+
+            frame = 0;
+        }
+
+        if (templateRenderers == null) {
+            templateRenderers = getTemplateRenderers();
+        }
+
+        resetReceivers();
+
+        for (int record = animation.getFrameStart(frame); record < animation.getFrameEnd(frame); record++) {
+            Renderer<?>[] recordRenderers = templateRenderers[animation.getTemplateIndex(record)];
+            if (recordRenderers.length != 0) {
+                StandalonePhysicsObject object = animation.load(record);
+                for (Renderer<?> renderer : recordRenderers) {
+                    applyRenderer(renderer, object);
+                }
+            }
+        }
+
+        frame++;
+    }
+
+    private Renderer<?>[][] getTemplateRenderers() {
+
+        // The renderers of each template are only resolved once since all records of a template have the same type
+        List<StandalonePhysicsObject> templates = animation.getTemplates();
+        Renderer<?>[][] result = new Renderer<?>[templates.size()][];
+        for (int index = 0; index < result.length; index++) {
+            List<Renderer<?>> matchingRenderers = new ArrayList<Renderer<?>>();
+            for (Renderer<?> renderer : renderers) {
+                if (renderer.getObjectType().isInstance(templates.get(index))) {
+                    matchingRenderers.add(renderer);
+                }
+            }
+            result[index] = matchingRenderers.toArray(new Renderer<?>[matchingRenderers.size()]);
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings ("unchecked")
+    private <O extends BaseObject> void applyRenderer(Renderer<O> renderer, BaseObject object) {
+
+        renderer.render(plugin, objectSystem, (O) object);
+    }
+
+}
@@ -21,9 +21,12 @@ package com.quartercode.quarterbukkit.api.objectsystem.run;
 import org.bukkit.plugin.Plugin;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
 import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.DefaultBaseObject;
 
 /**
  * A {@link Renderer} that updates the lifetime of all {@link BaseObject}s and removes them if they expired.
+ * {@link DefaultBaseObject}s which are attached to an active system derive their lifetimes from the lifetime of that system.
+ * Their expiration is tracked by the expiration wheel of the system, so this renderer only needs to check a flag for them.
  *
  * @see BaseObject
  * @see Renderer
@@ -39,6 +42,10 @@ public class BaseObjectRenderer extends StatelessRenderer<BaseObject> {
     @Override
     public RenderingResult render(Plugin plugin, ActiveObjectSystem objectSystem, BaseObject object) {
 
+        if (object instanceof DefaultBaseObject && ((DefaultBaseObject) object).getSystem() != null) {
+            return ((DefaultBaseObject) object).isExpired() ? RenderingResult.REMOVE : RenderingResult.NOTHING;
+        }
+
         RenderingResult result;
         if (object.getExpirationTime() != -1 && object.getLifetime() >= object.getExpirationTime()) {
             result = RenderingResult.REMOVE;
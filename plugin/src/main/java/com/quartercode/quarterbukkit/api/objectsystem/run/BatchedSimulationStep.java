@@ -0,0 +1,163 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationApplier;
+import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.Modifier;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ColumnVelocityKernel;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A {@link SimulationStep} that applies each modification rule to all rows of the {@link PhysicsColumns} before the next rule is applied.
+ * Rules which can be compiled into {@link ColumnVelocityKernel}s then process the columns directly without loading the single rows.
+ * The objects are still processed one by one.
+ */
+class BatchedSimulationStep extends SimulationStep {
+
+    private final Map<ModificationRule<?, ?>, CompiledRule> compiledRules = new IdentityHashMap<ModificationRule<?, ?>, CompiledRule>();
+
+    BatchedSimulationStep(ObjectSystemRunner runner) {
+
+        super(runner);
+    }
+
+    /**
+     * Removes all cached {@link ColumnVelocityKernel}s, so they are compiled again for the current modification rules.
+     */
+    void invalidate() {
+
+        compiledRules.clear();
+    }
+
+    /**
+     * Returns whether at least one of the current modification rules can be compiled into a {@link ColumnVelocityKernel}.
+     * If not, the step is no faster than applying the rules row by row.
+     *
+     * @return Whether there is a column kernel.
+     */
+    boolean hasColumnKernels() {
+
+        List<ModificationRule<?, ?>> modificationRules = runner.getDefinition().getModificationRules();
+        for (int index = 0; index < modificationRules.size(); index++) {
+            if (getColumnKernel(modificationRules.get(index)) != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private ColumnVelocityKernel getColumnKernel(ModificationRule<?, ?> modificationRule) {
+
+        // Rules which can't be compiled are cached as well; they are only compiled again once their modifier or applier is replaced
+        CompiledRule compiledRule = compiledRules.get(modificationRule);
+        if (compiledRule == null || !compiledRule.isValid(modificationRule)) {
+            compiledRule = new CompiledRule(modificationRule, ColumnVelocityKernel.compile(modificationRule));
+            compiledRules.put(modificationRule, compiledRule);
+        }
+
+        return compiledRule.getKernel();
+    }
+
+    private boolean isApplicable(ModificationRule<?, ?> modificationRule, Class<?> objectClass) {
+
+        // The rules are only selected once per object class by the definition snapshot
+        List<ModificationRule<?, ?>> classRules = runner.getDefinition().getModificationRules(objectClass);
+        for (int index = 0; index < classRules.size(); index++) {
+            if (classRules.get(index) == modificationRule) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    void applyModificationRules() {
+
+        applyModificationRulesToObjects(false);
+
+        // Each rule is applied to all rows before the next one is applied, so the order of the rules is kept for each single row
+        PhysicsColumns physicsColumns = runner.getObjectSystem().getPhysicsColumns();
+        List<ModificationRule<?, ?>> modificationRules = runner.getDefinition().getModificationRules();
+        for (int index = 0; index < modificationRules.size(); index++) {
+            ModificationRule<?, ?> modificationRule = modificationRules.get(index);
+            ColumnVelocityKernel kernel = getColumnKernel(modificationRule);
+
+            if (kernel != null) {
+                kernel.apply(physicsColumns);
+            } else {
+                // Consecutive rows usually share the same prototype, so the applicability is only looked up again when the flyweight class changes
+                Class<?> lastClass = null;
+                boolean applicable = false;
+                for (int row = 0; row < physicsColumns.size(); row++) {
+                    StandalonePhysicsObject flyweight = physicsColumns.getFlyweight(row);
+                    if (physicsColumns.isRemoved(row) || flyweight == null) {
+                        continue;
+                    }
+
+                    if (flyweight.getClass() != lastClass) {
+                        lastClass = flyweight.getClass();
+                        applicable = isApplicable(modificationRule, lastClass);
+                    }
+                    if (applicable) {
+                        StandalonePhysicsObject object = physicsColumns.load(row);
+                        runner.applyModificationRule(modificationRule, object);
+                        physicsColumns.store(row, object);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class CompiledRule {
+
+        private final ColumnVelocityKernel      kernel;
+        private final Modifier<?, ?>            modifier;
+        private final ModificationApplier<?, ?> applier;
+
+        private CompiledRule(ModificationRule<?, ?> modificationRule, ColumnVelocityKernel kernel) {
+
+            this.kernel = kernel;
+            modifier = modificationRule.getModifier();
+            applier = modificationRule.getApplier();
+        }
+
+        private ColumnVelocityKernel getKernel() {
+
+            return kernel;
+        }
+
+        private boolean isValid(ModificationRule<?, ?> modificationRule) {
+
+            if (kernel != null) {
+                return kernel.isValid();
+            } else {
+                return modificationRule.getModifier() == modifier && modificationRule.getApplier() == applier;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.plugin.Plugin;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ChunkSnapshotCache;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A {@link Renderer} that lets {@link StandalonePhysicsObject}s collide with the solid blocks of the world.
+ * It must be applied before the {@link StandalonePhysicsObjectRenderer}, which moves the objects.
+ * If the next position of an object is inside a solid block, the renderer resolves the collision using its {@link CollisionResponse}.<br>
+ * <br>
+ * The renderer only does something if the {@link ActiveObjectSystem} has {@link ActiveObjectSystem#enableBlockCollision(double) enabled block collision}.
+ * The blocks are read from the {@link ChunkSnapshotCache} of the active system instead of the world.
+ * That way, the collisions can be resolved by the worker threads of an asynchronous simulation.
+ *
+ * @see ChunkSnapshotCache
+ */
+public class BlockCollisionRenderer implements Renderer<StandalonePhysicsObject> {
+
+    /**
+     * The different ways the {@link BlockCollisionRenderer} can resolve the collision of an object with a solid block.
+     */
+    public static enum CollisionResponse {
+
+        /**
+         * Each velocity component that would move the object into the block is reversed and multiplied with the restitution of the renderer.
+         * A restitution of 0 lets the objects slide along the blocks.
+         */
+        BOUNCE,
+        /**
+         * The velocity of the object is set to zero.
+         */
+        STOP,
+        /**
+         * The object is removed from its {@link ActiveObjectSystem}.
+         */
+        REMOVE;
+
+    }
+
+    private final CollisionResponse response;
+    private final double            restitution;
+
+    /**
+     * Creates a new block collision renderer that lets the objects slide along the blocks they collide with.
+     */
+    public BlockCollisionRenderer() {
+
+        this(CollisionResponse.BOUNCE, 0);
+    }
+
+    /**
+     * Creates a new block collision renderer that resolves collisions using the given {@link CollisionResponse}.
+     *
+     * @param response The collision response which defines what happens to objects that collide with a solid block.
+     * @param restitution The factor the reversed velocity components are multiplied with if the {@link CollisionResponse#BOUNCE bounce} response is used.
+     *        It must be between 0 and 1.
+     */
+    public BlockCollisionRenderer(CollisionResponse response, double restitution) {
+
+        Validate.notNull(response, "Block collision response cannot be null");
+        Validate.isTrue(restitution >= 0 && restitution <= 1, "Block collision restitution must be between 0 and 1: ", restitution);
+
+        this.response = response;
+        this.restitution = restitution;
+    }
+
+    /**
+     * Returns the {@link CollisionResponse} which defines what happens to objects that collide with a solid block.
+     *
+     * @return The collision response.
+     */
+    public CollisionResponse getResponse() {
+
+        return response;
+    }
+
+    /**
+     * Returns the factor the reversed velocity components are multiplied with if the {@link CollisionResponse#BOUNCE bounce} response is used.
+     *
+     * @return The restitution.
+     */
+    public double getRestitution() {
+
+        return restitution;
+    }
+
+    @Override
+    public Class<StandalonePhysicsObject> getObjectType() {
+
+        return StandalonePhysicsObject.class;
+    }
+
+    @Override
+    public RenderingResult render(Plugin plugin, ActiveObjectSystem objectSystem, StandalonePhysicsObject object) {
+
+        ChunkSnapshotCache chunkSnapshotCache = objectSystem.getChunkSnapshotCache();
+        if (chunkSnapshotCache == null) {
+            return RenderingResult.NOTHING;
+        }
+
+        double x = object.getX();
+        double y = object.getY();
+        double z = object.getZ();
+        double vx = object.getVelocityX();
+        double vy = object.getVelocityY();
+        double vz = object.getVelocityZ();
+
+        if (!chunkSnapshotCache.isSolid(x + vx, y + vy, z + vz)) {
+            return RenderingResult.NOTHING;
+        }
+
+        if (response == CollisionResponse.REMOVE) {
+            return RenderingResult.REMOVE;
+        } else if (response == CollisionResponse.STOP) {
+            object.setVelocity(0, 0, 0);
+            return RenderingResult.NOTHING;
+        }
+
+        // Only reverse the components which move the object into a block on their own; if none does, the object hits an edge or a corner
+        boolean collisionX = chunkSnapshotCache.isSolid(x + vx, y, z);
+        boolean collisionY = chunkSnapshotCache.isSolid(x, y + vy, z);
+        boolean collisionZ = chunkSnapshotCache.isSolid(x, y, z + vz);
+        if (!collisionX && !collisionY && !collisionZ) {
+            collisionX = collisionY = collisionZ = true;
+        }
+
+        object.setVelocity(collisionX ? -vx * restitution : vx, collisionY ? -vy * restitution : vy, collisionZ ? -vz * restitution : vz);
+        return RenderingResult.NOTHING;
+    }
+
+    @Override
+    public int hashCode() {
+
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    @Override
+    public String toString() {
+
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+}
@@ -39,27 +39,7 @@ import com.quartercode.quarterbukkit.api.objectsystem.object.FireworkObject;
  * @see FireworkObject
  * @see Renderer
  */
-public class FireworkRenderer extends StatelessRenderer<FireworkObject> {
-
-    private static final Method CRAFT_WORLD__GET_HANDLE;
-    private static final Method CRAFT_FIREWORK__GET_HANDLE;
-    private static final Method NMS_ENTITY__SET_INVISIVBLE;
-    private static final Method NMS_WORLD__BROADCAST_ENTITY_EFFECT;
-
-    static {
-
-        try {
-            CRAFT_WORLD__GET_HANDLE = Class.forName(ReflectionConstants.CB_PACKAGE + ".CraftWorld").getMethod("getHandle");
-            CRAFT_FIREWORK__GET_HANDLE = Class.forName(ReflectionConstants.CB_ENTITY_PACKAGE + ".CraftFirework").getMethod("getHandle");
-
-            Class<?> nmsEntityClass = Class.forName(ReflectionConstants.NMS_PACKAGE + ".Entity");
-            NMS_ENTITY__SET_INVISIVBLE = nmsEntityClass.getMethod("setInvisible", boolean.class);
-            NMS_WORLD__BROADCAST_ENTITY_EFFECT = Class.forName(ReflectionConstants.NMS_PACKAGE + ".World").getMethod("broadcastEntityEffect", nmsEntityClass, byte.class);
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot initialize firework renderer reflection handles", e);
-        }
-
-    }
+public class FireworkRenderer extends StatelessRenderer<FireworkObject> implements OptionalRenderer<FireworkObject> {
 
     @Override
     public Class<FireworkObject> getObjectType() {
@@ -71,7 +51,7 @@ public class FireworkRenderer extends StatelessRenderer<FireworkObject> {
     public RenderingResult render(Plugin plugin, ActiveObjectSystem objectSystem, FireworkObject object) {
 
         // Determine whether the different effects should be spawned
-        double objectVelocity = object.getVelocity().length();
+        double objectVelocity = RenderingUtils.getVelocityLength(object);
         boolean spawnNoTrailObjects = !object.hasSpeedBasedFrequency() || RenderingUtils.checkSpeedBasedFrequency(object.getLifetime(), objectVelocity, 0.5F);
         boolean spawnTrailObjects = !object.hasSpeedBasedFrequency() || RenderingUtils.checkSpeedBasedFrequency(object.getLifetime(), objectVelocity, 0.75F);
 
@@ -96,25 +76,26 @@ public class FireworkRenderer extends StatelessRenderer<FireworkObject> {
 
     private void spawn(Plugin plugin, ActiveObjectSystem objectSystem, FireworkObject object, Collection<FireworkEffectDefinition> spawnEffects) {
 
-        Location location = objectSystem.getOrigin().add(object.getPosition());
+        Location location = objectSystem.getOrigin().add(object.getX(), object.getY(), object.getZ());
         Firework firework = (Firework) location.getWorld().spawnEntity(location, EntityType.FIREWORK);
 
         try {
-            Object nmsWorld = CRAFT_WORLD__GET_HANDLE.invoke(firework.getWorld());
-            Object nmsFirework = CRAFT_FIREWORK__GET_HANDLE.invoke(firework);
-            NMS_ENTITY__SET_INVISIVBLE.invoke(nmsFirework, true);
+            Object nmsWorld = ReflectionHandles.CRAFT_WORLD__GET_HANDLE.invoke(firework.getWorld());
+            Object nmsFirework = ReflectionHandles.CRAFT_FIREWORK__GET_HANDLE.invoke(firework);
+            ReflectionHandles.NMS_ENTITY__SET_INVISIVBLE.invoke(nmsFirework, true);
 
             FireworkMeta meta = firework.getFireworkMeta();
             applyEffects(meta, spawnEffects);
             meta.setPower(object.getPower());
             firework.setFireworkMeta(meta);
 
-            NMS_WORLD__BROADCAST_ENTITY_EFFECT.invoke(nmsWorld, nmsFirework, (byte) 17);
+            ReflectionHandles.NMS_WORLD__BROADCAST_ENTITY_EFFECT.invoke(nmsWorld, nmsFirework, (byte) 17);
         } catch (Exception e) {
             ExceptionHandler.exception(new InternalException(plugin, e, "Firework renderer reflection error"));
         }
 
         firework.remove();
+        objectSystem.getMetrics().recordFirework();
     }
 
     private void applyEffects(FireworkMeta meta, Collection<FireworkEffectDefinition> effects) {
@@ -131,4 +112,33 @@ public class FireworkRenderer extends StatelessRenderer<FireworkObject> {
         }
     }
 
+    // Resolved on first use, so the renderer can be created without a craftbukkit server
+    private static class ReflectionHandles {
+
+        private static final Method CRAFT_WORLD__GET_HANDLE;
+        private static final Method CRAFT_FIREWORK__GET_HANDLE;
+        private static final Method NMS_ENTITY__SET_INVISIVBLE;
+        private static final Method NMS_WORLD__BROADCAST_ENTITY_EFFECT;
+
+        static {
+
+            try {
+                CRAFT_WORLD__GET_HANDLE = Class.forName(ReflectionConstants.CB_PACKAGE + ".CraftWorld").getMethod("getHandle");
+                CRAFT_FIREWORK__GET_HANDLE = Class.forName(ReflectionConstants.CB_ENTITY_PACKAGE + ".CraftFirework").getMethod("getHandle");
+
+                Class<?> nmsEntityClass = Class.forName(ReflectionConstants.NMS_PACKAGE + ".Entity");
+                NMS_ENTITY__SET_INVISIVBLE = nmsEntityClass.getMethod("setInvisible", boolean.class);
+                NMS_WORLD__BROADCAST_ENTITY_EFFECT = Class.forName(ReflectionConstants.NMS_PACKAGE + ".World").getMethod("broadcastEntityEffect", nmsEntityClass, byte.class);
+            } catch (Exception e) {
+                throw new RuntimeException("Cannot initialize firework renderer reflection handles", e);
+            }
+
+        }
+
+        private ReflectionHandles() {
+
+        }
+
+    }
+
 }
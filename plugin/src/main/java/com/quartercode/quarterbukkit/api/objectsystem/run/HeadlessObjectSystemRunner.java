@@ -0,0 +1,207 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.commons.lang.Validate;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.Source;
+
+/**
+ * A headless object system runner simulates an {@link ActiveObjectSystem} without an {@link ObjectSystemScheduler}, a {@link Plugin} or online {@link Player}s.
+ * Instead of being scheduled, it is stepped manually for a given amount of ticks, either synchronously or on a worker thread.
+ * That way, object systems can be pre-warmed before a normal {@link ObjectSystemRunner} displays them, or simulated in bulk off the server tick.<br>
+ * <br>
+ * By default, the runner only uses the {@link Renderer}s which simulate the objects and doesn't display anything.
+ * Custom renderers (e.g. a {@link RecordingRenderer}) may be added, as long as they don't need a plugin or online players.
+ * Note that the {@link Source}s and renderers receive {@code null} as their plugin.
+ * Moreover, the runner has no time budget and doesn't support sleeping, asynchronous simulation and parallel rules since those features require a scheduler.
+ */
+public class HeadlessObjectSystemRunner extends ObjectSystemRunner {
+
+    /**
+     * The default {@link Renderer}s that are used by headless runners if no other renderers are specified.
+     * They only simulate the objects (expiration, block collision and movement) and don't display them.
+     */
+    public static final List<Renderer<?>> DEFAULT_RENDERERS;
+
+    static {
+
+        List<Renderer<?>> defaultRenderers = new ArrayList<Renderer<?>>();
+        defaultRenderers.add(new BaseObjectRenderer());
+        defaultRenderers.add(new BlockCollisionRenderer());
+        defaultRenderers.add(new StandalonePhysicsObjectRenderer());
+        DEFAULT_RENDERERS = Collections.unmodifiableList(defaultRenderers);
+
+    }
+
+    private transient long steppedTicks;
+
+    /**
+     * Creates a new headless runner for the given {@link ActiveObjectSystem} which uses the {@link #DEFAULT_RENDERERS}.
+     *
+     * @param objectSystem The active system that should be simulated.
+     */
+    public HeadlessObjectSystemRunner(ActiveObjectSystem objectSystem) {
+
+        this(DEFAULT_RENDERERS, objectSystem);
+    }
+
+    /**
+     * Creates a new headless runner for the given {@link ActiveObjectSystem} which uses the given {@link Renderer}s.
+     * Note that the renderers receive {@code null} as their plugin, so they must not use it.
+     *
+     * @param renderers The renderers that simulate and possibly record the objects.
+     * @param objectSystem The active system that should be simulated.
+     */
+    public HeadlessObjectSystemRunner(List<Renderer<?>> renderers, ActiveObjectSystem objectSystem) {
+
+        super(null, renderers, objectSystem);
+
+        setTimeBudget(0);
+    }
+
+    /**
+     * Returns the total amount of ticks the runner has simulated using {@link #step(int)} so far.
+     *
+     * @return The amount of stepped ticks.
+     */
+    public long getSteppedTicks() {
+
+        return steppedTicks;
+    }
+
+    /**
+     * Synchronously simulates the {@link ActiveObjectSystem} for the given amount of ticks.
+     * If the active system uses block collision, this method must be called on the main server thread since it reads chunks.
+     * Concurrent calls are executed one after the other.
+     *
+     * @param ticks The amount of ticks that should be simulated.
+     */
+    public synchronized void step(int ticks) {
+
+        Validate.isTrue(ticks >= 0, "Amount of stepped ticks must be >= 0: ", ticks);
+
+        for (int tick = 0; tick < ticks; tick++) {
+            update();
+            steppedTicks++;
+        }
+    }
+
+    /**
+     * Simulates the {@link ActiveObjectSystem} for the given amount of ticks on a thread of the given {@link ExecutorService}.
+     * The active system must not be used by any other thread until the returned {@link Future} is done.
+     * Since bukkit chunks can't be read off the main thread, the active system must not use block collision.
+     *
+     * @param executor The executor service which provides the worker thread.
+     * @param ticks The amount of ticks that should be simulated.
+     * @return A future which is done once all ticks were simulated.
+     */
+    public Future<?> stepAsync(ExecutorService executor, final int ticks) {
+
+        Validate.notNull(executor, "Cannot step headless object system runner on null executor");
+        Validate.isTrue(ticks >= 0, "Amount of stepped ticks must be >= 0: ", ticks);
+        Validate.isTrue(getObjectSystem().getChunkSnapshotCache() == null, "Cannot step headless object system runner with block collision asynchronously");
+
+        return executor.submit(new Runnable() {
+
+            @Override
+            public void run() {
+
+                step(ticks);
+            }
+
+        });
+    }
+
+    /**
+     * Headless runners can't be scheduled; use {@link #step(int)} instead.
+     *
+     * @param running Must be false.
+     */
+    @Override
+    public void setRunning(boolean running) {
+
+        Validate.isTrue(!running, "Headless object system runners can't be scheduled, they must be stepped manually");
+    }
+
+    /**
+     * Headless runners don't support asynchronous simulation since they don't have an {@link ObjectSystemScheduler}.
+     * Use {@link #stepAsync(ExecutorService, int)} instead.
+     *
+     * @param asyncSimulation Must be false.
+     */
+    @Override
+    public void setAsyncSimulation(boolean asyncSimulation) {
+
+        Validate.isTrue(!asyncSimulation, "Headless object system runners don't support asynchronous simulation");
+    }
+
+    /**
+     * Headless runners don't support parallel rules since they don't have an {@link ObjectSystemScheduler}.
+     *
+     * @param parallelRules Must be false.
+     */
+    @Override
+    public void setParallelRules(boolean parallelRules) {
+
+        Validate.isTrue(!parallelRules, "Headless object system runners don't support parallel rules");
+    }
+
+    /**
+     * Headless runners never sleep since they don't know any online {@link Player}s.
+     *
+     * @param sleepRadius Must be 0.
+     */
+    @Override
+    public void setSleepRadius(double sleepRadius) {
+
+        Validate.isTrue(sleepRadius == 0, "Headless object system runners don't support sleeping: ", sleepRadius);
+    }
+
+    /**
+     * Headless runners never sleep since they are stepped manually.
+     *
+     * @param sleepWhenChunkUnloaded Must be false.
+     */
+    @Override
+    public void setSleepWhenChunkUnloaded(boolean sleepWhenChunkUnloaded) {
+
+        Validate.isTrue(!sleepWhenChunkUnloaded, "Headless object system runners don't support sleeping");
+    }
+
+    /**
+     * Headless runners can't use the default time budget of an {@link ObjectSystemScheduler}.
+     *
+     * @param timeBudget The new time budget of the runner in milliseconds. Must be >= 0.
+     */
+    @Override
+    public void setTimeBudget(long timeBudget) {
+
+        Validate.isTrue(timeBudget >= 0, "Headless object system runner time budget must be >= 0: ", timeBudget);
+        super.setTimeBudget(timeBudget);
+    }
+
+}
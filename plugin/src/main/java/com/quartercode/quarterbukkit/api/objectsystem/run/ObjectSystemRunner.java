@@ -19,22 +19,37 @@
 package com.quartercode.quarterbukkit.api.objectsystem.run;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
-import com.quartercode.quarterbukkit.api.MathUtil;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
 import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.CompiledObjectSystemDefinition;
+import com.quartercode.quarterbukkit.api.objectsystem.DefaultBaseObject;
 import com.quartercode.quarterbukkit.api.objectsystem.ModificationRule;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemMetrics;
+import com.quartercode.quarterbukkit.api.objectsystem.PoolableObject;
 import com.quartercode.quarterbukkit.api.objectsystem.Source;
+import com.quartercode.quarterbukkit.api.objectsystem.object.RealEntityObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ChunkSnapshotCache;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ColumnVelocityKernel;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.SpatialHash;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
 import com.quartercode.quarterbukkit.api.objectsystem.run.Renderer.RenderingResult;
-import com.quartercode.quarterbukkit.api.scheduler.ScheduleTask;
 
 /**
  * An object system runner takes an {@link ActiveObjectSystem} and a bunch of {@link Renderer}s and then simulates and displays the system using those renderers.
@@ -50,6 +65,7 @@ public class ObjectSystemRunner {
 
         List<Renderer<?>> defaultRenderers = new ArrayList<Renderer<?>>();
         defaultRenderers.add(new BaseObjectRenderer());
+        defaultRenderers.add(new BlockCollisionRenderer());
         defaultRenderers.add(new StandalonePhysicsObjectRenderer());
         defaultRenderers.add(new ParticleRenderer());
         defaultRenderers.add(new FireworkRenderer());
@@ -58,13 +74,52 @@ public class ObjectSystemRunner {
 
     }
 
+    private static final int              MAX_DEGRADATION         = 15;
+    private static final int              SLEEP_CHECK_INTERVAL    = 10;
+
     private final Plugin                  plugin;
     private final List<Renderer<?>>       renderers;
     private final ActiveObjectSystem      objectSystem;
     private final boolean                 stopWhenNoObjects;
 
-    private ScheduleTask                  updateTask;
-    private final Random                  random = new Random();
+    private boolean                       running;
+    private final Random                  random                 = new Random();
+    private long                          timeBudget             = -1;
+    private boolean                       asyncSimulation;
+    private boolean                       parallelRules;
+    private int                           parallelRulesThreshold = 8192;
+    private boolean                       batchRules             = true;
+    private double                        sleepRadius;
+    private boolean                       sleepWhenChunkUnloaded;
+    private boolean                       fastForwardOnWake;
+    private int                           simulationPeriod       = 1;
+    private int                           renderPeriod           = 1;
+    private boolean                       interpolatePositions   = true;
+
+    private final List<ActiveObjectSystem> instances = new ArrayList<ActiveObjectSystem>();
+
+    private transient CompiledObjectSystemDefinition definition;
+
+    private final transient Map<Class<?>, Dispatch> dispatches     = new ConcurrentHashMap<Class<?>, Dispatch>();
+    private final transient SimulationStep          sequentialStep = new SequentialSimulationStep(this);
+    private final transient BatchedSimulationStep   batchedStep    = new BatchedSimulationStep(this);
+    private final transient SimulationStep          parallelStep   = new ParallelSimulationStep(this);
+    private final transient AsyncSimulationStep     asyncStep      = new AsyncSimulationStep(this);
+    private transient long                          ticks;
+    private transient int                           expiredObjects;
+
+    private transient int                           degradation;
+    private transient long                          lastUpdateTime;
+    private transient long                          skippedRenderings;
+    private transient long                          skippedSourceUpdates;
+    private transient long                          lateFrames;
+    private transient PlayerIndex                   playerIndex;
+
+    private transient boolean                       sleeping;
+    private transient int                           sleepCheckCountdown;
+    private transient int                           currentSleepTicks;
+    private transient long                          sleptTicks;
+    private final transient Location                playerLocation = new Location(null, 0, 0, 0);
 
     /**
      * Creates a new object system runner that simulates the given {@link ActiveObjectSystem} and uses the given {@link Plugin} as host.
@@ -126,6 +181,16 @@ public class ObjectSystemRunner {
         this.stopWhenNoObjects = stopWhenNoObjects;
     }
 
+    /**
+     * Returns the {@link ActiveObjectSystem} which is simulated by the runner.
+     *
+     * @return The simulated active system.
+     */
+    public ActiveObjectSystem getObjectSystem() {
+
+        return objectSystem;
+    }
+
     /**
      * Returns whether the object system runner is currently running and simulating its {@link ActiveObjectSystem} using its {@link Renderer}s.
      * This state can be changed with {@link #setRunning(boolean)}.
@@ -134,86 +199,900 @@ public class ObjectSystemRunner {
      */
     public boolean isRunning() {
 
-        return updateTask != null;
+        return running;
     }
 
     /**
      * Starts or stops the object system runner simulating its {@link ActiveObjectSystem} using its {@link Renderer}s.
+     * All running runners of the same {@link Plugin} are updated by one shared {@link ObjectSystemScheduler}.
      *
      * @param running Whether the should be running.
      */
     public void setRunning(boolean running) {
 
         if (running && !isRunning()) {
-            updateTask = new ScheduleTask(plugin) {
+            this.running = true;
+            ObjectSystemScheduler.getScheduler(plugin).schedule(this);
+        } else if (!running && isRunning()) {
+            this.running = false;
+            ObjectSystemScheduler.getScheduler(plugin).unschedule(this);
+            clearReceivers();
+        }
+    }
 
-                @Override
-                public void run() {
+    /**
+     * Returns whether the {@link StandalonePhysicsObject}s of the {@link ActiveObjectSystem} are simulated asynchronously.
+     * See {@link #setAsyncSimulation(boolean)} for more information.
+     *
+     * @return Whether the asynchronous simulation is enabled.
+     */
+    public boolean isAsyncSimulation() {
 
-                    update();
-                }
+        return asyncSimulation;
+    }
 
-            }.run(true, 0, MathUtil.getMillis(1));
-        } else if (!running && isRunning()) {
-            updateTask.cancel();
-            updateTask = null;
+    /**
+     * Sets whether the {@link StandalonePhysicsObject}s of the {@link ActiveObjectSystem} are simulated asynchronously.
+     * If enabled, the modification rules and all renderers which are not {@link OptionalRenderer}s are applied to those objects by a worker thread
+     * of the {@link ObjectSystemScheduler} while the server continues its tick.
+     * The main thread then only displays the last completed frame using the optional renderers (e.g. by sending particle packets).
+     * All other objects (e.g. {@link RealEntityObject}s) are still simulated on the main thread.<br>
+     * <br>
+     * Note that all modification rules and non-optional renderers which handle standalone physics objects must be thread-safe if this is enabled.
+     * Moreover, the {@link ActiveObjectSystem#getPhysicsColumns() physics columns} of the active system must only be modified by the {@link Source}s
+     * of the system while the asynchronous simulation is enabled.
+     * If a frame is not completed by the next tick, the runner skips that tick instead of waiting (see {@link #getLateFrames()}).
+     *
+     * @param asyncSimulation Whether the asynchronous simulation should be enabled.
+     */
+    public void setAsyncSimulation(boolean asyncSimulation) {
+
+        this.asyncSimulation = asyncSimulation;
+    }
+
+    /**
+     * Returns whether the {@link ModificationRule}s are applied to the {@link StandalonePhysicsObject}s of the {@link ActiveObjectSystem} in parallel.
+     * See {@link #setParallelRules(boolean)} for more information.
+     *
+     * @return Whether the parallel rule application is enabled.
+     */
+    public boolean isParallelRules() {
+
+        return parallelRules;
+    }
+
+    /**
+     * Sets whether the {@link ModificationRule}s are applied to the {@link StandalonePhysicsObject}s of the {@link ActiveObjectSystem} in parallel.
+     * If enabled and the active system contains at least {@link #getParallelRulesThreshold()} objects, the standalone physics objects are split
+     * into partitions of a fixed size, which are then processed by the worker threads of the {@link ObjectSystemScheduler}.
+     * Since the partitions only depend on the order of the objects, the results never depend on the thread scheduling.
+     * All other objects (e.g. {@link RealEntityObject}s) are still modified on the main thread.<br>
+     * <br>
+     * Note that all modification rules which handle standalone physics objects must be thread-safe if this is enabled.
+     * If the {@link #setAsyncSimulation(boolean) asynchronous simulation} is enabled as well, it takes precedence and this setting has no effect.
+     *
+     * @param parallelRules Whether the parallel rule application should be enabled.
+     */
+    public void setParallelRules(boolean parallelRules) {
+
+        this.parallelRules = parallelRules;
+    }
+
+    /**
+     * Returns the minimum amount of objects the {@link ActiveObjectSystem} must contain for the {@link #setParallelRules(boolean) parallel rule
+     * application} to be used.
+     * For smaller systems, the overhead of distributing the work is higher than the gain, so the rules are applied sequentially.
+     *
+     * @return The object threshold of the parallel rule application.
+     */
+    public int getParallelRulesThreshold() {
+
+        return parallelRulesThreshold;
+    }
+
+    /**
+     * Sets the minimum amount of objects the {@link ActiveObjectSystem} must contain for the {@link #setParallelRules(boolean) parallel rule
+     * application} to be used.
+     * For smaller systems, the overhead of distributing the work is higher than the gain, so the rules are applied sequentially.
+     *
+     * @param parallelRulesThreshold The new object threshold of the parallel rule application.
+     */
+    public void setParallelRulesThreshold(int parallelRulesThreshold) {
+
+        Validate.isTrue(parallelRulesThreshold >= 0, "Parallel rules threshold must be >= 0: ", parallelRulesThreshold);
+        this.parallelRulesThreshold = parallelRulesThreshold;
+    }
+
+    /**
+     * Returns whether the {@link ModificationRule}s are applied to the rows of the {@link ActiveObjectSystem#getPhysicsColumns() physics columns} in batches.
+     * See {@link #setBatchRules(boolean)} for more information.
+     *
+     * @return Whether the batch rule application is enabled.
+     */
+    public boolean isBatchRules() {
+
+        return batchRules;
+    }
+
+    /**
+     * Sets whether the {@link ModificationRule}s are applied to the rows of the {@link ActiveObjectSystem#getPhysicsColumns() physics columns} in batches.
+     * If enabled, each rule that can be compiled into a {@link ColumnVelocityKernel} is applied to whole batches of rows directly inside the columns.
+     * All other rules are still applied to each row separately.
+     * The results are exactly the same in both cases; this setting only exists for comparing the performance.
+     * Note that the batches are only used if the rules are applied sequentially on the main thread.
+     * By default, the batch rule application is enabled.
+     *
+     * @param batchRules Whether the batch rule application should be enabled.
+     */
+    public void setBatchRules(boolean batchRules) {
+
+        this.batchRules = batchRules;
+    }
+
+    /**
+     * Returns the radius around the origin of the {@link ActiveObjectSystem} a {@link Player} must be in for the runner to stay awake.
+     * If no player is inside that radius, the runner {@link #isSleeping() sleeps}.
+     * A radius of 0 means that the runner never sleeps because of missing players.
+     *
+     * @return The sleep radius in blocks.
+     */
+    public double getSleepRadius() {
+
+        return sleepRadius;
+    }
+
+    /**
+     * Sets the radius around the origin of the {@link ActiveObjectSystem} a {@link Player} must be in for the runner to stay awake.
+     * If no player is inside that radius, the runner {@link #isSleeping() sleeps}.
+     * A radius of 0 means that the runner never sleeps because of missing players.
+     *
+     * @param sleepRadius The new sleep radius in blocks.
+     */
+    public void setSleepRadius(double sleepRadius) {
+
+        Validate.isTrue(sleepRadius >= 0, "Sleep radius must be >= 0: ", sleepRadius);
+        this.sleepRadius = sleepRadius;
+    }
+
+    /**
+     * Returns whether the runner {@link #isSleeping() sleeps} while the chunk that contains the origin of the {@link ActiveObjectSystem} is not loaded.
+     *
+     * @return Whether the runner sleeps while the origin chunk is unloaded.
+     */
+    public boolean isSleepWhenChunkUnloaded() {
+
+        return sleepWhenChunkUnloaded;
+    }
+
+    /**
+     * Sets whether the runner {@link #isSleeping() sleeps} while the chunk that contains the origin of the {@link ActiveObjectSystem} is not loaded.
+     *
+     * @param sleepWhenChunkUnloaded Whether the runner should sleep while the origin chunk is unloaded.
+     */
+    public void setSleepWhenChunkUnloaded(boolean sleepWhenChunkUnloaded) {
+
+        this.sleepWhenChunkUnloaded = sleepWhenChunkUnloaded;
+    }
+
+    /**
+     * Returns whether the lifetimes of the {@link ActiveObjectSystem} and its objects are fast-forwarded by the slept ticks when the runner wakes up.
+     * If this is enabled, objects which would have expired during the sleep are removed right after the runner woke up.
+     *
+     * @return Whether the lifetimes are fast-forwarded on wake.
+     */
+    public boolean isFastForwardOnWake() {
+
+        return fastForwardOnWake;
+    }
+
+    /**
+     * Sets whether the lifetimes of the {@link ActiveObjectSystem} and its objects are fast-forwarded by the slept ticks when the runner wakes up.
+     * If this is enabled, objects which would have expired during the sleep are removed right after the runner woke up.
+     * Note that the positions of the objects are not changed.
+     *
+     * @param fastForwardOnWake Whether the lifetimes should be fast-forwarded on wake.
+     */
+    public void setFastForwardOnWake(boolean fastForwardOnWake) {
+
+        this.fastForwardOnWake = fastForwardOnWake;
+    }
+
+    /**
+     * Returns the origin {@link Location}s of all instances the {@link ActiveObjectSystem} of the runner is displayed at in addition to its own origin.
+     * See {@link #addInstance(Location)} for more information.
+     *
+     * @return The origins of the additional instances.
+     */
+    public List<Location> getInstanceOrigins() {
+
+        List<Location> instanceOrigins = new ArrayList<Location>();
+        for (ActiveObjectSystem instance : instances) {
+            instanceOrigins.add(instance.getOrigin());
         }
+        return instanceOrigins;
     }
 
-    private void update() {
+    /**
+     * Adds an instance of the {@link ActiveObjectSystem} at the given origin {@link Location}.
+     * The objects of the active system are only simulated once, but all {@link OptionalRenderer}s (e.g. the {@link ParticleRenderer}) display them
+     * at the origin of the active system and at the origins of all instances.
+     * That way, the simulation cost of an effect which is shown at a lot of places does not depend on the amount of places.<br>
+     * <br>
+     * Note that the other renderers (e.g. the {@link RealEntityObjectRenderer}) are not instanced since they simulate the objects.
+     * Moreover, the renderers receive an instance system which only provides the origin of the instance and doesn't contain any objects.
+     * A runner with instances only {@link #isSleeping() sleeps} if the sleep conditions apply to its own origin and all instance origins.
+     *
+     * @param origin The origin location of the new instance.
+     */
+    public void addInstance(Location origin) {
 
-        // Apply modification rules
-        for (BaseObject object : objectSystem.getObjects()) {
-            for (ModificationRule<?, ?> modificationRule : objectSystem.getDefinition().getModificationRules()) {
-                tryApplyModificationRule(modificationRule, object);
+        Validate.notNull(origin, "Cannot add object system instance with null origin");
+        instances.add(new ActiveObjectSystem(objectSystem, origin));
+    }
+
+    /**
+     * Removes the instance of the {@link ActiveObjectSystem} at the given origin {@link Location}.
+     * See {@link #addInstance(Location)} for more information.
+     *
+     * @param origin The origin location of the instance that should be removed.
+     */
+    public void removeInstance(Location origin) {
+
+        for (Iterator<ActiveObjectSystem> iterator = instances.iterator(); iterator.hasNext();) {
+            if (iterator.next().getOrigin().equals(origin)) {
+                iterator.remove();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Removes all instances of the {@link ActiveObjectSystem}, so it is only displayed at its own origin.
+     * See {@link #addInstance(Location)} for more information.
+     */
+    public void clearInstances() {
+
+        instances.clear();
+    }
+
+    /**
+     * Returns the amount of ticks between two simulation steps of the {@link ActiveObjectSystem}.
+     * See {@link #setSimulationPeriod(int)} for more information.
+     *
+     * @return The simulation period in ticks.
+     */
+    public int getSimulationPeriod() {
+
+        return simulationPeriod;
+    }
+
+    /**
+     * Sets the amount of ticks between two simulation steps of the {@link ActiveObjectSystem}.
+     * A simulation step applies the modification rules, updates the sources, applies all renderers and increments the lifetime of the active system.
+     * Therefore, all velocities and lifetimes of the system are measured in simulation steps instead of ticks.
+     * In the ticks between two steps, only the {@link OptionalRenderer}s display the objects again.
+     * If {@link #setInterpolatePositions(boolean) position interpolation} is enabled, the displayed positions are moved along the object velocities,
+     * so the objects still move smoothly.
+     * Note that no objects are displayed between two steps if the {@link #setAsyncSimulation(boolean) asynchronous simulation} is enabled,
+     * since the objects are simulated by a worker thread during that time.
+     *
+     * @param simulationPeriod The new simulation period in ticks.
+     */
+    public void setSimulationPeriod(int simulationPeriod) {
+
+        Validate.isTrue(simulationPeriod > 0, "Simulation period must be > 0: ", simulationPeriod);
+        this.simulationPeriod = simulationPeriod;
+    }
+
+    /**
+     * Returns the amount of ticks between two renderings of the {@link OptionalRenderer}s.
+     * See {@link #setRenderPeriod(int)} for more information.
+     *
+     * @return The render period in ticks.
+     */
+    public int getRenderPeriod() {
+
+        return renderPeriod;
+    }
+
+    /**
+     * Sets the amount of ticks between two renderings of the {@link OptionalRenderer}s (e.g. the {@link ParticleRenderer}).
+     * The render period is independent of the {@link #setSimulationPeriod(int) simulation period}.
+     * For example, a render period of 2 and a simulation period of 1 simulate the objects every tick, but only send particle packets every second tick.
+     * Many ambient effects look the same at a lower render rate while using a fraction of the bandwidth.
+     *
+     * @param renderPeriod The new render period in ticks.
+     */
+    public void setRenderPeriod(int renderPeriod) {
+
+        Validate.isTrue(renderPeriod > 0, "Render period must be > 0: ", renderPeriod);
+        this.renderPeriod = renderPeriod;
+    }
+
+    /**
+     * Returns whether the positions of {@link StandalonePhysicsObject}s are interpolated in the ticks between two simulation steps.
+     * See {@link #setSimulationPeriod(int)} for more information.
+     *
+     * @return Whether the positions are interpolated.
+     */
+    public boolean isInterpolatePositions() {
+
+        return interpolatePositions;
+    }
+
+    /**
+     * Sets whether the positions of {@link StandalonePhysicsObject}s are interpolated in the ticks between two simulation steps.
+     * If enabled, the {@link OptionalRenderer}s display each object at its position plus the fraction of its velocity that corresponds to the time
+     * since the last step. Otherwise, the objects are displayed at the same position until the next step.
+     * See {@link #setSimulationPeriod(int)} for more information.
+     *
+     * @param interpolatePositions Whether the positions should be interpolated.
+     */
+    public void setInterpolatePositions(boolean interpolatePositions) {
+
+        this.interpolatePositions = interpolatePositions;
+    }
+
+    /**
+     * Returns whether the runner is currently sleeping.
+     * A sleeping runner neither simulates nor displays its {@link ActiveObjectSystem}.
+     * It only checks every few ticks whether it should wake up again.
+     * See {@link #setSleepRadius(double)} and {@link #setSleepWhenChunkUnloaded(boolean)} for the conditions that put a runner to sleep.
+     *
+     * @return Whether the runner is sleeping.
+     */
+    public boolean isSleeping() {
+
+        return sleeping;
+    }
+
+    /**
+     * Returns the total amount of ticks the runner has been {@link #isSleeping() sleeping}.
+     *
+     * @return The amount of slept ticks.
+     */
+    public long getSleptTicks() {
+
+        return sleptTicks;
+    }
+
+    /**
+     * Returns the amount of milliseconds the runner may use for updating its {@link ActiveObjectSystem} each tick.
+     * If an update takes longer, the runner starts to skip optional work, which is explained in {@link #getDegradation()}.
+     * A budget of 0 means that the runner has no budget. A budget of -1 means that the default budget of the {@link ObjectSystemScheduler} is used.
+     *
+     * @return The time budget of the runner in milliseconds.
+     */
+    public long getTimeBudget() {
+
+        return timeBudget;
+    }
+
+    /**
+     * Sets the amount of milliseconds the runner may use for updating its {@link ActiveObjectSystem} each tick.
+     * If an update takes longer, the runner starts to skip optional work, which is explained in {@link #getDegradation()}.
+     * A budget of 0 means that the runner has no budget. A budget of -1 means that the default budget of the {@link ObjectSystemScheduler} is used.
+     *
+     * @param timeBudget The new time budget of the runner in milliseconds.
+     */
+    public void setTimeBudget(long timeBudget) {
+
+        Validate.isTrue(timeBudget >= -1, "Object system runner time budget must be >= -1: ", timeBudget);
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Returns the current degradation level of the runner.
+     * The level increases by 1 each time an update exceeds the {@link #getTimeBudget() time budget}
+     * and decreases by 1 each time an update uses less than half of the budget.
+     * While the level is {@code n}, {@link OptionalRenderer}s only render every {@code (n + 1)}th object each tick (the skipped objects are
+     * rendered in the following ticks), and the {@link Source}s are only updated every {@code (n + 1)}th tick.
+     * A level of 0 means that no work is skipped.
+     *
+     * @return The current degradation level.
+     */
+    public int getDegradation() {
+
+        return degradation;
+    }
+
+    /**
+     * Returns the amount of nanoseconds the last update of the {@link ActiveObjectSystem} took.
+     *
+     * @return The duration of the last update in nanoseconds.
+     */
+    public long getLastUpdateTime() {
+
+        return lastUpdateTime;
+    }
+
+    /**
+     * Returns the total amount of {@link OptionalRenderer} calls that were skipped because the {@link #getTimeBudget() time budget} was exceeded.
+     *
+     * @return The amount of skipped renderings.
+     */
+    public long getSkippedRenderings() {
+
+        return skippedRenderings;
+    }
+
+    /**
+     * Returns the total amount of ticks in which the {@link Source}s were not updated because the {@link #getTimeBudget() time budget} was exceeded.
+     *
+     * @return The amount of skipped source updates.
+     */
+    public long getSkippedSourceUpdates() {
+
+        return skippedSourceUpdates;
+    }
+
+    /**
+     * Returns the total amount of ticks that were skipped because the {@link #setAsyncSimulation(boolean) asynchronous simulation} of the last frame
+     * was not completed in time.
+     *
+     * @return The amount of late frames.
+     */
+    public long getLateFrames() {
+
+        return lateFrames;
+    }
+
+    /**
+     * Simulates and displays the {@link ActiveObjectSystem} of the runner for one tick.
+     * It is called by the {@link ObjectSystemScheduler} every tick while the runner is running.
+     */
+    void update() {
+
+        // Only check the sleep conditions every few ticks; a sleeping runner does nothing else
+        if (sleepRadius > 0 || sleepWhenChunkUnloaded) {
+            if (--sleepCheckCountdown <= 0) {
+                sleepCheckCountdown = SLEEP_CHECK_INTERVAL;
+                updateSleeping();
+            }
+
+            if (sleeping) {
+                currentSleepTicks++;
+                sleptTicks++;
+                return;
             }
+        } else if (sleeping) {
+            wake();
         }
 
-        // Spawn new objects
-        for (Source source : objectSystem.getDefinition().getSources()) {
-            source.update(plugin, objectSystem, random);
+        resetReceivers();
+
+        // Between two simulation steps, the optional renderers only display the last step again
+        long tick = ticks++;
+        boolean renderTick = tick % renderPeriod == 0;
+        int stepTick = (int) (tick % simulationPeriod);
+        if (stepTick != 0) {
+            if (renderTick && !asyncStep.isPending()) {
+                renderBetweenSteps((double) stepTick / simulationPeriod);
+            }
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        int stride = degradation + 1;
+        expiredObjects = 0;
+
+        // Emit the last completed frame of the asynchronous simulation; the main thread never waits for a simulation that is still running
+        if (asyncStep.isPending()) {
+            if (!asyncStep.isDone()) {
+                lateFrames++;
+                return;
+            }
+
+            expiredObjects += asyncStep.emit(stride, renderTick);
+        }
+        long emitTime = System.nanoTime() - startTime;
+
+        // Apply the additions and removals other threads have queued since the last step; no objects are iterated at this point
+        objectSystem.drainQueuedObjects();
+
+        // Index the current object positions, so the modification rules and renderers can query the neighbors of their objects
+        SpatialHash spatialHash = objectSystem.getSpatialHash();
+        if (spatialHash != null) {
+            spatialHash.rebuild(objectSystem.getObjects(), objectSystem.getPhysicsColumns());
+        }
+
+        // Take new snapshots of the chunks which changed since the last tick, so the collisions can be resolved without accessing the world
+        ChunkSnapshotCache chunkSnapshotCache = objectSystem.getChunkSnapshotCache();
+        if (chunkSnapshotCache != null) {
+            chunkSnapshotCache.refresh(objectSystem.getOrigin());
+        }
+
+        // Pick up the current snapshot of the definition and invalidate the cached dispatches if the modification rules have changed
+        CompiledObjectSystemDefinition currentDefinition = objectSystem.getDefinition().getSnapshot();
+        if (currentDefinition != definition) {
+            dispatches.clear();
+            batchedStep.invalidate();
+            definition = currentDefinition;
+        }
+
+        // Apply modification rules using the simulation step which fits the configuration and the size of the active system
+        long rulesStartTime = System.nanoTime();
+        PhysicsColumns physicsColumns = objectSystem.getPhysicsColumns();
+        SimulationStep step = getSimulationStep(physicsColumns);
+        step.applyModificationRules();
+
+        // Spawn new objects; the sources are only updated every "stride"th tick if the runner is degraded, but then spawn everything that was due since their last update
+        long sourcesStartTime = System.nanoTime();
+        int objectsBeforeSources = objectSystem.getObjects().size() + physicsColumns.size();
+        if (objectSystem.getLifetime() % stride == 0) {
+            objectSystem.startSourceUpdate();
+            List<Source> sources = definition.getSources();
+            for (int index = 0; index < sources.size(); index++) {
+                sources.get(index).update(plugin, objectSystem, random);
+            }
+        } else {
+            skippedSourceUpdates++;
         }
+        objectSystem.getMetrics().setLastSpawnedObjects(objectSystem.getObjects().size() + physicsColumns.size() - objectsBeforeSources);
 
         // Stop if "stopWhenNoObjects" is enabled and no objects are found
-        if (stopWhenNoObjects && objectSystem.getObjects().isEmpty()) {
+        if (stopWhenNoObjects && objectSystem.getObjects().isEmpty() && physicsColumns.isEmpty()) {
             setRunning(false);
             return;
         }
 
-        // Apply renderers
-        for (Renderer<?> renderer : renderers) {
-            Iterator<BaseObject> objectRenderingIterator = objectSystem.getModifiableObjectsIterator();
-            while (objectRenderingIterator.hasNext()) {
-                RenderingResult result = tryApplyRenderer(renderer, objectRenderingIterator.next());
+        // Apply renderers; if the runner is degraded, optional renderers only render every "stride"th object, rotating through all objects over the ticks
+        long renderersStartTime = System.nanoTime();
+        int renderOffset = objectSystem.getLifetime() % stride;
+        int objectIndex = 0;
+        objectSystem.setRenderPhase(true);
 
-                if (result != null && result == RenderingResult.REMOVE) {
+        Iterator<BaseObject> objectRenderingIterator = objectSystem.getModifiableObjectsIterator();
+        while (objectRenderingIterator.hasNext()) {
+            BaseObject object = objectRenderingIterator.next();
+
+            if (!step.isAsynchronous() || ! (object instanceof StandalonePhysicsObject)) {
+                if (render(object, true, renderTick, objectIndex++ % stride == renderOffset) == RenderingResult.REMOVE) {
                     objectRenderingIterator.remove();
+                    recycle(object);
+                    expiredObjects++;
+                }
+            }
+        }
+
+        // Apply renderers to the rows of the physics columns
+        if (!step.isAsynchronous()) {
+            for (int row = 0; row < physicsColumns.size(); row++) {
+                if (!physicsColumns.isRemoved(row)) {
+                    StandalonePhysicsObject object = physicsColumns.load(row);
+
+                    if (render(object, true, renderTick, objectIndex++ % stride == renderOffset) == RenderingResult.REMOVE) {
+                        physicsColumns.remove(row);
+                        expiredObjects++;
+                    } else {
+                        physicsColumns.store(row, object);
+                    }
                 }
             }
         }
 
+        // Close the gaps left behind by all objects which were removed during rendering in one pass
+        objectSystem.setRenderPhase(false);
+        objectSystem.compactObjects();
+        physicsColumns.compact();
+        long renderersEndTime = System.nanoTime();
+
         // Increment object system lifetime
         objectSystem.incrementLifetime();
+
+        step.finish();
+
+        long updateTime = System.nanoTime() - startTime;
+        ObjectSystemMetrics metrics = objectSystem.getMetrics();
+        metrics.setLastExpiredObjects(expiredObjects);
+        metrics.recordUpdate(updateTime, sourcesStartTime - rulesStartTime, renderersStartTime - sourcesStartTime, emitTime + renderersEndTime - renderersStartTime);
+
+        updateDegradation(updateTime);
     }
 
-    @SuppressWarnings ("unchecked")
-    private <O extends BaseObject> RenderingResult tryApplyRenderer(Renderer<O> renderer, BaseObject object) {
+    private SimulationStep getSimulationStep(PhysicsColumns physicsColumns) {
 
-        if (renderer.getObjectType().isInstance(object)) {
-            return renderer.render(plugin, objectSystem, (O) object);
+        // Standalone physics objects are left to the asynchronous simulation if it is enabled
+        if (asyncSimulation) {
+            return asyncStep;
+        } else if (parallelRules && objectSystem.getObjects().size() + physicsColumns.size() >= parallelRulesThreshold) {
+            return parallelStep;
+        } else if (batchRules && batchedStep.hasColumnKernels()) {
+            return batchedStep;
         } else {
+            return sequentialStep;
+        }
+    }
+
+    private void updateSleeping() {
+
+        // The runner only sleeps if no origin, neither its own nor the one of an instance, keeps it awake
+        boolean shouldSleep = shouldSleep(objectSystem.getOrigin());
+        for (int index = 0; shouldSleep && index < instances.size(); index++) {
+            shouldSleep = shouldSleep(instances.get(index).getOrigin());
+        }
+
+        if (shouldSleep && !sleeping) {
+            sleeping = true;
+            currentSleepTicks = 0;
+        } else if (!shouldSleep && sleeping) {
+            wake();
+        }
+    }
+
+    private boolean shouldSleep(Location origin) {
+
+        if (sleepWhenChunkUnloaded && !origin.getWorld().isChunkLoaded(origin.getBlockX() >> 4, origin.getBlockZ() >> 4)) {
+            return true;
+        } else if (sleepRadius > 0) {
+            double sleepRadiusSquared = sleepRadius * sleepRadius;
+            for (Player player : ObjectSystemScheduler.getScheduler(plugin).getOnlinePlayers()) {
+                if (player.getWorld().equals(origin.getWorld()) && player.getLocation(playerLocation).distanceSquared(origin) <= sleepRadiusSquared) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private void wake() {
+
+        sleeping = false;
+
+        if (fastForwardOnWake && currentSleepTicks > 0) {
+            objectSystem.fastForwardLifetime(currentSleepTicks);
+        }
+        currentSleepTicks = 0;
+    }
+
+    private void renderBetweenSteps(double stepFraction) {
+
+        int stride = degradation + 1;
+        int renderOffset = objectSystem.getLifetime() % stride;
+        int objectIndex = 0;
+
+        // The interpolated positions are only set for the optional renderers and then reset, so the simulation is not affected
+        for (BaseObject object : objectSystem.getObjects()) {
+            if (interpolatePositions && object instanceof StandalonePhysicsObject) {
+                StandalonePhysicsObject physicsObject = (StandalonePhysicsObject) object;
+                double x = physicsObject.getX();
+                double y = physicsObject.getY();
+                double z = physicsObject.getZ();
+
+                physicsObject.setPosition(x + physicsObject.getVelocityX() * stepFraction, y + physicsObject.getVelocityY() * stepFraction, z + physicsObject.getVelocityZ() * stepFraction);
+                render(object, false, true, objectIndex++ % stride == renderOffset);
+                physicsObject.setPosition(x, y, z);
+            } else {
+                render(object, false, true, objectIndex++ % stride == renderOffset);
+            }
+        }
+
+        // The rows don't need to be reset since the flyweights are never stored back
+        PhysicsColumns physicsColumns = objectSystem.getPhysicsColumns();
+        for (int row = 0; row < physicsColumns.size(); row++) {
+            if (!physicsColumns.isRemoved(row)) {
+                StandalonePhysicsObject object = physicsColumns.load(row);
+                if (interpolatePositions) {
+                    object.setPosition(object.getX() + object.getVelocityX() * stepFraction, object.getY() + object.getVelocityY() * stepFraction, object.getZ() + object.getVelocityZ() * stepFraction);
+                }
+                render(object, false, true, objectIndex++ % stride == renderOffset);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link Plugin} which hosts the runner.
+     *
+     * @return The plugin of the runner.
+     */
+    Plugin getPlugin() {
+
+        return plugin;
+    }
+
+    /**
+     * Returns the snapshot of the object system definition the runner picked up at the start of the current tick.
+     *
+     * @return The current definition snapshot.
+     */
+    CompiledObjectSystemDefinition getDefinition() {
+
+        return definition;
+    }
+
+    /**
+     * Returns the given object, which was removed from the {@link ActiveObjectSystem}, to the object pool of the system if it is poolable.
+     *
+     * @param object The removed object.
+     */
+    void recycle(BaseObject object) {
+
+        if (object instanceof DefaultBaseObject) {
+            ((DefaultBaseObject) object).detach();
+        }
+
+        if (object instanceof PoolableObject) {
+            objectSystem.getObjectPool().recycle((PoolableObject) object);
+        }
+    }
+
+    /**
+     * Applies the {@link Renderer}s to the given object.
+     * Optional renderers are applied to the {@link ActiveObjectSystem} and all instances; the other ones only to the active system.
+     *
+     * @param object The object that should be rendered.
+     * @param renderRequired Whether the renderers which aren't optional are applied.
+     * @param renderTick Whether the optional renderers are applied in the current tick.
+     * @param renderOptional Whether the optional renderers are applied to this object (false if the object is skipped due to degradation).
+     * @return {@link RenderingResult#REMOVE} if one of the renderers removed the object.
+     */
+    RenderingResult render(BaseObject object, boolean renderRequired, boolean renderTick, boolean renderOptional) {
+
+        // Following renderers are skipped as soon as one of them removes the object; optional renderers are only applied in render ticks
+        Dispatch dispatch = getDispatch(object);
+        Renderer<?>[] dispatchRenderers = dispatch.getRenderers();
+        for (int index = 0; index < dispatchRenderers.length; index++) {
+            boolean optional = dispatch.isOptional(index);
+            if (optional && !renderTick || !optional && !renderRequired) {
+                continue;
+            }
+            if (optional && !renderOptional) {
+                skippedRenderings++;
+                continue;
+            }
+
+            // The renderer is applied to the main system first; optional renderers are then also applied to all instances
+            Renderer<?> renderer = dispatchRenderers[index];
+            if (applyRenderer(renderer, objectSystem, object) == RenderingResult.REMOVE) {
+                return RenderingResult.REMOVE;
+            }
+            if (optional) {
+                for (int instanceIndex = 0; instanceIndex < instances.size(); instanceIndex++) {
+                    if (applyRenderer(renderer, instances.get(instanceIndex), object) == RenderingResult.REMOVE) {
+                        return RenderingResult.REMOVE;
+                    }
+                }
+            }
+        }
+
+        return RenderingResult.NOTHING;
+    }
+
+    /**
+     * Resets the {@link ReceiverCache}s of the {@link ActiveObjectSystem} and all instances for a new tick.
+     * The {@link PlayerIndex} is then resolved again as soon as the first receivers of the tick are requested.
+     */
+    void resetReceivers() {
+
+        playerIndex = null;
+        objectSystem.getReceiverCache().reset(this);
+        for (int index = 0; index < instances.size(); index++) {
+            instances.get(index).getReceiverCache().reset(this);
+        }
+    }
+
+    /**
+     * Clears the {@link ReceiverCache}s of the {@link ActiveObjectSystem} and all instances, so they don't keep the runner and the players of its last tick.
+     */
+    private void clearReceivers() {
+
+        playerIndex = null;
+        objectSystem.getReceiverCache().reset(null);
+        for (int index = 0; index < instances.size(); index++) {
+            instances.get(index).getReceiverCache().reset(null);
+        }
+    }
+
+    /**
+     * Returns the {@link PlayerIndex} which is used by the {@link ReceiverCache}s of the {@link ActiveObjectSystem} and all instances during the current tick.
+     * It is resolved at most once per tick, so the index is shared by all systems of the runner even if it is updated outside of a scheduler tick.
+     *
+     * @return The player index of the current tick, or {@code null} if the runner has no plugin (e.g. a headless runner).
+     */
+    PlayerIndex getPlayerIndex() {
+
+        if (playerIndex == null) {
+            playerIndex = resolvePlayerIndex(plugin);
+        }
+
+        return playerIndex;
+    }
+
+    /**
+     * Resolves the {@link PlayerIndex} of the {@link ObjectSystemScheduler} of the given {@link Plugin}.
+     * If the plugin has no scheduler (e.g. because the runner is updated by a benchmark), a new index of the online players is built.
+     *
+     * @param plugin The plugin whose player index should be resolved.
+     * @return The resolved player index, or {@code null} if the given plugin is {@code null}.
+     */
+    static PlayerIndex resolvePlayerIndex(Plugin plugin) {
+
+        if (plugin == null) {
             return null;
         }
+
+        ObjectSystemScheduler scheduler = ObjectSystemScheduler.getExistingScheduler(plugin);
+        return scheduler == null ? new PlayerIndex(Arrays.asList(Bukkit.getOnlinePlayers())) : scheduler.getPlayerIndex();
+    }
+
+    private void updateDegradation(long updateTime) {
+
+        lastUpdateTime = updateTime;
+
+        // The scheduler is only looked up since the runner may not be scheduled (e.g. while it is updated by a benchmark)
+        long effectiveTimeBudget = timeBudget;
+        if (timeBudget == -1) {
+            ObjectSystemScheduler scheduler = ObjectSystemScheduler.getExistingScheduler(plugin);
+            effectiveTimeBudget = scheduler == null ? 0 : scheduler.getDefaultTimeBudget();
+        }
+        if (effectiveTimeBudget <= 0) {
+            degradation = 0;
+            return;
+        }
+
+        long timeBudgetNanos = effectiveTimeBudget * 1000000;
+        if (updateTime > timeBudgetNanos && degradation < MAX_DEGRADATION) {
+            degradation++;
+        } else if (updateTime < timeBudgetNanos / 2 && degradation > 0) {
+            degradation--;
+        }
+    }
+
+    private Dispatch getDispatch(BaseObject object) {
+
+        // The type checks are only done once per concrete object class; the result is cached until the definition snapshot changes
+        Class<?> objectClass = object.getClass();
+        Dispatch dispatch = dispatches.get(objectClass);
+
+        if (dispatch == null) {
+            List<ModificationRule<?, ?>> dispatchRules = definition.getModificationRules(objectClass);
+
+            List<Renderer<?>> dispatchRenderers = new ArrayList<Renderer<?>>();
+            for (Renderer<?> renderer : renderers) {
+                if (renderer.getObjectType().isAssignableFrom(objectClass)) {
+                    dispatchRenderers.add(renderer);
+                }
+            }
+
+            boolean[] optionalRenderers = new boolean[dispatchRenderers.size()];
+            for (int index = 0; index < optionalRenderers.length; index++) {
+                optionalRenderers[index] = dispatchRenderers.get(index) instanceof OptionalRenderer;
+            }
+
+            dispatch = new Dispatch(dispatchRules.toArray(new ModificationRule<?, ?>[dispatchRules.size()]), dispatchRenderers.toArray(new Renderer<?>[dispatchRenderers.size()]), optionalRenderers);
+            dispatches.put(objectClass, dispatch);
+        }
+
+        return dispatch;
     }
 
     @SuppressWarnings ("unchecked")
-    private <O extends BaseObject> void tryApplyModificationRule(ModificationRule<O, ?> modificationRule, BaseObject object) {
+    private <O extends BaseObject> RenderingResult applyRenderer(Renderer<O> renderer, ActiveObjectSystem renderedSystem, BaseObject object) {
+
+        return renderer.render(plugin, renderedSystem, (O) object);
+    }
 
-        if (modificationRule.getObjectType().isInstance(object)) {
-            modificationRule.apply((O) object);
+    /**
+     * Applies all {@link ModificationRule}s which accept the given object to it.
+     * This method can be called from the simulation executor.
+     *
+     * @param object The object the modification rules should be applied to.
+     */
+    void applyModificationRules(BaseObject object) {
+
+        for (ModificationRule<?, ?> modificationRule : getDispatch(object).getModificationRules()) {
+            applyModificationRule(modificationRule, object);
         }
     }
 
+    @SuppressWarnings ("unchecked")
+    <O extends BaseObject> void applyModificationRule(ModificationRule<O, ?> modificationRule, BaseObject object) {
+
+        modificationRule.apply((O) object);
+    }
+
     @Override
     public int hashCode() {
 
@@ -232,4 +1111,34 @@ public class ObjectSystemRunner {
         return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
     }
 
+    private static class Dispatch {
+
+        private final ModificationRule<?, ?>[] modificationRules;
+        private final Renderer<?>[]            renderers;
+        private final boolean[]                optionalRenderers;
+
+        private Dispatch(ModificationRule<?, ?>[] modificationRules, Renderer<?>[] renderers, boolean[] optionalRenderers) {
+
+            this.modificationRules = modificationRules;
+            this.renderers = renderers;
+            this.optionalRenderers = optionalRenderers;
+        }
+
+        private ModificationRule<?, ?>[] getModificationRules() {
+
+            return modificationRules;
+        }
+
+        private Renderer<?>[] getRenderers() {
+
+            return renderers;
+        }
+
+        private boolean isOptional(int rendererIndex) {
+
+            return optionalRenderers[rendererIndex];
+        }
+
+    }
+
 }
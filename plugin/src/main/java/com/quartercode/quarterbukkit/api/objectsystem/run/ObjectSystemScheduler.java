@@ -0,0 +1,401 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import com.quartercode.quarterbukkit.api.MathUtil;
+import com.quartercode.quarterbukkit.api.exception.ExceptionHandler;
+import com.quartercode.quarterbukkit.api.exception.InternalException;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemMetrics;
+import com.quartercode.quarterbukkit.api.scheduler.ScheduleTask;
+
+/**
+ * The object system scheduler updates all running {@link ObjectSystemRunner}s of one {@link Plugin} from a single repeating task.
+ * Instead of one bukkit timer per runner, there is only one timer per plugin, no matter how many {@link ActiveObjectSystem}s are running.
+ * The runners are always updated in the order they were started in.
+ * If the update of a runner fails with an exception, the exception is reported and the runner is stopped.<br>
+ * <br>
+ * Moreover, the scheduler provides resources which are shared by all runners during one tick.
+ * For example, {@link #getOnlinePlayers()} returns a snapshot of the online players that is only taken once per tick,
+ * and {@link #getPlayerIndex()} sorts that snapshot by location at most once per tick.
+ * The scheduler task is started as soon as the first runner is started and stopped as soon as the last runner is stopped.
+ * When the plugin is disabled, all its runners are stopped and the scheduler is {@link #removeScheduler(Plugin) removed}.
+ *
+ * @see ObjectSystemRunner
+ */
+public class ObjectSystemScheduler {
+
+    private static final Map<Plugin, ObjectSystemScheduler> SCHEDULERS = new HashMap<Plugin, ObjectSystemScheduler>();
+
+    /**
+     * Returns the object system scheduler that updates all {@link ObjectSystemRunner}s which are hosted by the given {@link Plugin}.
+     * If no scheduler exists for the plugin yet, a new one is created.
+     *
+     * @param plugin The plugin that hosts the scheduler.
+     * @return The object system scheduler of the given plugin.
+     */
+    public static ObjectSystemScheduler getScheduler(Plugin plugin) {
+
+        Validate.notNull(plugin, "Cannot get object system scheduler for null plugin");
+
+        ObjectSystemScheduler scheduler = SCHEDULERS.get(plugin);
+        if (scheduler == null) {
+            scheduler = new ObjectSystemScheduler(plugin);
+            SCHEDULERS.put(plugin, scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Returns the object system scheduler of the given {@link Plugin}, or {@code null} if no scheduler exists for the plugin.
+     * In contrast to {@link #getScheduler(Plugin)}, this method never creates a new scheduler.
+     *
+     * @param plugin The plugin that hosts the scheduler.
+     * @return The existing object system scheduler of the given plugin, or {@code null}.
+     */
+    static ObjectSystemScheduler getExistingScheduler(Plugin plugin) {
+
+        return plugin == null ? null : SCHEDULERS.get(plugin);
+    }
+
+    /**
+     * Returns the object system schedulers of all enabled {@link Plugin}s which have used object system runners so far.
+     * The returned collection is a snapshot and is not updated afterwards.
+     *
+     * @return All existing object system schedulers.
+     */
+    public static Collection<ObjectSystemScheduler> getSchedulers() {
+
+        return Collections.unmodifiableList(new ArrayList<ObjectSystemScheduler>(SCHEDULERS.values()));
+    }
+
+    /**
+     * Stops all {@link ObjectSystemRunner}s of the given {@link Plugin} and removes the object system scheduler of the plugin.
+     * This releases the runners, the update task and the simulation executor of the plugin.
+     * Note that this is an internal method and should not be used as an api function.
+     * It is called when the plugin is disabled.
+     *
+     * @param plugin The plugin whose scheduler should be removed.
+     */
+    public static void removeScheduler(Plugin plugin) {
+
+        ObjectSystemScheduler scheduler = SCHEDULERS.get(plugin);
+
+        if (scheduler != null) {
+            // Stopping the last runner also cancels the update task and shuts down the simulation executor
+            for (ObjectSystemRunner runner : scheduler.runners.toArray(new ObjectSystemRunner[scheduler.runners.size()])) {
+                runner.setRunning(false);
+            }
+
+            SCHEDULERS.remove(plugin);
+        }
+    }
+
+    private final Plugin                   plugin;
+    private final List<ObjectSystemRunner> runners       = new ArrayList<ObjectSystemRunner>();
+    private ObjectSystemRunner[]           tickRunners   = new ObjectSystemRunner[0];
+    private boolean                        tickRunnersValid;
+
+    private long                           defaultTimeBudget;
+
+    private ScheduleTask                   updateTask;
+    private ExecutorService                simulationExecutor;
+    private List<Player>                   onlinePlayers;
+    private PlayerIndex                    playerIndex;
+
+    private final ObjectSystemMetrics      tickMetrics   = new ObjectSystemMetrics();
+
+    private ObjectSystemScheduler(Plugin plugin) {
+
+        this.plugin = plugin;
+    }
+
+    /**
+     * Returns the {@link Plugin} that hosts the object system scheduler.
+     *
+     * @return The plugin of the scheduler.
+     */
+    public Plugin getPlugin() {
+
+        return plugin;
+    }
+
+    /**
+     * Returns all {@link ObjectSystemRunner}s which are currently updated by the scheduler, in the order they are updated in.
+     *
+     * @return The runners which are scheduled.
+     */
+    public List<ObjectSystemRunner> getRunners() {
+
+        return Collections.unmodifiableList(runners);
+    }
+
+    /**
+     * Returns the amount of milliseconds each {@link ObjectSystemRunner} of the scheduler may use per tick if it doesn't define its own time budget.
+     * A budget of 0 means that the runners have no budget by default.
+     *
+     * @return The default time budget of the runners in milliseconds.
+     * @see ObjectSystemRunner#getTimeBudget()
+     */
+    public long getDefaultTimeBudget() {
+
+        return defaultTimeBudget;
+    }
+
+    /**
+     * Sets the amount of milliseconds each {@link ObjectSystemRunner} of the scheduler may use per tick if it doesn't define its own time budget.
+     * A budget of 0 means that the runners have no budget by default.
+     *
+     * @param defaultTimeBudget The new default time budget of the runners in milliseconds.
+     * @see ObjectSystemRunner#setTimeBudget(long)
+     */
+    public void setDefaultTimeBudget(long defaultTimeBudget) {
+
+        Validate.isTrue(defaultTimeBudget >= 0, "Default object system time budget must be >= 0: ", defaultTimeBudget);
+        this.defaultTimeBudget = defaultTimeBudget;
+    }
+
+    /**
+     * Returns {@link ObjectSystemMetrics} which aggregate the metrics of all {@link ObjectSystemRunner}s that are currently scheduled.
+     * The update durations of the returned metrics are the durations of whole scheduler ticks, which include the updates of all runners.
+     * All other values are the sums of the values of the runners.
+     * The returned metrics are a snapshot and are not updated afterwards.
+     *
+     * @return The aggregated metrics of all scheduled runners.
+     */
+    public ObjectSystemMetrics getMetrics() {
+
+        ObjectSystemMetrics metrics = tickMetrics.clone();
+        for (ObjectSystemRunner runner : runners) {
+            metrics.addTotals(runner.getObjectSystem().getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns a snapshot of the online {@link Player}s that is shared by all {@link ObjectSystemRunner}s during the current tick.
+     * Renderers should use this method instead of {@link Bukkit#getOnlinePlayers()} since the snapshot is only taken once per tick.
+     * If this method is called outside of a scheduler tick, a new snapshot is taken on every call.
+     *
+     * @return The players that are currently online.
+     */
+    public List<Player> getOnlinePlayers() {
+
+        if (onlinePlayers == null) {
+            return Arrays.asList(Bukkit.getOnlinePlayers());
+        }
+
+        return onlinePlayers;
+    }
+
+    /**
+     * Returns a {@link PlayerIndex} of the {@link #getOnlinePlayers() online players} that is shared by all {@link ObjectSystemRunner}s during the current tick.
+     * Renderers can use it to only send their output to the players around an {@link ActiveObjectSystem}.
+     * The index is built when it is requested for the first time in a tick.
+     * If this method is called outside of a scheduler tick, a new index is built on every call.
+     *
+     * @return The index of the players that are currently online.
+     */
+    public PlayerIndex getPlayerIndex() {
+
+        if (onlinePlayers == null) {
+            return new PlayerIndex(getOnlinePlayers());
+        } else if (playerIndex == null) {
+            playerIndex = new PlayerIndex(onlinePlayers);
+        }
+
+        return playerIndex;
+    }
+
+    /**
+     * Returns the {@link ExecutorService} whose worker threads simulate the {@link ObjectSystemRunner}s that use the asynchronous simulation.
+     * The executor is created when it is requested for the first time and shut down as soon as the last runner is stopped.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @return The executor service for asynchronous simulations.
+     * @see ObjectSystemRunner#setAsyncSimulation(boolean)
+     */
+    public ExecutorService getSimulationExecutor() {
+
+        if (simulationExecutor == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            simulationExecutor = Executors.newFixedThreadPool(threads, new SimulationThreadFactory(plugin.getName()));
+        }
+
+        return simulationExecutor;
+    }
+
+    /**
+     * Returns whether the current thread is a worker thread of the {@link #getSimulationExecutor() simulation executor} of any object system scheduler.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @return Whether the current thread simulates object systems.
+     */
+    public static boolean isSimulationThread() {
+
+        return Thread.currentThread() instanceof SimulationThread;
+    }
+
+    /**
+     * Adds the given {@link ObjectSystemRunner} to the scheduler, so it is updated every tick.
+     * It is called by {@link ObjectSystemRunner#setRunning(boolean)}.
+     *
+     * @param runner The runner that should be updated by the scheduler.
+     */
+    void schedule(ObjectSystemRunner runner) {
+
+        // Runners are compared by identity since two runners might be equal without being the same runner
+        if (indexOf(runner) < 0) {
+            runners.add(runner);
+            tickRunnersValid = false;
+
+            if (updateTask == null) {
+                updateTask = new ScheduleTask(plugin) {
+
+                    @Override
+                    public void run() {
+
+                        tick();
+                    }
+
+                }.run(true, 0, MathUtil.getMillis(1));
+            }
+        }
+    }
+
+    /**
+     * Removes the given {@link ObjectSystemRunner} from the scheduler, so it is no longer updated.
+     * It is called by {@link ObjectSystemRunner#setRunning(boolean)}.
+     *
+     * @param runner The runner that should no longer be updated by the scheduler.
+     */
+    void unschedule(ObjectSystemRunner runner) {
+
+        int index = indexOf(runner);
+        if (index >= 0) {
+            runners.remove(index);
+            tickRunnersValid = false;
+
+            if (runners.isEmpty() && updateTask != null) {
+                updateTask.cancel();
+                updateTask = null;
+
+                if (simulationExecutor != null) {
+                    simulationExecutor.shutdown();
+                    simulationExecutor = null;
+                }
+            }
+        }
+    }
+
+    private int indexOf(ObjectSystemRunner runner) {
+
+        for (int index = 0; index < runners.size(); index++) {
+            if (runners.get(index) == runner) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private void tick() {
+
+        // The runner array is only rebuilt if runners were started or stopped; runners might also stop themselves during the tick
+        if (!tickRunnersValid) {
+            tickRunners = runners.toArray(new ObjectSystemRunner[runners.size()]);
+            tickRunnersValid = true;
+        }
+
+        long startTime = System.nanoTime();
+        onlinePlayers = Collections.unmodifiableList(Arrays.asList(Bukkit.getOnlinePlayers()));
+        try {
+            for (ObjectSystemRunner runner : tickRunners) {
+                if (runner.isRunning()) {
+                    // A failing runner is stopped, so it doesn't prevent the other runners from being updated and doesn't fail again every tick
+                    try {
+                        runner.update();
+                    } catch (RuntimeException e) {
+                        runner.setRunning(false);
+                        ExceptionHandler.exception(new InternalException(plugin, e, "Object system runner update error"));
+                    }
+                }
+            }
+        } finally {
+            onlinePlayers = null;
+            playerIndex = null;
+        }
+
+        tickMetrics.recordUpdate(System.nanoTime() - startTime, 0, 0, 0);
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("plugin", plugin.getName()).append("runners", runners.size()).toString();
+    }
+
+    private static class SimulationThreadFactory implements ThreadFactory {
+
+        private final String        pluginName;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private SimulationThreadFactory(String pluginName) {
+
+            this.pluginName = pluginName;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            // Daemon threads don't prevent the server from shutting down if a plugin forgets to stop its runners
+            Thread thread = new SimulationThread(runnable, pluginName + " Object System Simulation #" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+    private static class SimulationThread extends Thread {
+
+        private SimulationThread(Runnable runnable, String name) {
+
+            super(runnable, name);
+        }
+
+    }
+
+}
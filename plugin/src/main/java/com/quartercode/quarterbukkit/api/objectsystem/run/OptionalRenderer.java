@@ -0,0 +1,34 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+
+/**
+ * An optional renderer is a {@link Renderer} that only displays objects and never changes their state or removes them.
+ * Because of that, an {@link ObjectSystemRunner} that exceeds its time budget might skip the rendering of some objects for a few ticks.
+ * Renderers which modify objects (e.g. by moving them) must never implement this interface since skipping them would change the simulation.
+ *
+ * @param <O> The type of object the optional renderer can display. This must extend {@link BaseObject}.
+ * @see Renderer
+ * @see ObjectSystemRunner#getDegradation()
+ */
+public interface OptionalRenderer<O extends BaseObject> extends Renderer<O> {
+
+}
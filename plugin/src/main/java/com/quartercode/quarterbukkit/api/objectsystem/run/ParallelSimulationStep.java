@@ -0,0 +1,131 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A {@link SimulationStep} that splits the {@link StandalonePhysicsObject}s and rows into partitions of a fixed size
+ * and applies the modification rules to those partitions on the simulation executor of the {@link ObjectSystemScheduler}.
+ * All other objects are processed on the main thread, which also takes the first partition, and the step waits for all partitions to complete.
+ */
+class ParallelSimulationStep extends SimulationStep {
+
+    private static final int PARTITION_SIZE = 1024;
+
+    ParallelSimulationStep(ObjectSystemRunner runner) {
+
+        super(runner);
+    }
+
+    @Override
+    void applyModificationRules() {
+
+        applyModificationRulesToObjects(true);
+
+        List<BaseObject> standaloneObjects = new ArrayList<BaseObject>();
+        for (BaseObject object : runner.getObjectSystem().getObjects()) {
+            if (object instanceof StandalonePhysicsObject) {
+                standaloneObjects.add(object);
+            }
+        }
+
+        BaseObject[] objects = standaloneObjects.toArray(new BaseObject[standaloneObjects.size()]);
+        int total = objects.length + runner.getObjectSystem().getPhysicsColumns().size();
+
+        // The partitions have a fixed size and only depend on the object order, so each object always ends up in the same partition
+        List<Future<?>> partitionFutures = new ArrayList<Future<?>>();
+        ExecutorService executor = ObjectSystemScheduler.getScheduler(runner.getPlugin()).getSimulationExecutor();
+        for (int start = PARTITION_SIZE; start < total; start += PARTITION_SIZE) {
+            partitionFutures.add(executor.submit(new Partition(objects, start, Math.min(start + PARTITION_SIZE, total))));
+        }
+
+        // The main thread processes the first partition itself instead of just waiting for the workers
+        new Partition(objects, 0, Math.min(PARTITION_SIZE, total)).run();
+
+        for (Future<?> partitionFuture : partitionFutures) {
+            try {
+                partitionFuture.get();
+            } catch (InterruptedException e) {
+                // Partitions which haven't started yet are dropped; the update must not continue with partially modified objects
+                for (Future<?> cancelledFuture : partitionFutures) {
+                    cancelledFuture.cancel(false);
+                }
+
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Parallel modification rule application was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Parallel modification rule application failed", e.getCause());
+            }
+        }
+    }
+
+    private class Partition implements Runnable {
+
+        private final BaseObject[] objects;
+        private final int          start;
+        private final int          end;
+
+        private Partition(BaseObject[] objects, int start, int end) {
+
+            this.objects = objects;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+
+            // Rows with the same prototype share one flyweight, so each partition needs its own copies of the flyweights
+            PhysicsColumns physicsColumns = runner.getObjectSystem().getPhysicsColumns();
+            Map<StandalonePhysicsObject, StandalonePhysicsObject> flyweights = new IdentityHashMap<StandalonePhysicsObject, StandalonePhysicsObject>();
+
+            for (int index = start; index < end; index++) {
+                if (index < objects.length) {
+                    runner.applyModificationRules(objects[index]);
+                } else {
+                    int row = index - objects.length;
+                    if (!physicsColumns.isRemoved(row)) {
+                        StandalonePhysicsObject sharedFlyweight = physicsColumns.getFlyweight(row);
+                        StandalonePhysicsObject flyweight = flyweights.get(sharedFlyweight);
+                        if (flyweight == null) {
+                            flyweight = sharedFlyweight.clone();
+                            flyweights.put(sharedFlyweight, flyweight);
+                        }
+
+                        physicsColumns.load(row, flyweight);
+                        runner.applyModificationRules(flyweight);
+                        physicsColumns.store(row, flyweight);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -21,9 +21,13 @@ package com.quartercode.quarterbukkit.api.objectsystem.run;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import org.bukkit.Bukkit;
+import java.util.List;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
 import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.util.Vector;
@@ -35,30 +39,54 @@ import com.quartercode.quarterbukkit.api.objectsystem.object.ParticleObject;
 
 /**
  * A {@link Renderer} that displays all {@link ParticleObject}s by spawning minecraft particles.
+ * By default, the particle packets are sent to all players in the world of the {@link ActiveObjectSystem}.
+ * Optionally, they are only sent to the players which are within a {@link #getViewDistance() view distance} around the origin of the active system.
+ * The receiving players are looked up once per tick and active system and then stored in the {@link ActiveObjectSystem#getReceiverCache() receiver cache} of the system.
+ * If no player is close enough, no packets are created at all.
  *
  * @see ParticleObject
  * @see Renderer
  */
-public class ParticleRenderer extends StatelessRenderer<ParticleObject> {
+public class ParticleRenderer implements OptionalRenderer<ParticleObject> {
 
-    private static final Method         CRAFT_PLAYER__GET_HANDLE;
-    private static final Field          NMS_ENTITY_PLAYER__PLAYER_CONNECTION;
-    private static final Method         NMS_PLAYER_CONNECTION__SEND_PACKET;
-    private static final Constructor<?> NMS_PACKET__CONSTRUCTOR;
+    /**
+     * The default distance around the origin of an {@link ActiveObjectSystem} in which players receive the particles of the system.
+     * It is 0, so the particles are sent to all players in the world of the active system by default.
+     */
+    public static final double DEFAULT_VIEW_DISTANCE = 0;
 
-    static {
+    private final double       viewDistance;
 
-        try {
-            CRAFT_PLAYER__GET_HANDLE = Class.forName(ReflectionConstants.CB_ENTITY_PACKAGE + ".CraftPlayer").getMethod("getHandle");
-            NMS_ENTITY_PLAYER__PLAYER_CONNECTION = Class.forName(ReflectionConstants.NMS_PACKAGE + ".EntityPlayer").getField("playerConnection");
-            NMS_PLAYER_CONNECTION__SEND_PACKET = NMS_ENTITY_PLAYER__PLAYER_CONNECTION.getType().getMethod("sendPacket", Class.forName(ReflectionConstants.NMS_PACKAGE + ".Packet"));
+    /**
+     * Creates a new particle renderer which sends the particles to all players in the world of the {@link ActiveObjectSystem}.
+     */
+    public ParticleRenderer() {
 
-            String packetClassName = ReflectionConstants.NMS_PACKAGE + "." + (ReflectionConstants.MINOR_VERSION < 7 ? "Packet63WorldParticles" : "PacketPlayOutWorldParticles");
-            NMS_PACKET__CONSTRUCTOR = Class.forName(packetClassName).getConstructor();
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot initialize particle renderer reflection handles", e);
-        }
+        this(DEFAULT_VIEW_DISTANCE);
+    }
 
+    /**
+     * Creates a new particle renderer which sends the particles to the players within the given view distance around the origin of the {@link ActiveObjectSystem}.
+     * The view distance should include the extent of the rendered systems, since it is measured from the origin and not from the single particles.
+     *
+     * @param viewDistance The distance around the origin of the active system in which players receive the particles.
+     *        A view distance of 0 sends the particles to all players in the world of the active system.
+     */
+    public ParticleRenderer(double viewDistance) {
+
+        Validate.isTrue(viewDistance >= 0, "Particle renderer view distance must be >= 0: ", viewDistance);
+        this.viewDistance = viewDistance;
+    }
+
+    /**
+     * Returns the distance around the origin of the {@link ActiveObjectSystem} in which players receive the particles.
+     * A view distance of 0 sends the particles to all players in the world of the active system.
+     *
+     * @return The view distance of the renderer.
+     */
+    public double getViewDistance() {
+
+        return viewDistance;
     }
 
     @Override
@@ -81,12 +109,19 @@ public class ParticleRenderer extends StatelessRenderer<ParticleObject> {
 
     private void spawn(Plugin plugin, ActiveObjectSystem objectSystem, ParticleObject object) {
 
-        Location location = objectSystem.getOrigin().add(object.getPosition());
+        List<Player> players = objectSystem.getReceiverCache().getReceivers(plugin, objectSystem, viewDistance);
+        if (players.isEmpty()) {
+            return;
+        }
+
+        Location location = objectSystem.getOrigin().add(object.getX(), object.getY(), object.getZ());
 
         try {
+            int packets = 0;
             for (ParticleDefinition particle : object.getParticles()) {
-                sendPacket(location.getWorld(), createPacket(particle, location));
+                packets += sendPacket(players, createPacket(particle, location));
             }
+            objectSystem.getMetrics().recordParticlePackets(packets);
         } catch (RuntimeException e) {
             ExceptionHandler.exception(new InternalException(plugin, e, "Particle renderer reflection error"));
         }
@@ -95,7 +130,7 @@ public class ParticleRenderer extends StatelessRenderer<ParticleObject> {
     private Object createPacket(ParticleDefinition particle, Location location) {
 
         try {
-            Object packet = NMS_PACKET__CONSTRUCTOR.newInstance();
+            Object packet = ReflectionHandles.NMS_PACKET__CONSTRUCTOR.newInstance();
 
             setField(packet, "a", particle.getType().getName());
 
@@ -124,19 +159,68 @@ public class ParticleRenderer extends StatelessRenderer<ParticleObject> {
         field.set(object, value);
     }
 
-    private void sendPacket(World world, Object packet) {
-
-        String worldName = world.getName();
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (player.getWorld().getName().equals(worldName)) {
-                try {
-                    Object playerConnection = NMS_ENTITY_PLAYER__PLAYER_CONNECTION.get(CRAFT_PLAYER__GET_HANDLE.invoke(player));
-                    NMS_PLAYER_CONNECTION__SEND_PACKET.invoke(playerConnection, packet);
-                } catch (Exception e) {
-                    throw new RuntimeException("Cannot send particle packet to player '" + player.getName() + "' for particle renderer", e);
-                }
+    private int sendPacket(List<Player> players, Object packet) {
+
+        int packets = 0;
+        for (int index = 0; index < players.size(); index++) {
+            Player player = players.get(index);
+            try {
+                Object playerConnection = ReflectionHandles.NMS_ENTITY_PLAYER__PLAYER_CONNECTION.get(ReflectionHandles.CRAFT_PLAYER__GET_HANDLE.invoke(player));
+                ReflectionHandles.NMS_PLAYER_CONNECTION__SEND_PACKET.invoke(playerConnection, packet);
+                packets++;
+            } catch (Exception e) {
+                throw new RuntimeException("Cannot send particle packet to player '" + player.getName() + "' for particle renderer", e);
             }
         }
+
+        return packets;
+    }
+
+    @Override
+    public int hashCode() {
+
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    @Override
+    public String toString() {
+
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+    // Resolved on first use, so the renderer can be created without a craftbukkit server (e.g. for headless runners)
+    private static class ReflectionHandles {
+
+        private static final Method         CRAFT_PLAYER__GET_HANDLE;
+        private static final Field          NMS_ENTITY_PLAYER__PLAYER_CONNECTION;
+        private static final Method         NMS_PLAYER_CONNECTION__SEND_PACKET;
+        private static final Constructor<?> NMS_PACKET__CONSTRUCTOR;
+
+        static {
+
+            try {
+                CRAFT_PLAYER__GET_HANDLE = Class.forName(ReflectionConstants.CB_ENTITY_PACKAGE + ".CraftPlayer").getMethod("getHandle");
+                NMS_ENTITY_PLAYER__PLAYER_CONNECTION = Class.forName(ReflectionConstants.NMS_PACKAGE + ".EntityPlayer").getField("playerConnection");
+                NMS_PLAYER_CONNECTION__SEND_PACKET = NMS_ENTITY_PLAYER__PLAYER_CONNECTION.getType().getMethod("sendPacket", Class.forName(ReflectionConstants.NMS_PACKAGE + ".Packet"));
+
+                String packetClassName = ReflectionConstants.NMS_PACKAGE + "." + (ReflectionConstants.MINOR_VERSION < 7 ? "Packet63WorldParticles" : "PacketPlayOutWorldParticles");
+                NMS_PACKET__CONSTRUCTOR = Class.forName(packetClassName).getConstructor();
+            } catch (Exception e) {
+                throw new RuntimeException("Cannot initialize particle renderer reflection handles", e);
+            }
+
+        }
+
+        private ReflectionHandles() {
+
+        }
+
     }
 
 }
@@ -0,0 +1,188 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * A player index sorts a snapshot of {@link Player}s by their world and into a horizontal grid of cells, so the players around a {@link Location} can be found quickly.
+ * A query only visits the cells which intersect the query radius instead of checking every online player.
+ * The positions of the players are taken once when the index is created; later movements of the players are not reflected.<br>
+ * <br>
+ * The {@link ObjectSystemScheduler} builds one index per tick, which is shared by all runners during that tick.
+ * Each runner stores the players around its systems in their {@link ReceiverCache}s, so the index is only queried once per tick and system.
+ * Note that this is an internal class and should not be used as an api class.
+ *
+ * @see ObjectSystemScheduler#getPlayerIndex()
+ */
+public class PlayerIndex {
+
+    private static final int                          CELL_SHIFT   = 5;
+
+    private final Map<String, List<Player>>           worldPlayers = new HashMap<String, List<Player>>();
+    private final Map<String, Map<Long, List<Entry>>> worldCells   = new HashMap<String, Map<Long, List<Entry>>>();
+
+    /**
+     * Creates a new player index which contains the given {@link Player}s at their current positions.
+     *
+     * @param players The players that should be indexed.
+     */
+    public PlayerIndex(Collection<Player> players) {
+
+        Location location = new Location(null, 0, 0, 0);
+        for (Player player : players) {
+            player.getLocation(location);
+            String worldName = location.getWorld().getName();
+
+            List<Player> playersInWorld = worldPlayers.get(worldName);
+            Map<Long, List<Entry>> cells = worldCells.get(worldName);
+            if (playersInWorld == null) {
+                playersInWorld = new ArrayList<Player>();
+                worldPlayers.put(worldName, playersInWorld);
+                cells = new HashMap<Long, List<Entry>>();
+                worldCells.put(worldName, cells);
+            }
+            playersInWorld.add(player);
+
+            Long key = toKey(toCell(location.getX()), toCell(location.getZ()));
+            List<Entry> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<Entry>();
+                cells.put(key, cell);
+            }
+            cell.add(new Entry(player, location.getX(), location.getY(), location.getZ()));
+        }
+    }
+
+    /**
+     * Returns all indexed {@link Player}s which are in the given {@link World}.
+     *
+     * @param world The world whose players should be returned.
+     * @return The players in the given world.
+     */
+    public List<Player> getPlayers(World world) {
+
+        List<Player> playersInWorld = worldPlayers.get(world.getName());
+        return playersInWorld == null ? Collections.<Player> emptyList() : Collections.unmodifiableList(playersInWorld);
+    }
+
+    /**
+     * Returns all indexed {@link Player}s which are in the world of the given center {@link Location} and not farther away from it than the given radius.
+     *
+     * @param center The center location of the sphere the returned players are in.
+     * @param radius The radius of the sphere the returned players are in.
+     * @return The players around the given center location.
+     */
+    public List<Player> getPlayers(Location center, double radius) {
+
+        Validate.isTrue(radius >= 0, "Player index query radius must be >= 0: ", radius);
+
+        List<Player> players = new ArrayList<Player>();
+        Map<Long, List<Entry>> cells = worldCells.get(center.getWorld().getName());
+        if (cells == null) {
+            return players;
+        }
+
+        double x = center.getX();
+        double y = center.getY();
+        double z = center.getZ();
+        double radiusSquared = radius * radius;
+
+        int minCellX = toCell(x - radius);
+        int maxCellX = toCell(x + radius);
+        int minCellZ = toCell(z - radius);
+        int maxCellZ = toCell(z + radius);
+
+        // Large radii would visit more empty cells than there are occupied ones, so all occupied cells are checked instead
+        if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > cells.size()) {
+            for (List<Entry> cell : cells.values()) {
+                addPlayers(cell, x, y, z, radiusSquared, players);
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    List<Entry> cell = cells.get(toKey(cellX, cellZ));
+                    if (cell != null) {
+                        addPlayers(cell, x, y, z, radiusSquared, players);
+                    }
+                }
+            }
+        }
+
+        return players;
+    }
+
+    private void addPlayers(List<Entry> cell, double x, double y, double z, double radiusSquared, List<Player> players) {
+
+        for (int index = 0; index < cell.size(); index++) {
+            Entry entry = cell.get(index);
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+            double dz = entry.z - z;
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                players.add(entry.player);
+            }
+        }
+    }
+
+    private int toCell(double coordinate) {
+
+        return (int) Math.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private Long toKey(int cellX, int cellZ) {
+
+        return (long) cellX << 32 | cellZ & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("worlds", worldPlayers.keySet()).toString();
+    }
+
+    private static class Entry {
+
+        private final Player player;
+        private final double x;
+        private final double y;
+        private final double z;
+
+        private Entry(Player player, double x, double y, double z) {
+
+            this.player = player;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+
+/**
+ * A receiver cache stores the {@link Player}s which receive the output of the renderers of one {@link ActiveObjectSystem} during the current tick.
+ * The {@link ObjectSystemRunner} resets the caches of its active system and all instances at the start of each update,
+ * so the receivers of a system are only looked up once per tick in the {@link PlayerIndex} the runner resolved for that tick.
+ * If the system is rendered without a runner, the receivers are looked up once per {@link ActiveObjectSystem#getLifetime() lifetime} tick of the system instead.<br>
+ * <br>
+ * Note that this is an internal class and should not be used as an api class.
+ *
+ * @see ActiveObjectSystem#getReceiverCache()
+ * @see ParticleRenderer
+ */
+public class ReceiverCache {
+
+    private ObjectSystemRunner runner;
+    private double             viewDistance;
+    private List<Player>       receivers;
+    private int                receiversLifetime;
+
+    /**
+     * Resets the receiver cache for a new tick in which the given {@link ObjectSystemRunner} renders the {@link ActiveObjectSystem} of the cache.
+     * Note that this is an internal method and should not be used as an api function.
+     *
+     * @param runner The runner which provides the {@link PlayerIndex} of the new tick.
+     *        If it is {@code null} (e.g. because the runner stopped), the cache no longer refers to any runner or players.
+     */
+    void reset(ObjectSystemRunner runner) {
+
+        this.runner = runner;
+        receivers = null;
+    }
+
+    /**
+     * Returns the {@link Player}s which are within the given view distance around the origin of the given {@link ActiveObjectSystem} during the current tick.
+     * If the view distance is 0, all players in the world of the origin are returned.
+     * The players are cached until the next reset, as long as the view distance doesn't change.
+     * If the cache wasn't reset by a runner, the players are cached for the current lifetime tick of the active system.
+     *
+     * @param plugin The plugin which renders the active system.
+     *        It is only used if the cache wasn't reset by a runner.
+     * @param objectSystem The active system the cache belongs to.
+     * @param viewDistance The distance around the origin of the active system in which the players are.
+     * @return The players around the origin of the active system.
+     */
+    List<Player> getReceivers(Plugin plugin, ActiveObjectSystem objectSystem, double viewDistance) {
+
+        if (runner == null) {
+            // Without a runner, the player index is only resolved again once the lifetime of the active system changes
+            if (receivers == null || viewDistance != this.viewDistance || objectSystem.getLifetime() != receiversLifetime) {
+                receivers = getReceivers(ObjectSystemRunner.resolvePlayerIndex(plugin), objectSystem.getOrigin(), viewDistance);
+                this.viewDistance = viewDistance;
+                receiversLifetime = objectSystem.getLifetime();
+            }
+        } else if (receivers == null || viewDistance != this.viewDistance) {
+            receivers = getReceivers(runner.getPlayerIndex(), objectSystem.getOrigin(), viewDistance);
+            this.viewDistance = viewDistance;
+        }
+
+        return receivers;
+    }
+
+    private List<Player> getReceivers(PlayerIndex playerIndex, Location origin, double viewDistance) {
+
+        if (playerIndex == null) {
+            return Collections.emptyList();
+        } else if (viewDistance > 0) {
+            return playerIndex.getPlayers(origin, viewDistance);
+        } else {
+            return playerIndex.getPlayers(origin.getWorld());
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("viewDistance", viewDistance).append("receivers", receivers == null ? -1 : receivers.size()).toString();
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.plugin.Plugin;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+
+/**
+ * A recording renderer stores a clone of each rendered object instead of displaying it.
+ * The clones are grouped by the {@link ActiveObjectSystem#getLifetime() lifetime} of the active system at the time they were rendered.
+ * It is meant to be used as a sink by a {@link HeadlessObjectSystemRunner} for inspecting simulations.
+ * Note that the renderer doesn't distinguish between different active systems, so it should only be used by one runner.
+ *
+ * @param <O> The type of object the renderer records. This must extend {@link BaseObject}.
+ * @see Renderer
+ */
+public class RecordingRenderer<O extends BaseObject> implements Renderer<O> {
+
+    private final Class<O>              objectType;
+    private final Map<Integer, List<O>> recordings = new LinkedHashMap<Integer, List<O>>();
+
+    /**
+     * Creates a new recording renderer which records all objects of the given type.
+     *
+     * @param objectType The type of object that should be recorded.
+     */
+    public RecordingRenderer(Class<O> objectType) {
+
+        Validate.notNull(objectType, "Recording renderer object type cannot be null");
+
+        this.objectType = objectType;
+    }
+
+    @Override
+    public Class<O> getObjectType() {
+
+        return objectType;
+    }
+
+    /**
+     * Returns the {@link ActiveObjectSystem#getLifetime() lifetimes} of the active system at which at least one object has been recorded.
+     *
+     * @return The recorded ticks in the order they were recorded in.
+     */
+    public synchronized List<Integer> getRecordedTicks() {
+
+        return Collections.unmodifiableList(new ArrayList<Integer>(recordings.keySet()));
+    }
+
+    /**
+     * Returns the clones of the objects which have been rendered while the active system had the given {@link ActiveObjectSystem#getLifetime() lifetime}.
+     *
+     * @param tick The lifetime of the active system.
+     * @return The recorded object clones of the tick. The list is empty if no object was recorded.
+     */
+    public synchronized List<O> getRecordedObjects(int tick) {
+
+        List<O> objects = recordings.get(tick);
+        return objects == null ? Collections.<O> emptyList() : Collections.unmodifiableList(new ArrayList<O>(objects));
+    }
+
+    /**
+     * Removes all recorded objects from the renderer.
+     */
+    public synchronized void clear() {
+
+        recordings.clear();
+    }
+
+    @SuppressWarnings ("unchecked")
+    @Override
+    public synchronized RenderingResult render(Plugin plugin, ActiveObjectSystem objectSystem, O object) {
+
+        int tick = objectSystem.getLifetime();
+        List<O> objects = recordings.get(tick);
+        if (objects == null) {
+            objects = new ArrayList<O>();
+            recordings.put(tick, objects);
+        }
+        objects.add((O) object.clone());
+
+        return RenderingResult.NOTHING;
+    }
+
+    @Override
+    public String toString() {
+
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("objectType", objectType.getName()).append("recordedTicks", recordings.size()).toString();
+    }
+
+}
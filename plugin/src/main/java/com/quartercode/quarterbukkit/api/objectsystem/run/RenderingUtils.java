@@ -20,6 +20,7 @@ package com.quartercode.quarterbukkit.api.objectsystem.run;
 
 import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PrimitivePhysicsObject;
 
 /**
  * A class that contains some general rendering utilities.
@@ -36,7 +37,27 @@ public class RenderingUtils {
      */
     public static boolean checkSpeedBasedFrequency(PhysicsObject object, float minRenderDistance) {
 
-        return checkSpeedBasedFrequency(object.getLifetime(), object.getVelocity().length(), minRenderDistance);
+        return checkSpeedBasedFrequency(object.getLifetime(), getVelocityLength(object), minRenderDistance);
+    }
+
+    /**
+     * Returns the length of the current velocity of the given {@link PhysicsObject}.
+     * If the object is a {@link PrimitivePhysicsObject}, no {@link Vector} is created.
+     *
+     * @param object The physics object whose velocity length should be returned.
+     * @return The length of the velocity vector of the object.
+     */
+    public static double getVelocityLength(PhysicsObject object) {
+
+        if (! (object instanceof PrimitivePhysicsObject)) {
+            return object.getVelocity().length();
+        }
+
+        PrimitivePhysicsObject primitiveObject = (PrimitivePhysicsObject) object;
+        double velocityX = primitiveObject.getVelocityX();
+        double velocityY = primitiveObject.getVelocityY();
+        double velocityZ = primitiveObject.getVelocityZ();
+        return Math.sqrt(velocityX * velocityX + velocityY * velocityY + velocityZ * velocityZ);
     }
 
     /**
@@ -45,7 +66,7 @@ public class RenderingUtils {
      * @param objectLifetime The lifetime of the object.
      *        It can be determined with {@link PhysicsObject#getLifetime()}.
      * @param objectVelocity The current velocity value of the object.
-     *        It can be determined with {@link PhysicsObject#getVelocity()} and then {@link Vector#length()}.
+     *        It can be determined with {@link #getVelocityLength(PhysicsObject)}.
      * @param minRenderDistance The minimum distance from the current position of the object its last rendering must have happened.
      * @return Whether the object should be rendered.
      */
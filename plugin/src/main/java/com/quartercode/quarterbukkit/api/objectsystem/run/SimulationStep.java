@@ -0,0 +1,94 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.run;
+
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.BaseObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A simulation step is a strategy an {@link ObjectSystemRunner} uses for applying the modification rules to the objects and physics column rows of its {@link ActiveObjectSystem}.
+ * The runner picks one step each tick depending on its configuration and the size of the active system.
+ * Note that this is an internal class and should not be used as an api class.
+ *
+ * @see ObjectSystemRunner
+ */
+abstract class SimulationStep {
+
+    protected final ObjectSystemRunner runner;
+
+    protected SimulationStep(ObjectSystemRunner runner) {
+
+        this.runner = runner;
+    }
+
+    /**
+     * Applies the modification rules to the objects and rows of the {@link ActiveObjectSystem} which are simulated by the step during the current tick.
+     */
+    abstract void applyModificationRules();
+
+    /**
+     * Returns whether the step simulates and renders the {@link StandalonePhysicsObject}s and rows on its own, so the runner must not render them.
+     *
+     * @return Whether the step simulates the standalone physics objects asynchronously.
+     */
+    boolean isAsynchronous() {
+
+        return false;
+    }
+
+    /**
+     * Is called by the runner after the {@link ActiveObjectSystem} was rendered and its lifetime was incremented.
+     */
+    void finish() {
+
+    }
+
+    /**
+     * Applies the modification rules to all objects of the {@link ActiveObjectSystem}, optionally skipping the {@link StandalonePhysicsObject}s.
+     *
+     * @param skipStandaloneObjects Whether the standalone physics objects are skipped since they are simulated in another way.
+     */
+    protected void applyModificationRulesToObjects(boolean skipStandaloneObjects) {
+
+        for (BaseObject object : runner.getObjectSystem().getObjects()) {
+            if (!skipStandaloneObjects || ! (object instanceof StandalonePhysicsObject)) {
+                runner.applyModificationRules(object);
+            }
+        }
+    }
+
+    /**
+     * Applies the modification rules to the rows of the {@link PhysicsColumns} one by one.
+     * Each row is loaded into a flyweight object and stored back afterwards.
+     */
+    protected void applyModificationRulesToRows() {
+
+        PhysicsColumns physicsColumns = runner.getObjectSystem().getPhysicsColumns();
+        for (int row = 0; row < physicsColumns.size(); row++) {
+            if (!physicsColumns.isRemoved(row)) {
+                StandalonePhysicsObject object = physicsColumns.load(row);
+                runner.applyModificationRules(object);
+                physicsColumns.store(row, object);
+            }
+        }
+    }
+
+}
@@ -40,7 +40,8 @@ public class StandalonePhysicsObjectRenderer extends StatelessRenderer<Standalon
     @Override
     public RenderingResult render(Plugin plugin, ActiveObjectSystem objectSystem, StandalonePhysicsObject object) {
 
-        object.setPosition(object.getPosition().add(object.getVelocity()));
+        // Add the velocity in place in order to avoid creating new vectors for each object every tick
+        object.setPosition(object.getX() + object.getVelocityX(), object.getY() + object.getVelocityY(), object.getZ() + object.getVelocityZ());
 
         return RenderingResult.NOTHING;
     }
@@ -0,0 +1,120 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.source;
+
+import java.util.Random;
+import org.apache.commons.lang.Validate;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A {@link PrototypeSource} that spawns a fixed amount of objects once, after a given delay.
+ * That is useful for explosion-like effects.
+ *
+ * @param <O> The type of the prototype object the source spawns. This must extend {@link StandalonePhysicsObject}.
+ */
+public class BurstSource<O extends StandalonePhysicsObject> extends PrototypeSource<O> {
+
+    private int amount;
+    private int delay;
+
+    /**
+     * Creates a new burst source that spawns the given amount of copies of the given prototype {@link StandalonePhysicsObject} in the first tick.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     * @param amount The amount of objects that are spawned by the burst.
+     */
+    public BurstSource(O prototype, int amount) {
+
+        this(prototype, amount, 0);
+    }
+
+    /**
+     * Creates a new burst source that spawns the given amount of copies of the given prototype {@link StandalonePhysicsObject} after the given delay.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     * @param amount The amount of objects that are spawned by the burst.
+     * @param delay The lifetime of the {@link ActiveObjectSystem} at which the burst happens. A delay of 0 spawns the objects in the first tick.
+     */
+    public BurstSource(O prototype, int amount, int delay) {
+
+        super(prototype);
+
+        setAmount(amount);
+        setDelay(delay);
+    }
+
+    /**
+     * Returns the amount of objects that are spawned by the burst.
+     *
+     * @return The burst amount.
+     */
+    public int getAmount() {
+
+        return amount;
+    }
+
+    /**
+     * Sets the amount of objects that are spawned by the burst.
+     *
+     * @param amount The new burst amount.
+     * @return This object.
+     */
+    public BurstSource<O> setAmount(int amount) {
+
+        Validate.isTrue(amount >= 0, "Amount of burst source must be >= 0: ", amount);
+        this.amount = amount;
+        return this;
+    }
+
+    /**
+     * Returns the lifetime of the {@link ActiveObjectSystem} at which the burst happens.
+     * A delay of 0 spawns the objects in the first tick.
+     *
+     * @return The burst delay in ticks.
+     */
+    public int getDelay() {
+
+        return delay;
+    }
+
+    /**
+     * Sets the lifetime of the {@link ActiveObjectSystem} at which the burst happens.
+     * A delay of 0 spawns the objects in the first tick.
+     *
+     * @param delay The new burst delay in ticks.
+     * @return This object.
+     */
+    public BurstSource<O> setDelay(int delay) {
+
+        Validate.isTrue(delay >= 0, "Delay of burst source must be >= 0: ", delay);
+        this.delay = delay;
+        return this;
+    }
+
+    @Override
+    protected int getSpawnAmount(ActiveObjectSystem objectSystem, Random random) {
+
+        // A degraded or fast-forwarded runner might not update the source exactly at the burst tick
+        return delay >= getFirstSpawnTick(objectSystem) && delay <= objectSystem.getLifetime() ? amount : 0;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.source;
+
+import java.util.Random;
+import org.apache.commons.lang.Validate;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A {@link PrototypeSource} that repeatedly spawns a fixed amount of objects every few ticks.
+ * For example, an interval source with the interval 20 and the amount 5 spawns 5 objects once per second.
+ *
+ * @param <O> The type of the prototype object the source spawns. This must extend {@link StandalonePhysicsObject}.
+ */
+public class IntervalSource<O extends StandalonePhysicsObject> extends PrototypeSource<O> {
+
+    private int amount;
+    private int interval;
+    private int offset;
+
+    /**
+     * Creates a new interval source that spawns the given amount of copies of the given prototype {@link StandalonePhysicsObject}
+     * every time the given interval has passed, starting in the first tick.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     * @param amount The amount of objects that are spawned each interval.
+     * @param interval The amount of ticks between two spawns.
+     */
+    public IntervalSource(O prototype, int amount, int interval) {
+
+        this(prototype, amount, interval, 0);
+    }
+
+    /**
+     * Creates a new interval source that spawns the given amount of copies of the given prototype {@link StandalonePhysicsObject}
+     * every time the given interval has passed, starting after the given offset.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     * @param amount The amount of objects that are spawned each interval.
+     * @param interval The amount of ticks between two spawns.
+     * @param offset The lifetime of the {@link ActiveObjectSystem} at which the first spawn happens.
+     */
+    public IntervalSource(O prototype, int amount, int interval, int offset) {
+
+        super(prototype);
+
+        setAmount(amount);
+        setInterval(interval);
+        setOffset(offset);
+    }
+
+    /**
+     * Returns the amount of objects that are spawned each interval.
+     *
+     * @return The spawn amount.
+     */
+    public int getAmount() {
+
+        return amount;
+    }
+
+    /**
+     * Sets the amount of objects that are spawned each interval.
+     *
+     * @param amount The new spawn amount.
+     * @return This object.
+     */
+    public IntervalSource<O> setAmount(int amount) {
+
+        Validate.isTrue(amount >= 0, "Amount of interval source must be >= 0: ", amount);
+        this.amount = amount;
+        return this;
+    }
+
+    /**
+     * Returns the amount of ticks between two spawns.
+     *
+     * @return The spawn interval in ticks.
+     */
+    public int getInterval() {
+
+        return interval;
+    }
+
+    /**
+     * Sets the amount of ticks between two spawns.
+     *
+     * @param interval The new spawn interval in ticks.
+     * @return This object.
+     */
+    public IntervalSource<O> setInterval(int interval) {
+
+        Validate.isTrue(interval > 0, "Interval of interval source must be > 0: ", interval);
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * Returns the lifetime of the {@link ActiveObjectSystem} at which the first spawn happens.
+     *
+     * @return The offset of the first spawn in ticks.
+     */
+    public int getOffset() {
+
+        return offset;
+    }
+
+    /**
+     * Sets the lifetime of the {@link ActiveObjectSystem} at which the first spawn happens.
+     *
+     * @param offset The new offset of the first spawn in ticks.
+     * @return This object.
+     */
+    public IntervalSource<O> setOffset(int offset) {
+
+        Validate.isTrue(offset >= 0, "Offset of interval source must be >= 0: ", offset);
+        this.offset = offset;
+        return this;
+    }
+
+    @Override
+    protected int getSpawnAmount(ActiveObjectSystem objectSystem, Random random) {
+
+        // Count the spawn ticks since the last update, since a degraded or fast-forwarded runner might not update the source exactly at them
+        int lifetime = objectSystem.getLifetime();
+        int firstTick = Math.max(getFirstSpawnTick(objectSystem), offset);
+        if (firstTick > lifetime) {
+            return 0;
+        }
+
+        int spawns = (lifetime - offset) / interval - (firstTick - offset + interval - 1) / interval + 1;
+        return spawns * amount;
+    }
+
+}
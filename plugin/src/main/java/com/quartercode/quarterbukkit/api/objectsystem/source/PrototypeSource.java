@@ -0,0 +1,206 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.source;
+
+import java.util.Random;
+import org.apache.commons.lang.Validate;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectPool;
+import com.quartercode.quarterbukkit.api.objectsystem.Source;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsColumns;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * An abstract {@link Source} that spawns copies of a prototype {@link StandalonePhysicsObject}.
+ * Subclasses only define how many objects are spawned each tick and may change the position each object is spawned at.
+ * All objects of one tick are spawned in bulk: the storage of the {@link ActiveObjectSystem} is sized once for all of them.
+ * New objects are taken from the {@link ObjectPool} of the active system.
+ * Alternatively, the source can spawn the objects as rows of the {@link PhysicsColumns} of the active system, which doesn't create any java objects at all.
+ *
+ * @param <O> The type of the prototype object the source spawns. This must extend {@link StandalonePhysicsObject}.
+ * @see StandalonePhysicsObject
+ */
+public abstract class PrototypeSource<O extends StandalonePhysicsObject> implements Source {
+
+    private O                      prototype;
+    private boolean                physicsColumns;
+
+    private final transient Vector spawnPosition = new Vector();
+
+    /**
+     * Creates a new prototype source that spawns copies of the given prototype {@link StandalonePhysicsObject}.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     */
+    protected PrototypeSource(O prototype) {
+
+        setPrototype(prototype);
+    }
+
+    /**
+     * Returns the prototype {@link StandalonePhysicsObject} the spawned objects are copies of.
+     * Note that the prototype must not be modified while the source is used.
+     *
+     * @return The prototype object of the source.
+     */
+    public O getPrototype() {
+
+        return prototype;
+    }
+
+    /**
+     * Sets the prototype {@link StandalonePhysicsObject} the spawned objects are copies of.
+     * Note that the prototype must not be modified while the source is used.
+     *
+     * @param prototype The new prototype object of the source.
+     * @return This object.
+     */
+    public PrototypeSource<O> setPrototype(O prototype) {
+
+        Validate.notNull(prototype, "Prototype of prototype source cannot be null");
+        this.prototype = prototype;
+        return this;
+    }
+
+    /**
+     * Returns whether the source spawns rows into the {@link PhysicsColumns} of the {@link ActiveObjectSystem} instead of regular objects.
+     *
+     * @return Whether the source uses the physics columns.
+     */
+    public boolean isPhysicsColumns() {
+
+        return physicsColumns;
+    }
+
+    /**
+     * Sets whether the source spawns rows into the {@link PhysicsColumns} of the {@link ActiveObjectSystem} instead of regular objects.
+     * Rows are much cheaper than regular objects, but they can't be accessed through {@link ActiveObjectSystem#getObjects()}.
+     *
+     * @param physicsColumns Whether the source should use the physics columns.
+     * @return This object.
+     */
+    public PrototypeSource<O> setPhysicsColumns(boolean physicsColumns) {
+
+        this.physicsColumns = physicsColumns;
+        return this;
+    }
+
+    @Override
+    public void update(Plugin plugin, ActiveObjectSystem objectSystem, Random random) {
+
+        int amount = getSpawnAmount(objectSystem, random);
+        if (amount <= 0) {
+            return;
+        }
+
+        double velocityX = prototype.getVelocityX();
+        double velocityY = prototype.getVelocityY();
+        double velocityZ = prototype.getVelocityZ();
+
+        if (physicsColumns) {
+            PhysicsColumns columns = objectSystem.getPhysicsColumns();
+            columns.ensureCapacity(columns.size() + amount);
+
+            for (int counter = 0; counter < amount; counter++) {
+                computeSpawnPosition(random, spawnPosition);
+                columns.add(prototype, spawnPosition.getX(), spawnPosition.getY(), spawnPosition.getZ(), velocityX, velocityY, velocityZ);
+            }
+        } else {
+            objectSystem.ensureObjectCapacity(amount);
+
+            for (int counter = 0; counter < amount; counter++) {
+                computeSpawnPosition(random, spawnPosition);
+                StandalonePhysicsObject object = objectSystem.spawnObject(prototype);
+                object.setPosition(spawnPosition.getX(), spawnPosition.getY(), spawnPosition.getZ());
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of objects that should be spawned into the given {@link ActiveObjectSystem} during the current source update.
+     * The current tick can be retrieved using {@link ActiveObjectSystem#getLifetime()}.
+     * If the sources were not updated in every tick (see {@link ActiveObjectSystem#getSourceTicks()}), the amount should include all spawns that were due
+     * since the last update, which are the spawns from {@link #getFirstSpawnTick(ActiveObjectSystem)} up to the current tick.
+     *
+     * @param objectSystem The active system the objects are spawned into.
+     * @param random The random object that should be used for random decisions.
+     * @return The amount of objects to spawn.
+     */
+    protected abstract int getSpawnAmount(ActiveObjectSystem objectSystem, Random random);
+
+    /**
+     * Returns the first lifetime tick of the given {@link ActiveObjectSystem} whose spawns are still due in the current source update.
+     * All ticks since the last update are due, except for the ticks whose objects would have already expired if they had been spawned in time.
+     * The returned tick is never greater than the current {@link ActiveObjectSystem#getLifetime() lifetime}.
+     *
+     * @param objectSystem The active system the objects are spawned into.
+     * @return The first tick whose spawns should be included in the current spawn amount.
+     */
+    protected int getFirstSpawnTick(ActiveObjectSystem objectSystem) {
+
+        int lifetime = objectSystem.getLifetime();
+        int firstTick = lifetime - objectSystem.getSourceTicks() + 1;
+
+        if (prototype.getExpirationTime() != -1) {
+            int remainingLifetime = Math.max(prototype.getExpirationTime() - prototype.getLifetime(), 1);
+            firstTick = Math.max(firstTick, lifetime - remainingLifetime + 1);
+        }
+
+        return firstTick;
+    }
+
+    /**
+     * Computes the position the next object should be spawned at and writes it into the given target {@link Vector}.
+     * By default, all objects are spawned at the position of the prototype.
+     * Note that the position is relative to the origin of the {@link ActiveObjectSystem}.
+     *
+     * @param random The random object that should be used for random decisions.
+     * @param target The vector the computed position should be written into.
+     */
+    protected void computeSpawnPosition(Random random, Vector target) {
+
+        target.setX(prototype.getX()).setY(prototype.getY()).setZ(prototype.getZ());
+    }
+
+    @Override
+    public int hashCode() {
+
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    @Override
+    public String toString() {
+
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+}
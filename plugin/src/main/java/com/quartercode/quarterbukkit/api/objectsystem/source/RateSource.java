@@ -0,0 +1,83 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.source;
+
+import java.util.Random;
+import org.apache.commons.lang.Validate;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+
+/**
+ * A {@link PrototypeSource} that continuously spawns objects at a constant rate.
+ * The rate is defined in objects per tick and may be fractional.
+ * For example, a rate of 0.25 spawns one object every 4 ticks, and a rate of 2.5 spawns 2 and 3 objects in alternating ticks.
+ * The fractions are accumulated over the lifetime of the {@link ActiveObjectSystem}, so no spawns are lost by rounding.
+ *
+ * @param <O> The type of the prototype object the source spawns. This must extend {@link StandalonePhysicsObject}.
+ */
+public class RateSource<O extends StandalonePhysicsObject> extends PrototypeSource<O> {
+
+    private double rate;
+
+    /**
+     * Creates a new rate source that spawns copies of the given prototype {@link StandalonePhysicsObject} at the given rate.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     * @param rate The amount of objects that are spawned per tick. This value may be fractional.
+     */
+    public RateSource(O prototype, double rate) {
+
+        super(prototype);
+
+        setRate(rate);
+    }
+
+    /**
+     * Returns the amount of objects that are spawned per tick. This value may be fractional.
+     *
+     * @return The spawn rate in objects per tick.
+     */
+    public double getRate() {
+
+        return rate;
+    }
+
+    /**
+     * Sets the amount of objects that are spawned per tick. This value may be fractional.
+     *
+     * @param rate The new spawn rate in objects per tick.
+     * @return This object.
+     */
+    public RateSource<O> setRate(double rate) {
+
+        Validate.isTrue(rate >= 0, "Rate of rate source must be >= 0: ", rate);
+        this.rate = rate;
+        return this;
+    }
+
+    @Override
+    protected int getSpawnAmount(ActiveObjectSystem objectSystem, Random random) {
+
+        // The accumulated amount is derived from the system lifetime, so the source doesn't need to store any state per active system
+        int lifetime = objectSystem.getLifetime();
+        return (int) (rate * (lifetime + 1)) - (int) (rate * getFirstSpawnTick(objectSystem));
+    }
+
+}
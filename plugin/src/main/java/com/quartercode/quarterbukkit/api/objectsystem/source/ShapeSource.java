@@ -0,0 +1,106 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.api.objectsystem.source;
+
+import java.util.Random;
+import org.apache.commons.lang.Validate;
+import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.StandalonePhysicsObject;
+import com.quartercode.quarterbukkit.api.shape.Cuboid;
+import com.quartercode.quarterbukkit.api.shape.Shape;
+
+/**
+ * A {@link RateSource} that spawns its objects at random positions inside the volume of a {@link Shape}.
+ * The positions are uniformly distributed over the volume of the shape.
+ * Note that the shape must return a {@link Cuboid} as its {@link Shape#getAxisAlignedBoundingBox() bounding box}, which is true for all built-in shapes.
+ *
+ * @param <O> The type of the prototype object the source spawns. This must extend {@link StandalonePhysicsObject}.
+ * @see Shape
+ */
+public class ShapeSource<O extends StandalonePhysicsObject> extends RateSource<O> {
+
+    private static final int MAX_ATTEMPTS = 64;
+
+    private Shape            shape;
+    private transient Vector boundsMin;
+    private transient Vector boundsSize;
+
+    /**
+     * Creates a new shape source that spawns copies of the given prototype {@link StandalonePhysicsObject} inside the given {@link Shape} at the given rate.
+     *
+     * @param prototype The prototype object the spawned objects are copies of.
+     *        Note that the prototype must not be modified while the source is used.
+     * @param rate The amount of objects that are spawned per tick. This value may be fractional.
+     * @param shape The shape the objects are spawned in.
+     *        Note that all coordinates stored by the shape are always relative to the origin of any {@link ActiveObjectSystem} the source is used by.
+     */
+    public ShapeSource(O prototype, double rate, Shape shape) {
+
+        super(prototype, rate);
+
+        setShape(shape);
+    }
+
+    /**
+     * Returns the {@link Shape} the objects are spawned in.
+     * Note that all coordinates stored by the shape are always relative to the origin of any {@link ActiveObjectSystem} the source is used by.
+     *
+     * @return The spawn shape.
+     */
+    public Shape getShape() {
+
+        return shape;
+    }
+
+    /**
+     * Sets the {@link Shape} the objects are spawned in.
+     * Note that all coordinates stored by the shape are always relative to the origin of any {@link ActiveObjectSystem} the source is used by.
+     *
+     * @param shape The new spawn shape.
+     * @return This object.
+     */
+    public ShapeSource<O> setShape(Shape shape) {
+
+        Validate.notNull(shape, "Shape of shape source cannot be null");
+        Shape boundingBox = shape.getAxisAlignedBoundingBox();
+        Validate.isTrue(boundingBox instanceof Cuboid, "Shape of shape source must have a cuboid bounding box: ", shape);
+
+        this.shape = shape;
+        boundsMin = ((Cuboid) boundingBox).getMinVector();
+        boundsSize = ((Cuboid) boundingBox).getMaxVector().subtract(boundsMin);
+        return this;
+    }
+
+    @Override
+    protected void computeSpawnPosition(Random random, Vector target) {
+
+        // Sample the bounding box until a point inside the shape is found; the last sample is used if the shape is too thin to be hit
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            target.setX(boundsMin.getX() + random.nextDouble() * boundsSize.getX());
+            target.setY(boundsMin.getY() + random.nextDouble() * boundsSize.getY());
+            target.setZ(boundsMin.getZ() + random.nextDouble() * boundsSize.getZ());
+
+            if (shape.intersects(target.getX(), target.getY(), target.getZ())) {
+                return;
+            }
+        }
+    }
+
+}
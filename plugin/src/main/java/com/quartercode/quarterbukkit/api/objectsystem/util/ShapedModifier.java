@@ -19,10 +19,12 @@
 package com.quartercode.quarterbukkit.api.objectsystem.util;
 
 import org.apache.commons.lang.Validate;
+import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
 import com.quartercode.quarterbukkit.api.objectsystem.Modifier;
 import com.quartercode.quarterbukkit.api.objectsystem.ModifierWrapper;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PrimitivePhysicsObject;
 import com.quartercode.quarterbukkit.api.shape.Shape;
 
 /**
@@ -176,7 +178,14 @@ public class ShapedModifier<O extends PhysicsObject, M> extends ModifierWrapper<
     @Override
     public M getModification(O object) {
 
-        boolean intersectsShape = shape.intersects(object.getPosition());
+        boolean intersectsShape;
+        if (object instanceof PrimitivePhysicsObject) {
+            PrimitivePhysicsObject primitiveObject = (PrimitivePhysicsObject) object;
+            intersectsShape = shape.intersects(primitiveObject.getX(), primitiveObject.getY(), primitiveObject.getZ());
+        } else {
+            Vector position = object.getPosition();
+            intersectsShape = shape.intersects(position.getX(), position.getY(), position.getZ());
+        }
 
         if (intersectsShape == !inversed) {
             return getWrapped().getModification(object);
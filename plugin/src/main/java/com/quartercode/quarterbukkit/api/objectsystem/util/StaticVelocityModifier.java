@@ -24,6 +24,7 @@ import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.bukkit.util.Vector;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ColumnVelocityModifier;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsObject;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModifier;
 
@@ -36,7 +37,7 @@ import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModifier;
  * @see PhysicsObject
  * @see ShapedModifier
  */
-public class StaticVelocityModifier<O extends PhysicsObject> implements VelocityModifier<O> {
+public class StaticVelocityModifier<O extends PhysicsObject> implements ColumnVelocityModifier<O> {
 
     private Vector modification;
 
@@ -79,6 +80,28 @@ public class StaticVelocityModifier<O extends PhysicsObject> implements Velocity
         return modification.clone();
     }
 
+    @Override
+    public boolean writeModification(O object, Vector result) {
+
+        result.copy(modification);
+        return true;
+    }
+
+    @Override
+    public void writeModifications(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written) {
+
+        double modificationX = modification.getX();
+        double modificationY = modification.getY();
+        double modificationZ = modification.getZ();
+
+        for (int index = 0; index < length; index++) {
+            resultX[index] = modificationX;
+            resultY[index] = modificationY;
+            resultZ[index] = modificationZ;
+            written[index] = true;
+        }
+    }
+
     @Override
     public int hashCode() {
 
@@ -25,7 +25,9 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.bukkit.util.Vector;
 import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.ColumnVelocityModifier;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.PhysicsObject;
+import com.quartercode.quarterbukkit.api.objectsystem.physics.PrimitivePhysicsObject;
 import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModifier;
 
 /**
@@ -37,7 +39,7 @@ import com.quartercode.quarterbukkit.api.objectsystem.physics.VelocityModifier;
  * @see PhysicsObject
  * @see ShapedModifier
  */
-public class TargetedVelocityModifier<O extends PhysicsObject> implements VelocityModifier<O> {
+public class TargetedVelocityModifier<O extends PhysicsObject> implements ColumnVelocityModifier<O> {
 
     /**
      * The different types of targeted velocity modifications.
@@ -98,8 +100,6 @@ public class TargetedVelocityModifier<O extends PhysicsObject> implements Veloci
 
     }
 
-    private static final Vector              ZERO_VECTOR        = new Vector();
-
     private TargetedVelocityModificationType type;
     private Vector                           target;
     private float                            factor;
@@ -278,20 +278,117 @@ public class TargetedVelocityModifier<O extends PhysicsObject> implements Veloci
     @Override
     public Vector getModification(O object) {
 
-        Vector relativePosition = removeIgnoredComponents(object.getPosition()).subtract(effectiveTarget);
+        Vector modification = new Vector();
+        return writeModification(object, modification) ? modification : null;
+    }
+
+    @Override
+    public boolean writeModification(O object, Vector result) {
+
+        // Calculate the relative position without creating a copy of the object's position vector if possible
+        double positionX;
+        double positionY;
+        double positionZ;
+        if (object instanceof PrimitivePhysicsObject) {
+            PrimitivePhysicsObject primitiveObject = (PrimitivePhysicsObject) object;
+            positionX = primitiveObject.getX();
+            positionY = primitiveObject.getY();
+            positionZ = primitiveObject.getZ();
+        } else {
+            Vector position = object.getPosition();
+            positionX = position.getX();
+            positionY = position.getY();
+            positionZ = position.getZ();
+        }
+
+        double relativeX = (ignoredComponenets[0] ? 0 : positionX) - effectiveTarget.getX();
+        double relativeY = (ignoredComponenets[1] ? 0 : positionY) - effectiveTarget.getY();
+        double relativeZ = (ignoredComponenets[2] ? 0 : positionZ) - effectiveTarget.getZ();
 
-        if (!relativePosition.equals(ZERO_VECTOR)) {
+        // Just like Vector.equals(), each component which is closer to 0 than the vector epsilon is treated as 0; the operations are the ones of the vector methods
+        if (!isZero(relativeX, relativeY, relativeZ)) {
             if (type == TargetedVelocityModificationType.NEGATIVE_POSITION_VECTOR) {
-                return relativePosition.multiply(-1 * factor);
+                double scale = -1 * factor;
+                result.setX(relativeX * scale).setY(relativeY * scale).setZ(relativeZ * scale);
+                return true;
             } else if (type == TargetedVelocityModificationType.UNIFORM) {
-                return relativePosition.normalize().multiply(-1 * factor);
+                double scale = -1 * factor;
+                double length = Math.sqrt(relativeX * relativeX + relativeY * relativeY + relativeZ * relativeZ);
+                result.setX(relativeX / length * scale).setY(relativeY / length * scale).setZ(relativeZ / length * scale);
+                return true;
             } else if (type == TargetedVelocityModificationType.GRAVITY) {
-                double gravityAcceleration = factor / relativePosition.lengthSquared();
-                return relativePosition.normalize().multiply(-1 * gravityAcceleration);
+                double lengthSquared = relativeX * relativeX + relativeY * relativeY + relativeZ * relativeZ;
+                double gravityAcceleration = factor / lengthSquared;
+                double scale = -1 * gravityAcceleration;
+                double length = Math.sqrt(lengthSquared);
+                result.setX(relativeX / length * scale).setY(relativeY / length * scale).setZ(relativeZ / length * scale);
+                return true;
             }
         }
 
-        return null;
+        return false;
+    }
+
+    private boolean isZero(double x, double y, double z) {
+
+        double epsilon = Vector.getEpsilon();
+        return Math.abs(x) < epsilon && Math.abs(y) < epsilon && Math.abs(z) < epsilon;
+    }
+
+    @Override
+    public void writeModifications(double[] positionX, double[] positionY, double[] positionZ, int offset, int length, double[] resultX, double[] resultY, double[] resultZ, boolean[] written) {
+
+        double targetX = effectiveTarget.getX();
+        double targetY = effectiveTarget.getY();
+        double targetZ = effectiveTarget.getZ();
+        boolean ignoreX = ignoredComponenets[0];
+        boolean ignoreY = ignoredComponenets[1];
+        boolean ignoreZ = ignoredComponenets[2];
+
+        if (type != TargetedVelocityModificationType.NEGATIVE_POSITION_VECTOR && type != TargetedVelocityModificationType.UNIFORM && type != TargetedVelocityModificationType.GRAVITY) {
+            for (int index = 0; index < length; index++) {
+                written[index] = false;
+            }
+            return;
+        }
+
+        // The type is checked outside of the loop, so the loop body only consists of arithmetic operations; the results are the same as the ones of writeModification()
+        for (int index = 0; index < length; index++) {
+            double relativeX = (ignoreX ? 0 : positionX[offset + index]) - targetX;
+            double relativeY = (ignoreY ? 0 : positionY[offset + index]) - targetY;
+            double relativeZ = (ignoreZ ? 0 : positionZ[offset + index]) - targetZ;
+            resultX[index] = relativeX;
+            resultY[index] = relativeY;
+            resultZ[index] = relativeZ;
+            written[index] = !isZero(relativeX, relativeY, relativeZ);
+        }
+
+        if (type == TargetedVelocityModificationType.NEGATIVE_POSITION_VECTOR) {
+            double scale = -1 * factor;
+            for (int index = 0; index < length; index++) {
+                resultX[index] *= scale;
+                resultY[index] *= scale;
+                resultZ[index] *= scale;
+            }
+        } else if (type == TargetedVelocityModificationType.UNIFORM) {
+            double scale = -1 * factor;
+            for (int index = 0; index < length; index++) {
+                double vectorLength = Math.sqrt(resultX[index] * resultX[index] + resultY[index] * resultY[index] + resultZ[index] * resultZ[index]);
+                resultX[index] = resultX[index] / vectorLength * scale;
+                resultY[index] = resultY[index] / vectorLength * scale;
+                resultZ[index] = resultZ[index] / vectorLength * scale;
+            }
+        } else {
+            for (int index = 0; index < length; index++) {
+                double lengthSquared = resultX[index] * resultX[index] + resultY[index] * resultY[index] + resultZ[index] * resultZ[index];
+                double gravityAcceleration = factor / lengthSquared;
+                double scale = -1 * gravityAcceleration;
+                double vectorLength = Math.sqrt(lengthSquared);
+                resultX[index] = resultX[index] / vectorLength * scale;
+                resultY[index] = resultY[index] / vectorLength * scale;
+                resultZ[index] = resultZ[index] / vectorLength * scale;
+            }
+        }
     }
 
     private void updateEffectiveTarget() {
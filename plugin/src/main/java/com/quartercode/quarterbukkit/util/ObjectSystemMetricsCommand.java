@@ -0,0 +1,142 @@
+/*
+ * This file is part of QuarterBukkit-Plugin.
+ * Copyright (c) 2012 QuarterCode <http://www.quartercode.com/>
+ *
+ * QuarterBukkit-Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * QuarterBukkit-Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with QuarterBukkit-Plugin. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.quartercode.quarterbukkit.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import com.quartercode.quarterbukkit.api.command.Command;
+import com.quartercode.quarterbukkit.api.command.CommandHandler;
+import com.quartercode.quarterbukkit.api.command.CommandInfo;
+import com.quartercode.quarterbukkit.api.objectsystem.ActiveObjectSystem;
+import com.quartercode.quarterbukkit.api.objectsystem.ObjectSystemMetrics;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ObjectSystemRunner;
+import com.quartercode.quarterbukkit.api.objectsystem.run.ObjectSystemScheduler;
+
+public class ObjectSystemMetricsCommand implements CommandHandler {
+
+    @Override
+    public CommandInfo getInfo() {
+
+        return new CommandInfo(true, "[plugin]", "Shows the runtime metrics of all running object systems or of the object systems of one plugin.", "quarterbukkit.admin", "metrics");
+    }
+
+    @Override
+    public void execute(Command command) {
+
+        CommandSender sender = command.getSender();
+
+        if (command.getArguments().length == 0) {
+            sender.sendMessage(ChatColor.GOLD + "Object system metrics (tick times include all runners of a plugin):");
+            boolean found = false;
+            for (ObjectSystemScheduler scheduler : ObjectSystemScheduler.getSchedulers()) {
+                if (!scheduler.getRunners().isEmpty()) {
+                    found = true;
+                    ObjectSystemMetrics metrics = scheduler.getMetrics();
+                    int objects = 0;
+                    for (ObjectSystemRunner runner : scheduler.getRunners()) {
+                        objects += countObjects(runner.getObjectSystem());
+                    }
+
+                    sender.sendMessage(ChatColor.AQUA + scheduler.getPlugin().getName() + ChatColor.GRAY + ": " + scheduler.getRunners().size() + " runners, " + objects + " objects");
+                    sendMetrics(sender, metrics);
+                }
+            }
+
+            if (!found) {
+                sender.sendMessage(ChatColor.GRAY + "No object systems are running");
+            }
+        } else {
+            ObjectSystemScheduler scheduler = getScheduler(command.getArguments()[0]);
+            if (scheduler == null || scheduler.getRunners().isEmpty()) {
+                sender.sendMessage(ChatColor.RED + "The plugin '" + command.getArguments()[0] + "' doesn't run any object systems");
+                return;
+            }
+
+            List<ObjectSystemRunner> runners = scheduler.getRunners();
+            sender.sendMessage(ChatColor.GOLD + "Object systems of " + scheduler.getPlugin().getName() + ":");
+            for (int index = 0; index < runners.size(); index++) {
+                ObjectSystemRunner runner = runners.get(index);
+                ActiveObjectSystem objectSystem = runner.getObjectSystem();
+                Location origin = objectSystem.getOrigin();
+
+                String location = (origin.getWorld() == null ? "?" : origin.getWorld().getName()) + " " + origin.getBlockX() + "," + origin.getBlockY() + "," + origin.getBlockZ();
+                String state = runner.isSleeping() ? ", sleeping" : runner.getDegradation() > 0 ? ", degradation " + runner.getDegradation() : "";
+                sender.sendMessage(ChatColor.AQUA + "#" + (index + 1) + ChatColor.GRAY + " at " + location + state);
+                sendMetrics(sender, objectSystem.getMetrics());
+                sender.sendMessage(ChatColor.GRAY + "  Objects: " + formatObjectCounts(objectSystem.getObjectCounts()));
+            }
+        }
+    }
+
+    private ObjectSystemScheduler getScheduler(String pluginName) {
+
+        for (ObjectSystemScheduler scheduler : ObjectSystemScheduler.getSchedulers()) {
+            if (scheduler.getPlugin().getName().equalsIgnoreCase(pluginName)) {
+                return scheduler;
+            }
+        }
+
+        return null;
+    }
+
+    private int countObjects(ActiveObjectSystem objectSystem) {
+
+        int objects = 0;
+        for (int objectCount : objectSystem.getObjectCounts().values()) {
+            objects += objectCount;
+        }
+        return objects;
+    }
+
+    private void sendMetrics(CommandSender sender, ObjectSystemMetrics metrics) {
+
+        long stagesTime = Math.max(1, metrics.getRulesTime() + metrics.getSourcesTime() + metrics.getRenderersTime());
+        long updates = Math.max(1, metrics.getUpdates());
+
+        sender.sendMessage(ChatColor.GRAY + "  Tick: " + formatMillis(metrics.getMinUpdateTime()) + " min, " + formatMillis(metrics.getAverageUpdateTime()) + " avg, " + formatMillis(metrics.getPercentileUpdateTime(99)) + " p99");
+        sender.sendMessage(ChatColor.GRAY + "  Split: " + 100 * metrics.getRulesTime() / stagesTime + "% rules, " + 100 * metrics.getSourcesTime() / stagesTime + "% sources, " + 100 * metrics.getRenderersTime() / stagesTime + "% renderers");
+        sender.sendMessage(ChatColor.GRAY + "  Per tick: " + String.format("%.1f", (double) metrics.getSpawnedObjects() / updates) + " spawned, " + String.format("%.1f", (double) metrics.getExpiredObjects() / updates) + " expired, " + String.format("%.1f", (double) metrics.getParticlePackets() / updates) + " particle packets, " + String.format("%.2f", (double) metrics.getFireworks() / updates) + " fireworks");
+    }
+
+    private String formatMillis(long nanos) {
+
+        return String.format("%.3fms", nanos / 1000000D);
+    }
+
+    private String formatObjectCounts(Map<Class<?>, Integer> objectCounts) {
+
+        if (objectCounts.isEmpty()) {
+            return "none";
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (Entry<Class<?>, Integer> objectCount : objectCounts.entrySet()) {
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(objectCount.getValue()).append(" ").append(objectCount.getKey().getSimpleName());
+        }
+        return result.toString();
+    }
+
+}
@@ -25,6 +25,8 @@ import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import com.quartercode.quarterbukkit.api.exception.InstallException;
 import com.quartercode.quarterbukkit.api.exception.InternalException;
+import com.quartercode.quarterbukkit.api.exception.NoCommandFoundException;
+import com.quartercode.quarterbukkit.api.exception.NoCommandPermissionException;
 
 public class QuarterBukkitExceptionListener implements Listener {
 
@@ -59,4 +61,17 @@ public class QuarterBukkitExceptionListener implements Listener {
         exception.getCause().printStackTrace();
     }
 
+    @EventHandler
+    public void noCommandFoundException(NoCommandFoundException exception) {
+
+        exception.getCommand().getSender().sendMessage(ChatColor.RED + "Unknown command. Usage: /" + exception.getCommand().getGlobalLabel() + " metrics [plugin]");
+    }
+
+    @EventHandler
+    public void noCommandPermissionException(NoCommandPermissionException exception) {
+
+        exception.setCancelled(true);
+        exception.getCauser().sendMessage(ChatColor.RED + "You don't have the permission to use this command");
+    }
+
 }